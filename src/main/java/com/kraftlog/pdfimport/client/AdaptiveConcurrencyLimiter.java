@@ -0,0 +1,340 @@
+package com.kraftlog.pdfimport.client;
+
+import com.kraftlog.pdfimport.config.KraftLogApiProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Caps the number of API calls in flight, adapting the cap to what the API sustains (AIMD).
+ *
+ * <p>While calls use at least half of the limit and complete quickly, the limit grows by
+ * about one per round of calls. It shrinks multiplicatively when a call takes much longer than the fastest
+ * recent call of the same operation (the API is queueing), and sharply when the API answers
+ * 429 or 503 or a call times out. Calls that started before a decrease don't shrink the limit
+ * again, so a burst of failures counts once. A {@code Retry-After} on an overload response
+ * holds back every new call until it has passed.
+ *
+ * <p>Calls over the limit wait in FIFO order, for at most the queue timeout.
+ */
+@Slf4j
+class AdaptiveConcurrencyLimiter {
+
+    enum Outcome {
+        /** The call completed; its latency feeds the limit */
+        SUCCESS,
+        /** The API was overloaded: 429, 503 or a timeout */
+        OVERLOAD,
+        /** The call failed for a reason unrelated to load */
+        IGNORE
+    }
+
+    /**
+     * The right to make one call. Must be released exactly once.
+     */
+    final class Permit {
+        private final String operation;
+        private final long startNanos;
+        private final boolean saturated;
+        private boolean released;
+
+        private Permit(String operation, boolean saturated) {
+            this.operation = operation;
+            this.startNanos = System.nanoTime();
+            this.saturated = saturated;
+        }
+
+        void release(Outcome outcome) {
+            release(outcome, null);
+        }
+
+        /**
+         * @param retryAfter how long the API asked to wait, or null
+         */
+        void release(Outcome outcome, Duration retryAfter) {
+            release(outcome, retryAfter, System.nanoTime() - startNanos);
+        }
+
+        void release(Outcome outcome, Duration retryAfter, long latencyNanos) {
+            AdaptiveConcurrencyLimiter.this.release(this, outcome, latencyNanos, retryAfter);
+        }
+    }
+
+    /**
+     * No slot became free within the queue timeout; the API was not called.
+     */
+    static class QueueTimeoutException extends IOException {
+        QueueTimeoutException(String message) {
+            super(message);
+        }
+    }
+
+    private record Waiter(String operation, CompletableFuture<Permit> permit) {
+    }
+
+    /**
+     * Lowest latency seen for an operation over the last window of calls.
+     */
+    private static final class LatencyBaseline {
+        private static final int WINDOW = 200;
+
+        private long minNanos = Long.MAX_VALUE;
+        private long windowMinNanos = Long.MAX_VALUE;
+        private int samples;
+
+        private void add(long latencyNanos) {
+            minNanos = Math.min(minNanos, latencyNanos);
+            windowMinNanos = Math.min(windowMinNanos, latencyNanos);
+            if (++samples >= WINDOW) {
+                // Let the baseline follow the API when it gets permanently slower
+                minNanos = windowMinNanos;
+                windowMinNanos = Long.MAX_VALUE;
+                samples = 0;
+            }
+        }
+    }
+
+    private final KraftLogApiProperties.Concurrency settings;
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private final Map<String, LatencyBaseline> baselines = new HashMap<>();
+
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos;
+    private long backoffUntilNanos;
+    private boolean wakeUpScheduled;
+    private long overloads;
+    private long queueTimeouts;
+
+    AdaptiveConcurrencyLimiter(KraftLogApiProperties.Concurrency settings) {
+        this.settings = settings;
+        this.limit = Math.max(settings.getMinLimit(), Math.min(settings.getMaxLimit(), settings.getInitialLimit()));
+        this.lastDecreaseNanos = System.nanoTime();
+        this.backoffUntilNanos = lastDecreaseNanos;
+    }
+
+    /**
+     * Waits for a free slot, for at most the queue timeout.
+     */
+    Permit acquire(String operation) throws IOException, InterruptedException {
+        CompletableFuture<Permit> permit = acquireAsync(operation);
+        try {
+            return permit.get(settings.getQueueTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (!permit.cancel(false)) {
+                // Granted just now
+                return permit.join();
+            }
+            synchronized (this) {
+                waiters.removeIf(waiter -> waiter.permit() == permit);
+                queueTimeouts++;
+            }
+            throw new QueueTimeoutException("Timed out waiting to call the KraftLog API (" + operation + ")");
+        } catch (InterruptedException e) {
+            if (!permit.cancel(false)) {
+                permit.join().release(Outcome.IGNORE);
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IOException("Could not call the KraftLog API", e.getCause());
+        }
+    }
+
+    /**
+     * Completes with a permit once a slot is free. Cancelling the future gives up the place in
+     * the queue.
+     */
+    CompletableFuture<Permit> acquireAsync(String operation) {
+        synchronized (this) {
+            if (waiters.isEmpty() && canStart()) {
+                return CompletableFuture.completedFuture(grant(operation));
+            }
+
+            Waiter waiter = new Waiter(operation, new CompletableFuture<>());
+            waiters.add(waiter);
+            scheduleWakeUp();
+            return waiter.permit();
+        }
+    }
+
+    synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", settings.isEnabled());
+        stats.put("limit", (int) limit);
+        stats.put("inFlight", inFlight);
+        stats.put("queued", waiters.stream().filter(waiter -> !waiter.permit().isDone()).count());
+        stats.put("overloads", overloads);
+        stats.put("queueTimeouts", queueTimeouts);
+        stats.put("retryAfterRemainingMs", Math.max(0, TimeUnit.NANOSECONDS.toMillis(backoffUntilNanos - System.nanoTime())));
+        return stats;
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Reads a {@code Retry-After} value, either seconds or an HTTP date.
+     *
+     * @return the delay, or null if the value is missing or not understood
+     */
+    static Duration parseRetryAfter(String value, Instant now) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            // Not seconds, try a date
+        }
+        try {
+            Instant retryAt = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return retryAt.isAfter(now) ? Duration.between(now, retryAt) : Duration.ZERO;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private Permit grant(String operation) {
+        inFlight++;
+        // Only grow a limit that calls actually use
+        return new Permit(operation, inFlight * 2 >= (int) limit);
+    }
+
+    private boolean canStart() {
+        if (!settings.isEnabled()) {
+            return true;
+        }
+        return System.nanoTime() - backoffUntilNanos >= 0 && inFlight < Math.max(1, (int) limit);
+    }
+
+    private void release(Permit permit, Outcome outcome, long latencyNanos, Duration retryAfter) {
+        List<CompletableFuture<Permit>> granted = new ArrayList<>();
+        Map<CompletableFuture<Permit>, Permit> permits = new HashMap<>();
+
+        synchronized (this) {
+            if (permit.released) {
+                return;
+            }
+            permit.released = true;
+            inFlight--;
+
+            if (settings.isEnabled()) {
+                adjustLimit(permit, outcome, latencyNanos, retryAfter);
+            }
+
+            while (!waiters.isEmpty() && canStart()) {
+                Waiter waiter = waiters.poll();
+                if (waiter.permit().isDone()) {
+                    continue;
+                }
+                granted.add(waiter.permit());
+                permits.put(waiter.permit(), grant(waiter.operation()));
+            }
+            scheduleWakeUp();
+        }
+
+        // Outside the lock, as completing runs the callers' continuations
+        for (CompletableFuture<Permit> waiter : granted) {
+            Permit next = permits.get(waiter);
+            if (!waiter.complete(next)) {
+                next.release(Outcome.IGNORE);
+            }
+        }
+    }
+
+    private void adjustLimit(Permit permit, Outcome outcome, long latencyNanos, Duration retryAfter) {
+        boolean startedAfterDecrease = permit.startNanos - lastDecreaseNanos > 0;
+
+        switch (outcome) {
+            case SUCCESS -> {
+                LatencyBaseline baseline = baselines.computeIfAbsent(permit.operation, operation -> new LatencyBaseline());
+                baseline.add(latencyNanos);
+                if (latencyNanos > baseline.minNanos * settings.getLatencyTolerance()) {
+                    if (startedAfterDecrease) {
+                        decrease(settings.getLatencyBackoffRatio(), "latency");
+                    }
+                } else if (permit.saturated) {
+                    limit = Math.min(settings.getMaxLimit(), limit + 1 / limit);
+                }
+            }
+            case OVERLOAD -> {
+                overloads++;
+                if (startedAfterDecrease) {
+                    decrease(settings.getOverloadBackoffRatio(), "overload");
+                }
+                if (retryAfter != null) {
+                    Duration delay = retryAfter.compareTo(settings.getMaxRetryAfter()) > 0
+                            ? settings.getMaxRetryAfter()
+                            : retryAfter;
+                    long until = System.nanoTime() + delay.toNanos();
+                    if (until - backoffUntilNanos > 0) {
+                        backoffUntilNanos = until;
+                        log.warn("KraftLog API asked to retry after {} ms, holding back new calls", delay.toMillis());
+                    }
+                }
+            }
+            case IGNORE -> {
+            }
+        }
+    }
+
+    private void decrease(double ratio, String reason) {
+        double previous = limit;
+        limit = Math.max(settings.getMinLimit(), limit * ratio);
+        lastDecreaseNanos = System.nanoTime();
+        log.debug("Concurrency limit {} -> {} ({})", (int) previous, (int) limit, reason);
+    }
+
+    /**
+     * Grants queued calls once a Retry-After has passed, as no release may come to do it.
+     */
+    private void scheduleWakeUp() {
+        long delayNanos = backoffUntilNanos - System.nanoTime();
+        if (waiters.isEmpty() || wakeUpScheduled || delayNanos <= 0) {
+            return;
+        }
+
+        wakeUpScheduled = true;
+        CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(this::wakeUp);
+    }
+
+    private void wakeUp() {
+        List<Waiter> granted = new ArrayList<>();
+        List<Permit> permits = new ArrayList<>();
+
+        synchronized (this) {
+            wakeUpScheduled = false;
+            while (!waiters.isEmpty() && canStart()) {
+                Waiter waiter = waiters.poll();
+                if (!waiter.permit().isDone()) {
+                    granted.add(waiter);
+                    permits.add(grant(waiter.operation()));
+                }
+            }
+            scheduleWakeUp();
+        }
+
+        for (int i = 0; i < granted.size(); i++) {
+            if (!granted.get(i).permit().complete(permits.get(i))) {
+                permits.get(i).release(Outcome.IGNORE);
+            }
+        }
+    }
+}
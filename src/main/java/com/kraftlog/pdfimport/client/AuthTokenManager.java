@@ -0,0 +1,213 @@
+package com.kraftlog.pdfimport.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Holds the API token shared by all requests of a client.
+ *
+ * <p>Logins are single-flight: however many threads find the token missing, expired or
+ * rejected at once, one login request is sent and all of them wait for it. When the token is a
+ * JWT, its {@code exp} claim is read and a new token is fetched in the background shortly
+ * before it expires, so requests keep using the current token meanwhile instead of stalling
+ * on a 401 and a login. Tokens without a readable expiry are kept until the API rejects them.
+ */
+@Slf4j
+class AuthTokenManager {
+
+    private record Token(String value, Instant expiresAt) {
+    }
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Supplier<CompletableFuture<String>> login;
+    private final Supplier<Duration> refreshMargin;
+    private final Clock clock;
+
+    private volatile Token current;
+    private CompletableFuture<String> inFlightLogin;
+    private ScheduledExecutorService refreshScheduler;
+    private ScheduledFuture<?> scheduledRefresh;
+
+    /**
+     * @param login         sends a login request and completes with the new token
+     * @param refreshMargin how long before expiry the token is refreshed
+     */
+    AuthTokenManager(Supplier<CompletableFuture<String>> login, Supplier<Duration> refreshMargin) {
+        this(login, refreshMargin, Clock.systemUTC());
+    }
+
+    AuthTokenManager(Supplier<CompletableFuture<String>> login, Supplier<Duration> refreshMargin, Clock clock) {
+        this.login = login;
+        this.refreshMargin = refreshMargin;
+        this.clock = clock;
+    }
+
+    /**
+     * The current token, logging in first if there is none or it has expired. A token that is
+     * about to expire is still returned, while a new one is fetched in the background.
+     */
+    String getToken() throws IOException, InterruptedException {
+        String token = currentToken();
+        return token != null ? token : await(refreshAsync());
+    }
+
+    CompletableFuture<String> getTokenAsync() {
+        String token = currentToken();
+        return token != null ? CompletableFuture.completedFuture(token) : refreshAsync();
+    }
+
+    /**
+     * Logs in again, joining a login already in flight, and waits for the new token.
+     */
+    String refresh() throws IOException, InterruptedException {
+        return await(refreshAsync());
+    }
+
+    /**
+     * Starts a login unless one is in flight, and completes with its token.
+     */
+    synchronized CompletableFuture<String> refreshAsync() {
+        if (inFlightLogin != null) {
+            return inFlightLogin;
+        }
+
+        CompletableFuture<String> flight;
+        try {
+            flight = login.get().thenApply(value -> {
+                Token token = new Token(value, readExpiry(value));
+                current = token;
+                scheduleRefresh(token);
+                return value;
+            });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        inFlightLogin = flight;
+        flight.whenComplete((value, error) -> {
+            synchronized (this) {
+                if (inFlightLogin == flight) {
+                    inFlightLogin = null;
+                }
+            }
+        });
+        return flight;
+    }
+
+    /**
+     * Drops the token after the API rejected it. Only the given token is dropped: when another
+     * request has already replaced it, the newer token is kept.
+     */
+    synchronized void invalidate(String rejectedToken) {
+        Token token = current;
+        if (token != null && token.value().equals(rejectedToken)) {
+            current = null;
+        }
+    }
+
+    synchronized void shutdown() {
+        if (refreshScheduler != null) {
+            refreshScheduler.shutdownNow();
+        }
+    }
+
+    private String currentToken() {
+        Token token = current;
+        if (token == null) {
+            return null;
+        }
+        if (token.expiresAt() == null) {
+            return token.value();
+        }
+
+        Instant now = clock.instant();
+        if (!now.isBefore(token.expiresAt())) {
+            return null;
+        }
+        if (!now.isBefore(token.expiresAt().minus(refreshMargin.get()))) {
+            // Normally done by the scheduled refresh already
+            refreshInBackground();
+        }
+        return token.value();
+    }
+
+    private void refreshInBackground() {
+        refreshAsync().whenComplete((value, error) -> {
+            if (error != null) {
+                log.warn("Background token refresh failed: {}", error.getMessage());
+            }
+        });
+    }
+
+    private synchronized void scheduleRefresh(Token token) {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+            scheduledRefresh = null;
+        }
+        if (token.expiresAt() == null) {
+            return;
+        }
+
+        long delayMillis = Duration.between(clock.instant(), token.expiresAt().minus(refreshMargin.get())).toMillis();
+        if (delayMillis <= 0) {
+            return;
+        }
+
+        if (refreshScheduler == null) {
+            refreshScheduler = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("kraftlog-token-refresh").daemon().factory());
+        }
+        log.debug("Token expires at {}, refreshing in {} ms", token.expiresAt(), delayMillis);
+        scheduledRefresh = refreshScheduler.schedule(this::refreshInBackground, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The {@code exp} claim of a JWT, or null if the token is not a JWT or has no expiry.
+     */
+    static Instant readExpiry(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+
+        try {
+            byte[] payload = Base64.getUrlDecoder().decode(parts[1]);
+            JsonNode exp = OBJECT_MAPPER.readTree(new String(payload, StandardCharsets.UTF_8)).get("exp");
+            return exp != null && exp.isNumber() ? Instant.ofEpochSecond(exp.asLong()) : null;
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("Token is not a readable JWT: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String await(CompletableFuture<String> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause()
+                    : e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Authentication failed: " + cause.getMessage(), cause);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.kraftlog.pdfimport.client;
+
+import com.kraftlog.pdfimport.config.KraftLogApiProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Circuit breaker for one API endpoint.
+ *
+ * <p>After {@code failureThreshold} consecutive failures (5xx responses, timeouts, connection
+ * errors) the circuit opens and calls fail fast with {@link CircuitOpenException} instead of
+ * waiting on an API that is down. Once {@code openDuration} has passed, a single probe call is
+ * let through: its success closes the circuit, its failure opens it again.
+ */
+@Slf4j
+class CircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String endpoint;
+    private final KraftLogApiProperties.CircuitBreaker settings;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openUntil;
+    private boolean probeInFlight;
+
+    CircuitBreaker(String endpoint, KraftLogApiProperties.CircuitBreaker settings) {
+        this(endpoint, settings, Clock.systemUTC());
+    }
+
+    CircuitBreaker(String endpoint, KraftLogApiProperties.CircuitBreaker settings, Clock clock) {
+        this.endpoint = endpoint;
+        this.settings = settings;
+        this.clock = clock;
+    }
+
+    /**
+     * Whether a call may be made now. Every permitted call must be followed by exactly one of
+     * {@link #onSuccess}, {@link #onFailure} or {@link #onIgnore}.
+     */
+    synchronized boolean tryAcquire() {
+        if (!settings.isEnabled()) {
+            return true;
+        }
+
+        switch (state) {
+            case OPEN -> {
+                if (clock.instant().isBefore(openUntil)) {
+                    return false;
+                }
+                log.info("Circuit for {} half-open, sending a probe", endpoint);
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            }
+            case HALF_OPEN -> {
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+            }
+            default -> {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * The API answered, even if with a client error.
+     */
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            log.info("Circuit for {} closed", endpoint);
+            state = State.CLOSED;
+            probeInFlight = false;
+        }
+        if (state == State.CLOSED) {
+            consecutiveFailures = 0;
+        }
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= settings.getFailureThreshold())) {
+            state = State.OPEN;
+            probeInFlight = false;
+            openUntil = clock.instant().plus(settings.getOpenDuration());
+            log.warn("Circuit for {} open after {} consecutive failures, failing fast for {} s",
+                    endpoint, consecutiveFailures, settings.getOpenDuration().toSeconds());
+        }
+    }
+
+    /**
+     * The call ended without telling whether the API works, e.g. it was interrupted.
+     */
+    synchronized void onIgnore() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    CircuitOpenException openException() {
+        Duration retryIn;
+        synchronized (this) {
+            retryIn = state == State.OPEN ? Duration.between(clock.instant(), openUntil) : Duration.ZERO;
+        }
+        return new CircuitOpenException(endpoint, retryIn.isNegative() ? Duration.ZERO : retryIn);
+    }
+
+    synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state.name());
+        stats.put("consecutiveFailures", consecutiveFailures);
+        return stats;
+    }
+}
@@ -0,0 +1,22 @@
+package com.kraftlog.pdfimport.client;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Thrown instead of calling an API endpoint whose circuit breaker is open.
+ */
+@Getter
+public class CircuitOpenException extends IOException {
+
+    private final String endpoint;
+    private final Duration retryIn;
+
+    public CircuitOpenException(String endpoint, Duration retryIn) {
+        super("KraftLog API circuit open for " + endpoint + ", next attempt in " + retryIn.toSeconds() + " s");
+        this.endpoint = endpoint;
+        this.retryIn = retryIn;
+    }
+}
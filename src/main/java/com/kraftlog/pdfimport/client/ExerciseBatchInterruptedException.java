@@ -0,0 +1,21 @@
+package com.kraftlog.pdfimport.client;
+
+import com.kraftlog.pdfimport.dto.ExerciseCreateResult;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Thrown when creating a list of exercises is interrupted, with the results of the exercises
+ * handled before that. Exercises after those may or may not have been created.
+ */
+@Getter
+public class ExerciseBatchInterruptedException extends InterruptedException {
+
+    private final List<ExerciseCreateResult> completed;
+
+    public ExerciseBatchInterruptedException(List<ExerciseCreateResult> completed) {
+        super("Interrupted after " + completed.size() + " exercises");
+        this.completed = List.copyOf(completed);
+    }
+}
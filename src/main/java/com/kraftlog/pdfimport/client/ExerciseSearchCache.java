@@ -0,0 +1,183 @@
+package com.kraftlog.pdfimport.client;
+
+import com.kraftlog.pdfimport.config.KraftLogApiProperties;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded LRU cache of exercise search responses, keyed by the normalized search term.
+ *
+ * <p>Responses are held as the JSON the API returned, so each hit is deserialized into fresh
+ * objects and callers can never modify a cached entry. Empty results ("not found") are cached
+ * too, for the shorter {@code negativeTtl}, so that a creation elsewhere is noticed soon; an
+ * exercise created through this client replaces a "not found" entry right away, or is merged
+ * into a found one.
+ *
+ * <p>Every write stamps its entry with a new generation. A search response is only stored if no
+ * write for its key happened after the search started, so a slow response can't replace an
+ * exercise created meanwhile.
+ */
+class ExerciseSearchCache {
+
+    private record Entry(String json, boolean empty, Instant expiresAt, long generation) {
+    }
+
+    private final KraftLogApiProperties.SearchCache settings;
+    private final Clock clock;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Generation of the latest write; guarded by entries
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    ExerciseSearchCache(KraftLogApiProperties.SearchCache settings) {
+        this(settings, Clock.systemUTC());
+    }
+
+    ExerciseSearchCache(KraftLogApiProperties.SearchCache settings, Clock clock) {
+        this.settings = settings;
+        this.clock = clock;
+    }
+
+    /**
+     * The cached response JSON for the key, or null if there is none or it has expired.
+     */
+    String get(String key) {
+        if (!isEnabled(key)) {
+            return null;
+        }
+
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && !clock.instant().isBefore(entry.expiresAt())) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        (entry.empty() ? negativeHits : hits).incrementAndGet();
+        return entry.json();
+    }
+
+    /**
+     * The generation of the latest write, to pass to {@link #put(String, String, boolean, long)}
+     * for a search started now.
+     */
+    long generation() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    /**
+     * @param empty whether the response holds no exercises
+     */
+    void put(String key, String json, boolean empty) {
+        put(key, json, empty, generation());
+    }
+
+    /**
+     * Stores a search response, unless its key was written after {@code startedAt}.
+     *
+     * @param empty     whether the response holds no exercises
+     * @param startedAt the {@link #generation()} when the search started
+     */
+    void put(String key, String json, boolean empty, long startedAt) {
+        if (!isEnabled(key)) {
+            return;
+        }
+
+        synchronized (entries) {
+            Entry current = entries.get(key);
+            if (current != null && current.generation() > startedAt) {
+                return;
+            }
+            store(key, new Entry(json, empty, expiresAt(empty), ++generation));
+        }
+    }
+
+    /**
+     * Stores the response for an exercise created under the key. A missing, expired or "not
+     * found" entry is replaced by {@code json}; a found one is replaced by
+     * {@code merge.apply(cachedJson)}, keeping its expiry, or dropped if that returns null.
+     */
+    void putCreated(String key, String json, UnaryOperator<String> merge) {
+        if (!isEnabled(key)) {
+            return;
+        }
+
+        synchronized (entries) {
+            Entry current = entries.get(key);
+            if (current == null || current.empty() || !clock.instant().isBefore(current.expiresAt())) {
+                store(key, new Entry(json, false, expiresAt(false), ++generation));
+                return;
+            }
+
+            String merged = merge.apply(current.json());
+            if (merged == null) {
+                entries.remove(key);
+            } else {
+                store(key, new Entry(merged, false, current.expiresAt(), ++generation));
+            }
+        }
+    }
+
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("entries", entries.size());
+        }
+        long hitCount = hits.get();
+        long negativeHitCount = negativeHits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + negativeHitCount + missCount;
+        stats.put("hits", hitCount);
+        stats.put("negativeHits", negativeHitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) (hitCount + negativeHitCount) / lookups);
+        return stats;
+    }
+
+    private Instant expiresAt(boolean empty) {
+        return clock.instant().plus(empty ? settings.getNegativeTtl() : settings.getTtl());
+    }
+
+    // Called holding the entries lock
+    private void store(String key, Entry entry) {
+        entries.put(key, entry);
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > settings.getMaxEntries()) {
+            eldest.next();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private boolean isEnabled(String key) {
+        return settings.isEnabled() && key != null && !key.isEmpty();
+    }
+}
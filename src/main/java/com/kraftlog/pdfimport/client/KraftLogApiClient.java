@@ -1,65 +1,76 @@
 package com.kraftlog.pdfimport.client;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.kraftlog.pdfimport.config.KraftLogApiProperties;
 import com.kraftlog.pdfimport.dto.ExerciseCreateRequest;
+import com.kraftlog.pdfimport.dto.ExerciseCreateResult;
 import com.kraftlog.pdfimport.dto.ParsedExerciseData;
-import lombok.RequiredArgsConstructor;
+import com.kraftlog.pdfimport.text.ExerciseNameNormalizer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.net.ConnectException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.nio.charset.StandardCharsets;
-import java.util.Base64;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class KraftLogApiClient {
 
+    private static final TypeReference<List<ParsedExerciseData>> SEARCH_RESULTS = new TypeReference<>() {};
+
     private final KraftLogApiProperties apiProperties;
     private final ObjectMapper objectMapper = new ObjectMapper()
             .registerModule(new JavaTimeModule());
-    private final HttpClient httpClient = HttpClient.newBuilder()
-            .connectTimeout(java.time.Duration.ofSeconds(10))
-            .build();
-    
-    private String authToken;
 
+    private HttpClient httpClient;
+    private ExecutorService asyncExecutor;
+    private AdaptiveConcurrencyLimiter limiter;
+    private RetryPolicy retryPolicy;
+    private ExerciseSearchCache searchCache;
+    private final SingleFlight<String, String> searchFlights = new SingleFlight<>();
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    private final AuthTokenManager tokenManager = new AuthTokenManager(this::login, this::tokenRefreshMargin);
+    private volatile boolean bulkEndpointMissing;
+
+    public KraftLogApiClient(KraftLogApiProperties apiProperties) {
+        this.apiProperties = Objects.requireNonNull(apiProperties, "apiProperties");
+    }
+
+    /**
+     * Logs in again, or waits for a login already in flight. Requests log in on their own when
+     * needed, so calling this is only required to fail fast on bad credentials.
+     */
     public void authenticate() throws IOException, InterruptedException {
-        String loginUrl = apiProperties.getBaseUrl() + "/api/auth/login";
-        
-        String loginJson = String.format(
-            "{\"email\":\"%s\",\"password\":\"%s\"}",
-            apiProperties.getAuth().getUsername(),
-            apiProperties.getAuth().getPassword()
-        );
-        
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(loginUrl))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(loginJson))
-                .build();
-        
-        log.info("Authenticating with KraftLog API at {}", loginUrl);
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        
-        if (response.statusCode() == 200) {
-            var loginResponse = objectMapper.readTree(response.body());
-            authToken = loginResponse.get("token").asText();
-            log.info("Successfully authenticated with KraftLog API");
-        } else {
-            throw new IOException("Authentication failed with status: " + response.statusCode() + " - " + response.body());
-        }
+        tokenManager.refresh();
     }
 
     public ParsedExerciseData createExercise(ExerciseCreateRequest exercise) throws IOException, InterruptedException {
@@ -71,30 +82,22 @@ public class KraftLogApiClient {
             throw new IOException("Maximum retry attempts exceeded for exercise: " + exercise.getName());
         }
         
-        if (authToken == null || authToken.isEmpty()) {
-            authenticate();
-        }
+        String token = tokenManager.getToken();
         
-        String createUrl = apiProperties.getBaseUrl() + "/api/exercises";
         String exerciseJson = objectMapper.writeValueAsString(exercise);
-        
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(createUrl))
-                .header("Content-Type", "application/json")
-                .header("Authorization", "Bearer " + authToken)
-                .timeout(java.time.Duration.ofSeconds(10))
-                .POST(HttpRequest.BodyPublishers.ofString(exerciseJson))
-                .build();
+        HttpRequest request = postRequest("/api/exercises", exerciseJson, timeouts().getCreateExercise(), token);
         
         log.debug("Creating exercise: {}", exercise.getName());
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = send(request);
         
         if (response.statusCode() == 201) {
             log.info("Successfully created exercise: {}", exercise.getName());
-            return objectMapper.readValue(response.body(), ParsedExerciseData.class);
+            ParsedExerciseData created = objectMapper.readValue(response.body(), ParsedExerciseData.class);
+            cacheCreatedExercise(exercise.getName(), created);
+            return created;
         } else if (response.statusCode() == 401 && retryCount == 0) {
             log.warn("Token expired, re-authenticating...");
-            authenticate();
+            tokenManager.invalidate(token);
             return createExercise(exercise, retryCount + 1);
         } else {
             log.error("Failed to create exercise '{}': {} - {}", 
@@ -103,53 +106,221 @@ public class KraftLogApiClient {
         }
     }
 
-    public List<ParsedExerciseData> searchExercises(String searchTerm) throws IOException, InterruptedException {
-        if (authToken == null || authToken.isEmpty()) {
-            authenticate();
+    /**
+     * Whether {@link #createExercises} sends exercises to the bulk endpoint, i.e. batching is
+     * enabled and the API has not answered that the endpoint does not exist.
+     */
+    public boolean isBatchEnabled() {
+        return apiProperties.getBatch().isEnabled() && !bulkEndpointMissing;
+    }
+
+    /**
+     * Creates the exercises in chunks through the bulk endpoint, or one at a time when batching
+     * is disabled or the API has no bulk endpoint (404/405, remembered for later calls).
+     *
+     * @return one result per exercise, in the same order; exercises that could not be created
+     *         are reported in their result rather than thrown
+     * @throws ExerciseBatchInterruptedException if interrupted, with the results so far
+     */
+    public List<ExerciseCreateResult> createExercises(List<ExerciseCreateRequest> exercises)
+            throws ExerciseBatchInterruptedException {
+        List<ExerciseCreateResult> results = new ArrayList<>(exercises.size());
+        try {
+            createExercises(exercises, results);
+        } catch (InterruptedException e) {
+            throw new ExerciseBatchInterruptedException(results);
         }
+        return results;
+    }
+
+    private void createExercises(List<ExerciseCreateRequest> exercises, List<ExerciseCreateResult> results)
+            throws InterruptedException {
+        int chunkSize = Math.max(1, apiProperties.getBatch().getSize());
         
-        String encodedSearch = URLEncoder.encode(searchTerm, StandardCharsets.UTF_8);
-        String searchUrl = apiProperties.getBaseUrl() + "/api/exercises/search?query=" + encodedSearch;
+        for (int start = 0; start < exercises.size(); start += chunkSize) {
+            List<ExerciseCreateRequest> chunk = exercises.subList(start, Math.min(exercises.size(), start + chunkSize));
+            
+            if (isBatchEnabled()) {
+                List<ExerciseCreateResult> chunkResults = createExerciseChunk(chunk);
+                if (chunkResults != null) {
+                    results.addAll(chunkResults);
+                    continue;
+                }
+            }
+            
+            for (ExerciseCreateRequest exercise : chunk) {
+                try {
+                    results.add(ExerciseCreateResult.builder()
+                            .name(exercise.getName())
+                            .created(createExercise(exercise))
+                            .build());
+                } catch (IOException e) {
+                    results.add(failedResult(exercise, e.getMessage()));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the results of the chunk, or null if the API has no bulk endpoint
+     */
+    private List<ExerciseCreateResult> createExerciseChunk(List<ExerciseCreateRequest> chunk)
+            throws InterruptedException {
+        try {
+            String token = tokenManager.getToken();
+            
+            String exercisesJson = objectMapper.writeValueAsString(chunk);
+            String path = apiProperties.getBatch().getPath();
+            
+            log.debug("Creating {} exercises in one request", chunk.size());
+            HttpResponse<String> response = send(postRequest(path, exercisesJson, timeouts().getCreateExercises(), token));
+            
+            if (response.statusCode() == 401) {
+                log.warn("Token expired, re-authenticating...");
+                tokenManager.invalidate(token);
+                token = tokenManager.getToken();
+                response = send(postRequest(path, exercisesJson, timeouts().getCreateExercises(), token));
+            }
+            
+            if (response.statusCode() == 404 || response.statusCode() == 405) {
+                log.warn("KraftLog API has no bulk exercise endpoint ({}), creating exercises one at a time",
+                        response.statusCode());
+                bulkEndpointMissing = true;
+                return null;
+            }
+            
+            if (response.statusCode() != 200 && response.statusCode() != 201 && response.statusCode() != 207) {
+                log.error("Failed to create {} exercises: {} - {}", chunk.size(), response.statusCode(), response.body());
+                String reason = "Failed to create exercise batch: " + response.statusCode();
+                return chunk.stream().map(exercise -> failedResult(exercise, reason)).toList();
+            }
+            
+            log.info("Created batch of {} exercises", chunk.size());
+            return readChunkResults(chunk, objectMapper.readTree(response.body()));
+        } catch (IOException e) {
+            log.warn("Failed to create exercise batch: {}", e.getMessage());
+            return chunk.stream().map(exercise -> failedResult(exercise, e.getMessage())).toList();
+        }
+    }
+
+    /**
+     * Pairs the bulk response, an array with one entry per exercise in request order, with the
+     * exercises of the chunk. Entries without an id are failures, described by their "error".
+     */
+    private List<ExerciseCreateResult> readChunkResults(List<ExerciseCreateRequest> chunk, JsonNode items)
+            throws IOException {
+        List<ExerciseCreateResult> results = new ArrayList<>(chunk.size());
         
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(searchUrl))
-                .header("Authorization", "Bearer " + authToken)
-                .GET()
+        for (int i = 0; i < chunk.size(); i++) {
+            ExerciseCreateRequest exercise = chunk.get(i);
+            JsonNode item = items.isArray() ? items.get(i) : null;
+            
+            if (item == null) {
+                results.add(failedResult(exercise, "No result returned by bulk endpoint"));
+            } else if (item.hasNonNull("id")) {
+                ParsedExerciseData created = objectMapper.treeToValue(item, ParsedExerciseData.class);
+                cacheCreatedExercise(exercise.getName(), created);
+                results.add(ExerciseCreateResult.builder()
+                        .name(exercise.getName())
+                        .created(created)
+                        .build());
+            } else {
+                results.add(failedResult(exercise, item.path("error").asText("Exercise was not created")));
+            }
+        }
+        
+        return results;
+    }
+
+    private static ExerciseCreateResult failedResult(ExerciseCreateRequest exercise, String error) {
+        return ExerciseCreateResult.builder()
+                .name(exercise.getName())
+                .error(error)
                 .build();
+    }
+
+    /**
+     * Searches exercises by name. Results are cached by the normalized search term, see
+     * {@link ExerciseSearchCache}, and concurrent searches for the same normalized term share
+     * one request.
+     */
+    public List<ParsedExerciseData> searchExercises(String searchTerm) throws IOException, InterruptedException {
+        String cacheKey = ExerciseNameNormalizer.matchKeyOf(searchTerm);
+        String cached = getSearchCache().get(cacheKey);
+        if (cached != null) {
+            log.debug("Search cache hit: {}", searchTerm);
+            return objectMapper.readValue(cached, SEARCH_RESULTS);
+        }
+        
+        String body = searchFlights.run(cacheKey, () -> fetchSearchResults(searchTerm, cacheKey));
+        return objectMapper.readValue(body, SEARCH_RESULTS);
+    }
+
+    private String fetchSearchResults(String searchTerm, String cacheKey) throws IOException, InterruptedException {
+        String token = tokenManager.getToken();
+        
+        HttpRequest request = searchRequest(searchTerm, token);
         
         log.debug("Searching exercises: {}", searchTerm);
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        long startedAt = getSearchCache().generation();
+        HttpResponse<String> response = send(request);
         
         if (response.statusCode() == 200) {
-            TypeReference<List<ParsedExerciseData>> typeRef = new TypeReference<>() {};
-            return objectMapper.readValue(response.body(), typeRef);
+            cacheSearchResults(cacheKey, response.body(), startedAt);
+            return response.body();
         } else if (response.statusCode() == 401) {
             log.warn("Token expired, re-authenticating...");
-            authenticate();
-            return searchExercises(searchTerm);
+            tokenManager.invalidate(token);
+            return fetchSearchResults(searchTerm, cacheKey);
         } else {
             log.error("Failed to search exercises: {} - {}", response.statusCode(), response.body());
             throw new IOException("Failed to search exercises");
         }
     }
 
-    public Map<String, Object> createRoutine(Map<String, Object> routineData) throws IOException, InterruptedException {
-        if (authToken == null || authToken.isEmpty()) {
-            authenticate();
+    /**
+     * Lists the exercise catalog, or only the exercises updated at or after {@code updatedSince}
+     * when it is not null.
+     */
+    public List<ParsedExerciseData> listExercises(LocalDateTime updatedSince) throws IOException, InterruptedException {
+        return listExercises(updatedSince, 0);
+    }
+
+    private List<ParsedExerciseData> listExercises(LocalDateTime updatedSince, int retryCount)
+            throws IOException, InterruptedException {
+        String token = tokenManager.getToken();
+        
+        HttpRequest request = listRequest(updatedSince, token);
+        
+        log.debug("Listing exercises updated since {}", updatedSince);
+        HttpResponse<String> response = send(request);
+        
+        if (response.statusCode() == 200) {
+            JsonNode body = objectMapper.readTree(response.body());
+            // Either a plain array or a page of results
+            JsonNode items = body.isArray() ? body : body.path("content");
+            if (!items.isArray()) {
+                throw new IOException("Unexpected exercise list response");
+            }
+            return objectMapper.convertValue(items, SEARCH_RESULTS);
+        } else if (response.statusCode() == 401 && retryCount == 0) {
+            log.warn("Token expired, re-authenticating...");
+            tokenManager.invalidate(token);
+            return listExercises(updatedSince, retryCount + 1);
+        } else {
+            log.error("Failed to list exercises: {} - {}", response.statusCode(), response.body());
+            throw new IOException("Failed to list exercises");
         }
+    }
+
+    public Map<String, Object> createRoutine(Map<String, Object> routineData) throws IOException, InterruptedException {
+        String token = tokenManager.getToken();
         
-        String createUrl = apiProperties.getBaseUrl() + "/api/routines";
         String routineJson = objectMapper.writeValueAsString(routineData);
-        
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(createUrl))
-                .header("Content-Type", "application/json")
-                .header("Authorization", "Bearer " + authToken)
-                .POST(HttpRequest.BodyPublishers.ofString(routineJson))
-                .build();
+        HttpRequest request = postRequest("/api/routines", routineJson, timeouts().getCreateRoutine(), token);
         
         log.debug("Creating routine: {}", routineData.get("name"));
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = send(request);
         
         if (response.statusCode() == 201) {
             log.info("Successfully created routine: {}", routineData.get("name"));
@@ -157,7 +328,7 @@ public class KraftLogApiClient {
             return objectMapper.readValue(response.body(), typeRef);
         } else if (response.statusCode() == 401) {
             log.warn("Token expired, re-authenticating...");
-            authenticate();
+            tokenManager.invalidate(token);
             return createRoutine(routineData);
         } else {
             log.error("Failed to create routine: {} - {}", response.statusCode(), response.body());
@@ -166,22 +337,13 @@ public class KraftLogApiClient {
     }
 
     public Map<String, Object> createWorkout(Map<String, Object> workoutData) throws IOException, InterruptedException {
-        if (authToken == null || authToken.isEmpty()) {
-            authenticate();
-        }
+        String token = tokenManager.getToken();
         
-        String createUrl = apiProperties.getBaseUrl() + "/api/workouts";
         String workoutJson = objectMapper.writeValueAsString(workoutData);
-        
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(createUrl))
-                .header("Content-Type", "application/json")
-                .header("Authorization", "Bearer " + authToken)
-                .POST(HttpRequest.BodyPublishers.ofString(workoutJson))
-                .build();
+        HttpRequest request = postRequest("/api/workouts", workoutJson, timeouts().getCreateWorkout(), token);
         
         log.debug("Creating workout: {}", workoutData.get("name"));
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = send(request);
         
         if (response.statusCode() == 201) {
             log.info("Successfully created workout: {}", workoutData.get("name"));
@@ -189,7 +351,7 @@ public class KraftLogApiClient {
             return objectMapper.readValue(response.body(), typeRef);
         } else if (response.statusCode() == 401) {
             log.warn("Token expired, re-authenticating...");
-            authenticate();
+            tokenManager.invalidate(token);
             return createWorkout(workoutData);
         } else {
             log.error("Failed to create workout: {} - {}", response.statusCode(), response.body());
@@ -198,32 +360,573 @@ public class KraftLogApiClient {
     }
 
     public void addExerciseToWorkout(Map<String, Object> workoutExerciseData) throws IOException, InterruptedException {
-        if (authToken == null || authToken.isEmpty()) {
-            authenticate();
-        }
+        String token = tokenManager.getToken();
         
-        String createUrl = apiProperties.getBaseUrl() + "/api/workout-exercises";
         String json = objectMapper.writeValueAsString(workoutExerciseData);
-        
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(createUrl))
-                .header("Content-Type", "application/json")
-                .header("Authorization", "Bearer " + authToken)
-                .POST(HttpRequest.BodyPublishers.ofString(json))
-                .build();
+        HttpRequest request = postRequest("/api/workout-exercises", json, timeouts().getAddExerciseToWorkout(), token);
         
         log.debug("Adding exercise to workout");
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = send(request);
         
         if (response.statusCode() == 201) {
             log.info("Successfully added exercise to workout");
         } else if (response.statusCode() == 401) {
             log.warn("Token expired, re-authenticating...");
-            authenticate();
+            tokenManager.invalidate(token);
             addExerciseToWorkout(workoutExerciseData);
         } else {
             log.error("Failed to add exercise to workout: {} - {}", response.statusCode(), response.body());
             throw new IOException("Failed to add exercise to workout");
         }
     }
+
+    // Async variants: no thread waits on the network while a request is in flight. Futures
+    // fail with the same IOException the blocking method would throw, and a 401 triggers
+    // one re-authentication and retry, as in createExercise.
+
+    public CompletableFuture<Void> authenticateAsync() {
+        return tokenManager.refreshAsync().thenAccept(token -> { });
+    }
+
+    public CompletableFuture<ParsedExerciseData> createExerciseAsync(ExerciseCreateRequest exercise) {
+        String exerciseJson;
+        try {
+            exerciseJson = objectMapper.writeValueAsString(exercise);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        log.debug("Creating exercise: {}", exercise.getName());
+        return sendAsync(token -> postRequest("/api/exercises", exerciseJson, timeouts().getCreateExercise(), token), 201,
+                "Failed to create exercise: " + exercise.getName())
+                .thenApply(body -> {
+                    log.info("Successfully created exercise: {}", exercise.getName());
+                    ParsedExerciseData created = readBody(body, new TypeReference<ParsedExerciseData>() {});
+                    cacheCreatedExercise(exercise.getName(), created);
+                    return created;
+                });
+    }
+
+    public CompletableFuture<List<ParsedExerciseData>> searchExercisesAsync(String searchTerm) {
+        String cacheKey = ExerciseNameNormalizer.matchKeyOf(searchTerm);
+        String cached = getSearchCache().get(cacheKey);
+        if (cached != null) {
+            log.debug("Search cache hit: {}", searchTerm);
+            return CompletableFuture.completedFuture(cached).thenApply(body -> readBody(body, SEARCH_RESULTS));
+        }
+
+        return searchFlights.runAsync(cacheKey, () -> {
+                    log.debug("Searching exercises: {}", searchTerm);
+                    long startedAt = getSearchCache().generation();
+                    return sendAsync(token -> searchRequest(searchTerm, token), 200, "Failed to search exercises")
+                            .thenApply(body -> {
+                                try {
+                                    cacheSearchResults(cacheKey, body, startedAt);
+                                } catch (IOException e) {
+                                    throw new CompletionException(e);
+                                }
+                                return body;
+                            });
+                })
+                .thenApply(body -> readBody(body, SEARCH_RESULTS));
+    }
+
+    public CompletableFuture<Map<String, Object>> createRoutineAsync(Map<String, Object> routineData) {
+        log.debug("Creating routine: {}", routineData.get("name"));
+        return postAsync("/api/routines", routineData, timeouts().getCreateRoutine(), "Failed to create routine")
+                .thenApply(body -> {
+                    log.info("Successfully created routine: {}", routineData.get("name"));
+                    return readBody(body, new TypeReference<Map<String, Object>>() {});
+                });
+    }
+
+    public CompletableFuture<Map<String, Object>> createWorkoutAsync(Map<String, Object> workoutData) {
+        log.debug("Creating workout: {}", workoutData.get("name"));
+        return postAsync("/api/workouts", workoutData, timeouts().getCreateWorkout(), "Failed to create workout")
+                .thenApply(body -> {
+                    log.info("Successfully created workout: {}", workoutData.get("name"));
+                    return readBody(body, new TypeReference<Map<String, Object>>() {});
+                });
+    }
+
+    public CompletableFuture<Void> addExerciseToWorkoutAsync(Map<String, Object> workoutExerciseData) {
+        log.debug("Adding exercise to workout");
+        return postAsync("/api/workout-exercises", workoutExerciseData, timeouts().getAddExerciseToWorkout(),
+                "Failed to add exercise to workout")
+                .thenAccept(body -> log.info("Successfully added exercise to workout"));
+    }
+
+    /**
+     * The current concurrency limit, calls in flight and calls queued for a slot.
+     */
+    public Map<String, Object> getConcurrencyStats() {
+        return getLimiter().getStats();
+    }
+
+    /**
+     * Entries and hit/miss counters of the exercise search cache, and searches coalesced.
+     */
+    public Map<String, Object> getSearchCacheStats() {
+        Map<String, Object> stats = getSearchCache().getStats();
+        // Searches that joined an identical one in flight, with or without caching
+        stats.put("inFlight", searchFlights.getInFlight());
+        stats.put("coalesced", searchFlights.getCoalesced());
+        return stats;
+    }
+
+    /**
+     * State of the circuit breaker of each endpoint called so far.
+     */
+    public Map<String, Object> getCircuitBreakerStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        circuitBreakers.forEach((endpoint, circuitBreaker) -> stats.put(endpoint, circuitBreaker.getStats()));
+        return stats;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        tokenManager.shutdown();
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+        }
+    }
+
+    private CompletableFuture<String> postAsync(String path, Map<String, Object> data, Duration timeout,
+                                                String failureMessage) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return sendAsync(token -> postRequest(path, json, timeout, token), 201, failureMessage);
+    }
+
+    /**
+     * Sends the request with the current token, logging in first if there is none, and
+     * completes with the response body once the expected status is received. After a 401 the
+     * request is built again with a new token.
+     */
+    private CompletableFuture<String> sendAsync(Function<String, HttpRequest> request, int expectedStatus,
+                                                String failureMessage) {
+        return tokenManager.getTokenAsync()
+                .thenCompose(token -> sendAsync(request.apply(token))
+                        .thenCompose(response -> {
+                            if (response.statusCode() != 401) {
+                                return CompletableFuture.completedFuture(response);
+                            }
+                            log.warn("Token expired, re-authenticating...");
+                            tokenManager.invalidate(token);
+                            return tokenManager.getTokenAsync().thenCompose(newToken -> sendAsync(request.apply(newToken)));
+                        }))
+                .thenApply(response -> {
+                    if (response.statusCode() != expectedStatus) {
+                        log.error("{}: {} - {}", failureMessage, response.statusCode(), response.body());
+                        throw new CompletionException(new IOException(failureMessage));
+                    }
+                    return response.body();
+                });
+    }
+
+    /**
+     * Sends the request through the circuit breaker of its endpoint, retrying with backoff
+     * while {@link #isRetryable} allows it. When the circuit opens between attempts, the last
+     * response or error is returned rather than the open circuit.
+     */
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        CircuitBreaker circuitBreaker = circuitBreaker(request);
+        HttpResponse<String> lastResponse = null;
+        IOException lastError = null;
+        
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.tryAcquire()) {
+                if (lastError != null) {
+                    throw lastError;
+                }
+                if (lastResponse != null) {
+                    return lastResponse;
+                }
+                throw circuitBreaker.openException();
+            }
+            
+            Duration backoff;
+            try {
+                HttpResponse<String> response = sendOnce(request);
+                recordResponse(circuitBreaker, response);
+                backoff = isRetryable(request, response) ? retryPolicy().backoff(attempt, retryAfterOf(response)) : null;
+                if (backoff == null) {
+                    return response;
+                }
+                log.warn("{} answered {}, retrying in {} ms", operationOf(request), response.statusCode(), backoff.toMillis());
+                lastResponse = response;
+                lastError = null;
+            } catch (AdaptiveConcurrencyLimiter.QueueTimeoutException e) {
+                circuitBreaker.onIgnore();
+                throw e;
+            } catch (IOException e) {
+                circuitBreaker.onFailure();
+                backoff = isRetryable(request, e) ? retryPolicy().backoff(attempt, null) : null;
+                if (backoff == null) {
+                    throw e;
+                }
+                log.warn("{} failed ({}), retrying in {} ms", operationOf(request), e.toString(), backoff.toMillis());
+                lastResponse = null;
+                lastError = e;
+            } catch (InterruptedException | RuntimeException e) {
+                circuitBreaker.onIgnore();
+                throw e;
+            }
+            
+            Thread.sleep(backoff.toMillis());
+        }
+    }
+
+    private CompletableFuture<HttpResponse<String>> sendAsync(HttpRequest request) {
+        return sendAsync(request, circuitBreaker(request), 1, null, null);
+    }
+
+    private CompletableFuture<HttpResponse<String>> sendAsync(HttpRequest request, CircuitBreaker circuitBreaker,
+                                                              int attempt, HttpResponse<String> lastResponse,
+                                                              Throwable lastError) {
+        if (!circuitBreaker.tryAcquire()) {
+            if (lastError != null) {
+                return CompletableFuture.failedFuture(lastError);
+            }
+            if (lastResponse != null) {
+                return CompletableFuture.completedFuture(lastResponse);
+            }
+            return CompletableFuture.failedFuture(circuitBreaker.openException());
+        }
+
+        return sendOnceAsync(request).handle((response, error) -> {
+            Throwable cause = error != null ? unwrap(error) : null;
+            Duration backoff;
+            if (cause == null) {
+                recordResponse(circuitBreaker, response);
+                backoff = isRetryable(request, response) ? retryPolicy().backoff(attempt, retryAfterOf(response)) : null;
+                if (backoff == null) {
+                    return CompletableFuture.completedFuture(response);
+                }
+                log.warn("{} answered {}, retrying in {} ms", operationOf(request), response.statusCode(), backoff.toMillis());
+            } else if (cause instanceof IOException ioException) {
+                circuitBreaker.onFailure();
+                backoff = isRetryable(request, ioException) ? retryPolicy().backoff(attempt, null) : null;
+                if (backoff == null) {
+                    return CompletableFuture.<HttpResponse<String>>failedFuture(cause);
+                }
+                log.warn("{} failed ({}), retrying in {} ms", operationOf(request), cause.toString(), backoff.toMillis());
+            } else {
+                circuitBreaker.onIgnore();
+                return CompletableFuture.<HttpResponse<String>>failedFuture(cause);
+            }
+
+            return CompletableFuture.runAsync(() -> { },
+                            CompletableFuture.delayedExecutor(backoff.toMillis(), TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> sendAsync(request, circuitBreaker, attempt + 1, response, cause));
+        }).thenCompose(Function.identity());
+    }
+
+    private static void recordResponse(CircuitBreaker circuitBreaker, HttpResponse<String> response) {
+        if (response.statusCode() >= 500) {
+            circuitBreaker.onFailure();
+        } else if (response.statusCode() == 429) {
+            // Throttled, not down: left to the concurrency limiter
+            circuitBreaker.onIgnore();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    /**
+     * A 429 was never processed and is always retried. A 5xx may have been processed, so only
+     * calls that can safely be repeated are retried.
+     */
+    private boolean isRetryable(HttpRequest request, HttpResponse<String> response) {
+        int status = response.statusCode();
+        if (status == 429) {
+            return true;
+        }
+        return (status == 500 || status == 502 || status == 503 || status == 504) && isIdempotent(request);
+    }
+
+    /**
+     * A refused connection never reached the API and is always retried. After a timeout or a
+     * reset connection the API may have processed the call.
+     */
+    private boolean isRetryable(HttpRequest request, IOException error) {
+        if (error instanceof AdaptiveConcurrencyLimiter.QueueTimeoutException) {
+            return false;
+        }
+        if (error instanceof ConnectException || error instanceof HttpConnectTimeoutException) {
+            return true;
+        }
+        return isIdempotent(request);
+    }
+
+    private boolean isIdempotent(HttpRequest request) {
+        if (request.method().equals("GET") || request.uri().getPath().endsWith("/api/auth/login")) {
+            return true;
+        }
+        KraftLogApiProperties.Retry retry = retrySettings();
+        return retry.isIdempotencyKeys() && request.headers().firstValue(retry.getIdempotencyKeyHeader()).isPresent();
+    }
+
+    /**
+     * Sends the request once the concurrency limiter grants a slot, and reports how it went.
+     */
+    private HttpResponse<String> sendOnce(HttpRequest request) throws IOException, InterruptedException {
+        AdaptiveConcurrencyLimiter.Permit permit = getLimiter().acquire(operationOf(request));
+        HttpResponse<String> response;
+        try {
+            response = getHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (HttpTimeoutException e) {
+            permit.release(AdaptiveConcurrencyLimiter.Outcome.OVERLOAD);
+            throw e;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            permit.release(AdaptiveConcurrencyLimiter.Outcome.IGNORE);
+            throw e;
+        }
+        permit.release(outcomeOf(response), retryAfterOf(response));
+        return response;
+    }
+
+    private CompletableFuture<HttpResponse<String>> sendOnceAsync(HttpRequest request) {
+        return getLimiter().acquireAsync(operationOf(request)).thenCompose(permit -> {
+            CompletableFuture<HttpResponse<String>> response;
+            try {
+                response = getHttpClient().sendAsync(request, HttpResponse.BodyHandlers.ofString());
+            } catch (RuntimeException e) {
+                permit.release(AdaptiveConcurrencyLimiter.Outcome.IGNORE);
+                return CompletableFuture.failedFuture(e);
+            }
+            return response.whenComplete((result, error) -> {
+                if (error == null) {
+                    permit.release(outcomeOf(result), retryAfterOf(result));
+                } else {
+                    permit.release(unwrap(error) instanceof HttpTimeoutException
+                            ? AdaptiveConcurrencyLimiter.Outcome.OVERLOAD
+                            : AdaptiveConcurrencyLimiter.Outcome.IGNORE);
+                }
+            });
+        });
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    // Latency baselines are kept per endpoint, as a bulk create is always slower than a search
+    private static String operationOf(HttpRequest request) {
+        return request.method() + " " + request.uri().getPath();
+    }
+
+    private static AdaptiveConcurrencyLimiter.Outcome outcomeOf(HttpResponse<String> response) {
+        int status = response.statusCode();
+        if (status == 429 || status == 503) {
+            return AdaptiveConcurrencyLimiter.Outcome.OVERLOAD;
+        }
+        return status >= 200 && status < 300
+                ? AdaptiveConcurrencyLimiter.Outcome.SUCCESS
+                : AdaptiveConcurrencyLimiter.Outcome.IGNORE;
+    }
+
+    private static Duration retryAfterOf(HttpResponse<String> response) {
+        return AdaptiveConcurrencyLimiter.parseRetryAfter(
+                response.headers().firstValue("Retry-After").orElse(null), Instant.now());
+    }
+
+    /**
+     * Caches a search response, as "not found" when it holds no exercises, unless an exercise of
+     * that name was created after the search started. Also checks that it can be read, so that
+     * only readable responses are shared and cached.
+     */
+    private void cacheSearchResults(String cacheKey, String body, long startedAt) throws IOException {
+        boolean empty = objectMapper.readValue(body, SEARCH_RESULTS).isEmpty();
+        getSearchCache().put(cacheKey, body, empty, startedAt);
+    }
+
+    /**
+     * Write-through: a search for the name of a created exercise finds it without asking the API.
+     * It replaces a cached "not found" and is appended to cached search results.
+     */
+    private void cacheCreatedExercise(String name, ParsedExerciseData created) {
+        try {
+            getSearchCache().putCreated(ExerciseNameNormalizer.matchKeyOf(name),
+                    objectMapper.writeValueAsString(List.of(created)),
+                    cached -> withCreatedExercise(cached, created));
+        } catch (IOException e) {
+            log.debug("Could not cache created exercise '{}': {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * The cached search results with the created exercise appended, or null if they can't be read.
+     */
+    private String withCreatedExercise(String cached, ParsedExerciseData created) {
+        try {
+            List<ParsedExerciseData> results = new ArrayList<>(objectMapper.readValue(cached, SEARCH_RESULTS));
+            if (results.stream().noneMatch(result -> Objects.equals(result.getId(), created.getId()))) {
+                results.add(created);
+            }
+            return objectMapper.writeValueAsString(results);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private <T> T readBody(String body, TypeReference<T> type) {
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private HttpRequest loginRequest() {
+        String loginJson = String.format(
+            "{\"email\":\"%s\",\"password\":\"%s\"}",
+            apiProperties.getAuth().getUsername(),
+            apiProperties.getAuth().getPassword()
+        );
+
+        return HttpRequest.newBuilder()
+                .uri(URI.create(apiProperties.getBaseUrl() + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .timeout(timeouts().getLogin())
+                .POST(HttpRequest.BodyPublishers.ofString(loginJson))
+                .build();
+    }
+
+    private CompletableFuture<String> login() {
+        HttpRequest request = loginRequest();
+
+        log.info("Authenticating with KraftLog API at {}", request.uri());
+        return sendAsync(request).thenApply(response -> {
+            try {
+                String token = readToken(response);
+                log.info("Successfully authenticated with KraftLog API");
+                return token;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private Duration tokenRefreshMargin() {
+        return apiProperties.getAuth() != null
+                ? apiProperties.getAuth().getTokenRefreshMargin()
+                : Duration.ofSeconds(60);
+    }
+
+    private String readToken(HttpResponse<String> response) throws IOException {
+        if (response.statusCode() != 200) {
+            throw new IOException("Authentication failed with status: " + response.statusCode() + " - " + response.body());
+        }
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    private HttpRequest searchRequest(String searchTerm, String token) {
+        String encodedSearch = URLEncoder.encode(searchTerm, StandardCharsets.UTF_8);
+
+        return HttpRequest.newBuilder()
+                .uri(URI.create(apiProperties.getBaseUrl() + "/api/exercises/search?query=" + encodedSearch))
+                .header("Authorization", "Bearer " + token)
+                .timeout(timeouts().getSearchExercises())
+                .GET()
+                .build();
+    }
+
+    private HttpRequest listRequest(LocalDateTime updatedSince, String token) {
+        KraftLogApiProperties.Catalog catalog = apiProperties.getCatalog();
+        String query = updatedSince == null
+                ? ""
+                : "?" + catalog.getUpdatedSinceParam() + "="
+                        + URLEncoder.encode(updatedSince.toString(), StandardCharsets.UTF_8);
+
+        return HttpRequest.newBuilder()
+                .uri(URI.create(apiProperties.getBaseUrl() + catalog.getPath() + query))
+                .header("Authorization", "Bearer " + token)
+                .timeout(timeouts().getListExercises())
+                .GET()
+                .build();
+    }
+
+    private HttpRequest postRequest(String path, String json, Duration timeout, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(apiProperties.getBaseUrl() + path))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .timeout(timeout)
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        
+        // Retries send this same request, so they share the key
+        KraftLogApiProperties.Retry retry = retrySettings();
+        if (retry.isIdempotencyKeys()) {
+            builder.header(retry.getIdempotencyKeyHeader(), UUID.randomUUID().toString());
+        }
+        return builder.build();
+    }
+
+    private KraftLogApiProperties.Timeouts timeouts() {
+        return http().getTimeouts();
+    }
+
+    private KraftLogApiProperties.Http http() {
+        return apiProperties.getHttp();
+    }
+
+    private KraftLogApiProperties.Retry retrySettings() {
+        return apiProperties.getRetry();
+    }
+
+    private synchronized RetryPolicy retryPolicy() {
+        if (retryPolicy == null) {
+            retryPolicy = new RetryPolicy(retrySettings());
+        }
+        return retryPolicy;
+    }
+
+    private CircuitBreaker circuitBreaker(HttpRequest request) {
+        return circuitBreakers.computeIfAbsent(operationOf(request),
+                endpoint -> new CircuitBreaker(endpoint, apiProperties.getCircuitBreaker()));
+    }
+
+    private synchronized ExerciseSearchCache getSearchCache() {
+        if (searchCache == null) {
+            searchCache = new ExerciseSearchCache(apiProperties.getSearchCache());
+        }
+        return searchCache;
+    }
+
+    private synchronized AdaptiveConcurrencyLimiter getLimiter() {
+        if (limiter == null) {
+            limiter = new AdaptiveConcurrencyLimiter(apiProperties.getConcurrency());
+        }
+        return limiter;
+    }
+
+    private synchronized HttpClient getHttpClient() {
+        if (httpClient == null) {
+            KraftLogApiProperties.Http http = http();
+            
+            HttpClient.Builder builder = HttpClient.newBuilder()
+                    .version(http.getVersion())
+                    .connectTimeout(http.getConnectTimeout());
+
+            KraftLogApiProperties.Async async = apiProperties.getAsync();
+            switch (async.getExecutor()) {
+                case VIRTUAL -> asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
+                case FIXED -> asyncExecutor = Executors.newFixedThreadPool(Math.max(1, async.getThreads()),
+                        Thread.ofPlatform().name("kraftlog-api-", 0).daemon().factory());
+                case DEFAULT -> asyncExecutor = null;
+            }
+            if (asyncExecutor != null) {
+                builder.executor(asyncExecutor);
+            }
+
+            log.debug("Created HTTP client for KraftLog API: {}, {} executor", http.getVersion(), async.getExecutor());
+            httpClient = builder.build();
+        }
+        return httpClient;
+    }
 }
@@ -0,0 +1,41 @@
+package com.kraftlog.pdfimport.client;
+
+import com.kraftlog.pdfimport.config.KraftLogApiProperties;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter: the wait before retry n is drawn uniformly between zero
+ * and {@code initialBackoff * multiplier^(n-1)}, capped at {@code maxBackoff}, so that clients
+ * failing together don't retry together.
+ */
+class RetryPolicy {
+
+    private final KraftLogApiProperties.Retry settings;
+
+    RetryPolicy(KraftLogApiProperties.Retry settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * The wait before the next attempt, or null when no attempt is left. A {@code Retry-After}
+     * from the API replaces the backoff; when it asks for more than {@code maxBackoff}, the call
+     * fails instead of holding a thread that long.
+     *
+     * @param attempt    the attempt that just failed, starting at 1
+     * @param retryAfter the wait the API asked for, or null
+     */
+    Duration backoff(int attempt, Duration retryAfter) {
+        if (attempt >= settings.getMaxAttempts()) {
+            return null;
+        }
+        if (retryAfter != null) {
+            return retryAfter.compareTo(settings.getMaxBackoff()) <= 0 ? retryAfter : null;
+        }
+
+        double ceiling = settings.getInitialBackoff().toMillis() * Math.pow(settings.getMultiplier(), attempt - 1);
+        long ceilingMillis = (long) Math.min(ceiling, settings.getMaxBackoff().toMillis());
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceilingMillis + 1));
+    }
+}
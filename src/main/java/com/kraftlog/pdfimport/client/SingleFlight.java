@@ -0,0 +1,105 @@
+package com.kraftlog.pdfimport.client;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller makes the call, and callers
+ * arriving while it is in flight share its outcome instead of making their own. The key is
+ * forgotten as soon as the call completes, so this never serves old results; that is left to
+ * caching.
+ *
+ * <p>Blocking and async callers share the same in-flight calls. Every caller gets its own
+ * future, so one caller cancelling or completing it does not affect the others.
+ */
+class SingleFlight<K, V> {
+
+    interface Call<V> {
+        V call() throws IOException, InterruptedException;
+    }
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Makes the call in the calling thread, or waits for the one in flight for the key.
+     */
+    V run(K key, Call<V> call) throws IOException, InterruptedException {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+
+        try {
+            V value = call.call();
+            inFlight.remove(key, flight);
+            flight.complete(value);
+            return value;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    CompletableFuture<V> runAsync(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing.copy();
+        }
+
+        CompletableFuture<V> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, error) -> {
+            inFlight.remove(key, flight);
+            if (error != null) {
+                flight.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error);
+            } else {
+                flight.complete(value);
+            }
+        });
+        return flight.copy();
+    }
+
+    int getInFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Calls that shared another call instead of making their own.
+     */
+    long getCoalesced() {
+        return coalesced.get();
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) throws IOException, InterruptedException {
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Shared call failed: " + cause.getMessage(), cause);
+        }
+    }
+}
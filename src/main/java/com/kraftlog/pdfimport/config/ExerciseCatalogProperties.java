@@ -0,0 +1,28 @@
+package com.kraftlog.pdfimport.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "kraftlog.exercise-catalog")
+@Data
+public class ExerciseCatalogProperties {
+    /** Keep a local copy of the KraftLog exercise catalog and resolve exercise names against it */
+    private boolean enabled = false;
+    /** Delay between incremental syncs, which fetch exercises updated since the last one */
+    private Duration refreshInterval = Duration.ofMinutes(5);
+    /** How often the whole catalog is loaded again, which also drops deleted exercises */
+    private Duration fullSyncInterval = Duration.ofHours(24);
+    /** Lowest similarity (0 to 1) at which a name that differs from a catalog name still matches it */
+    private double minMatchScore = 0.85;
+    /**
+     * Lowest similarity (0 to 1) at which the best API search result is reused when the catalog
+     * has no match, mirror enabled or not; 0 reuses any result, as the search found it
+     */
+    private double searchMinMatchScore = 0;
+    /** File the catalog is saved to after each sync and loaded from at startup; empty for none */
+    private String snapshotFile = System.getProperty("java.io.tmpdir") + "/kraftlog-exercise-catalog.json";
+}
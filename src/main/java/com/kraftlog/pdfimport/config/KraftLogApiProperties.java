@@ -4,16 +4,157 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @Configuration
 @ConfigurationProperties(prefix = "kraftlog.api")
 @Data
 public class KraftLogApiProperties {
     private String baseUrl;
     private Auth auth;
+    private Async async = new Async();
+    private Batch batch = new Batch();
+    private Http http = new Http();
+    private Concurrency concurrency = new Concurrency();
+    private Retry retry = new Retry();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private SearchCache searchCache = new SearchCache();
+    private Catalog catalog = new Catalog();
 
     @Data
     public static class Auth {
         private String username;
         private String password;
+        /** How long before a JWT expires it is replaced in the background */
+        private Duration tokenRefreshMargin = Duration.ofSeconds(60);
+    }
+
+    @Data
+    public static class Async {
+        /** Threads that complete the futures of the async client methods */
+        private AsyncExecutor executor = AsyncExecutor.VIRTUAL;
+        /** Pool size for the FIXED executor */
+        private int threads = 8;
+    }
+
+    @Data
+    public static class Batch {
+        /** Create exercises through the bulk endpoint instead of one request each */
+        private boolean enabled = false;
+        /** Exercises per bulk request */
+        private int size = 50;
+        /** Bulk endpoint; when the API answers 404 or 405, exercises are created one at a time */
+        private String path = "/api/exercises/batch";
+    }
+
+    @Data
+    public static class Http {
+        /** HTTP_2 negotiates HTTP/2 (ALPN over TLS, h2c upgrade otherwise) and falls back to HTTP/1.1 */
+        private HttpClient.Version version = HttpClient.Version.HTTP_2;
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        private Timeouts timeouts = new Timeouts();
+    }
+
+    /**
+     * Time allowed for each API call, from sending the request to receiving the response headers.
+     */
+    @Data
+    public static class Timeouts {
+        private Duration login = Duration.ofSeconds(10);
+        private Duration searchExercises = Duration.ofSeconds(10);
+        private Duration listExercises = Duration.ofSeconds(60);
+        private Duration createExercise = Duration.ofSeconds(10);
+        private Duration createExercises = Duration.ofSeconds(60);
+        private Duration createRoutine = Duration.ofSeconds(30);
+        private Duration createWorkout = Duration.ofSeconds(30);
+        private Duration addExerciseToWorkout = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Adaptive limit on concurrent API calls (AIMD). The limit grows while calls fill it and stay
+     * fast, and shrinks when latency rises or the API answers 429/503 or times out.
+     */
+    @Data
+    public static class Concurrency {
+        private boolean enabled = true;
+        private int initialLimit = 4;
+        private int minLimit = 1;
+        private int maxLimit = 32;
+        /** A call slower than this multiple of the fastest recent call of its endpoint counts as congestion */
+        private double latencyTolerance = 2.0;
+        /** Factor applied to the limit on congestion */
+        private double latencyBackoffRatio = 0.9;
+        /** Factor applied to the limit on 429, 503 or a timeout */
+        private double overloadBackoffRatio = 0.5;
+        /** How long a call waits for a slot before failing */
+        private Duration queueTimeout = Duration.ofSeconds(60);
+        /** Upper bound on the pause a Retry-After header can impose */
+        private Duration maxRetryAfter = Duration.ofSeconds(60);
+    }
+
+    /**
+     * Retries of failed calls. Searches and logins are retried after 5xx responses, timeouts
+     * and connection errors. Creates are only retried when they could not have been processed
+     * (429, connection refused), unless idempotency keys are enabled.
+     */
+    @Data
+    public static class Retry {
+        /** Attempts per call, including the first; 1 disables retries */
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(200);
+        private Duration maxBackoff = Duration.ofSeconds(5);
+        private double multiplier = 2.0;
+        /**
+         * Send a key with each create, kept across its retries, so that creates can be retried
+         * like searches. Only enable this when the API deduplicates requests by that key.
+         */
+        private boolean idempotencyKeys = false;
+        private String idempotencyKeyHeader = "Idempotency-Key";
+    }
+
+    /**
+     * Per-endpoint circuit breaker that fails calls fast while the API is down.
+     */
+    @Data
+    public static class CircuitBreaker {
+        private boolean enabled = true;
+        /** Consecutive failures (5xx, timeouts, connection errors) that open the circuit */
+        private int failureThreshold = 5;
+        /** How long calls fail fast before a probe call is let through */
+        private Duration openDuration = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Cache of exercise searches, keyed by the normalized search term.
+     */
+    @Data
+    public static class SearchCache {
+        private boolean enabled = true;
+        private int maxEntries = 2000;
+        /** How long a search that found exercises is served from the cache */
+        private Duration ttl = Duration.ofMinutes(10);
+        /** How long a search that found nothing is served from the cache */
+        private Duration negativeTtl = Duration.ofMinutes(1);
+    }
+
+    /**
+     * Endpoint listing the exercise catalog, used to mirror it locally.
+     */
+    @Data
+    public static class Catalog {
+        /** Returns all exercises, as an array or a page with a "content" array */
+        private String path = "/api/exercises";
+        /** Query parameter asking only for exercises updated at or after an ISO date-time */
+        private String updatedSinceParam = "updatedSince";
+    }
+
+    public enum AsyncExecutor {
+        /** A new virtual thread per task */
+        VIRTUAL,
+        /** A dedicated pool of async.threads platform threads */
+        FIXED,
+        /** The HttpClient's own cached thread pool */
+        DEFAULT
     }
 }
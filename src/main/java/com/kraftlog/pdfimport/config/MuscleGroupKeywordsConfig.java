@@ -0,0 +1,78 @@
+package com.kraftlog.pdfimport.config;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.yaml.snakeyaml.Yaml;
+
+import jakarta.annotation.PostConstruct;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exercise name keywords per muscle group, e.g. "supino" for CHEST, used to tell the muscle
+ * group of exercises that have to be created. Groups and keywords keep their file order.
+ */
+@Configuration
+@Data
+@Slf4j
+public class MuscleGroupKeywordsConfig {
+
+    @Value("${kraftlog.muscle-groups.keywords-path:exercise-keywords.yml}")
+    private String configPath;
+
+    private Map<String, List<String>> keywords = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void loadConfiguration() {
+        if (configPath == null || configPath.trim().isEmpty()) {
+            log.warn("No exercise keywords configuration file specified. " +
+                    "Set 'kraftlog.muscle-groups.keywords-path' or environment variable 'EXERCISE_KEYWORDS_CONFIG_PATH'. " +
+                    "Muscle groups of new exercises will only be told from muscle group names.");
+            return;
+        }
+
+        try {
+            log.info("Loading exercise keywords from: {}", configPath);
+
+            try (InputStream inputStream = new FileInputStream(configPath)) {
+                Yaml yaml = new Yaml();
+                Map<String, Object> data = yaml.load(inputStream);
+
+                if (data != null) {
+                    Map<String, List<String>> loaded = new LinkedHashMap<>();
+                    data.forEach((muscleGroup, value) -> {
+                        List<String> groupKeywords = new ArrayList<>();
+                        if (value instanceof List<?> list) {
+                            for (Object keyword : list) {
+                                if (keyword != null && !keyword.toString().isBlank()) {
+                                    groupKeywords.add(keyword.toString());
+                                }
+                            }
+                        }
+                        if (!groupKeywords.isEmpty()) {
+                            loaded.put(muscleGroup, groupKeywords);
+                        }
+                    });
+                    keywords = loaded;
+
+                    log.info("Successfully loaded {} exercise keywords for {} muscle groups",
+                            keywords.values().stream().mapToInt(List::size).sum(), keywords.size());
+                } else {
+                    log.warn("Configuration file is empty or invalid: {}", configPath);
+                }
+            }
+
+        } catch (IOException e) {
+            log.warn("Could not load exercise keywords from '{}': {}. " +
+                    "Muscle groups of new exercises will only be told from muscle group names.",
+                    configPath, e.getMessage());
+        }
+    }
+}
@@ -78,6 +78,13 @@ public class MuscleGroupMappingConfig {
         return new HashMap<>(muscleGroupMapping);
     }
 
+    /**
+     * Changes whenever the loaded mapping changes; used to key cached parse results.
+     */
+    public String getMappingVersion() {
+        return ConfigDigest.sha256(muscleGroupMapping);
+    }
+
     public String getMuscleGroupEnglishName(String portugueseName) {
         if (portugueseName == null) {
             return null;
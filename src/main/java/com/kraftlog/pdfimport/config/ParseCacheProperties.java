@@ -0,0 +1,22 @@
+package com.kraftlog.pdfimport.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "kraftlog.parse-cache")
+@Data
+public class ParseCacheProperties {
+    private boolean enabled = true;
+    private int maxEntries = 64;
+    private long maxBytes = 32L * 1024 * 1024;
+    private Disk disk = new Disk();
+
+    @Data
+    public static class Disk {
+        private boolean enabled = false;
+        private String directory = System.getProperty("java.io.tmpdir") + "/kraftlog-parse-cache";
+        private int maxEntries = 512;
+    }
+}
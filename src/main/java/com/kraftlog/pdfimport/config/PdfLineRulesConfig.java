@@ -0,0 +1,125 @@
+package com.kraftlog.pdfimport.config;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.yaml.snakeyaml.Yaml;
+
+import jakarta.annotation.PostConstruct;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Skip phrases and sub-header names used by the PDF parser to tell exercise rows apart from
+ * titles, footers, table headers and sub-muscle-group headings.
+ *
+ * <p>The rules shipped in {@value #DEFAULT_RULES_RESOURCE} are used unless the file at
+ * {@code config-path} can be loaded, in which case its rules replace them.
+ */
+@Configuration
+@Data
+@Slf4j
+public class PdfLineRulesConfig {
+
+    static final String DEFAULT_RULES_RESOURCE = "/default-pdf-line-rules.yml";
+
+    @Value("${kraftlog.pdf.line-rules.config-path:pdf-line-rules.yml}")
+    private String configPath;
+
+    private List<String> skipStartsWith = new ArrayList<>();
+    private List<String> skipContains = new ArrayList<>();
+    private List<List<String>> skipContainsAll = new ArrayList<>();
+    private List<String> subHeaderEquals = new ArrayList<>();
+    private List<String> subHeaderContains = new ArrayList<>();
+
+    @PostConstruct
+    public void loadConfiguration() {
+        loadDefaultRules();
+
+        if (configPath == null || configPath.trim().isEmpty()) {
+            log.info("No PDF line rules file configured, using the built-in rules");
+            return;
+        }
+
+        try {
+            log.info("Loading PDF line rules from: {}", configPath);
+
+            try (InputStream inputStream = new FileInputStream(configPath)) {
+                Map<String, Object> data = new Yaml().load(inputStream);
+
+                if (data != null) {
+                    applyRules(data);
+                    log.info("Successfully loaded {} skip rules and {} sub-header rules",
+                            skipStartsWith.size() + skipContains.size() + skipContainsAll.size(),
+                            subHeaderEquals.size() + subHeaderContains.size());
+                } else {
+                    log.warn("Configuration file is empty or invalid: {}. Using the built-in rules.", configPath);
+                }
+            }
+
+        } catch (IOException e) {
+            log.warn("Could not load PDF line rules from '{}': {}. Using the built-in rules.",
+                    configPath, e.getMessage());
+        }
+    }
+
+    private void loadDefaultRules() {
+        try (InputStream inputStream = PdfLineRulesConfig.class.getResourceAsStream(DEFAULT_RULES_RESOURCE)) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Missing built-in PDF line rules " + DEFAULT_RULES_RESOURCE);
+            }
+            applyRules(new Yaml().load(inputStream));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read built-in PDF line rules " + DEFAULT_RULES_RESOURCE, e);
+        }
+    }
+
+    private void applyRules(Map<String, Object> data) {
+        Map<String, Object> skip = asMap(data.get("skip"));
+        skipStartsWith = asStringList(skip.get("starts-with"));
+        skipContains = asStringList(skip.get("contains"));
+        skipContainsAll = new ArrayList<>();
+        for (Object group : asList(skip.get("contains-all"))) {
+            List<String> terms = asStringList(group);
+            if (!terms.isEmpty()) {
+                skipContainsAll.add(terms);
+            }
+        }
+
+        Map<String, Object> subHeaders = asMap(data.get("sub-headers"));
+        subHeaderEquals = asStringList(subHeaders.get("equals"));
+        subHeaderContains = asStringList(subHeaders.get("contains"));
+    }
+
+    /**
+     * Changes whenever the loaded rules change; used to key cached parse results.
+     */
+    public String getRulesVersion() {
+        return ConfigDigest.sha256(List.of(skipStartsWith, skipContains, skipContainsAll,
+                subHeaderEquals, subHeaderContains));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        return value instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+    }
+
+    private static List<?> asList(Object value) {
+        return value instanceof List<?> list ? list : List.of();
+    }
+
+    private static List<String> asStringList(Object value) {
+        List<String> result = new ArrayList<>();
+        for (Object item : asList(value)) {
+            if (item != null && !item.toString().isEmpty()) {
+                result.add(item.toString());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,68 @@
+package com.kraftlog.pdfimport.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "kraftlog.pdf")
+@Data
+public class PdfParserProperties {
+    private Engine engine = Engine.STRIPPER;
+    private VideoUrlSource videoUrlSource = VideoUrlSource.TEXT;
+    private Parallel parallel = new Parallel();
+    private Loading loading = new Loading();
+    private Outline outline = new Outline();
+
+    @Data
+    public static class Parallel {
+        private boolean enabled = false;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private int pagesPerRange = 16;
+        private int minPages = 32;
+    }
+
+    @Data
+    public static class Loading {
+        private InputMode input = InputMode.BUFFERED_FILE;
+        private ScratchMode scratch = ScratchMode.MIXED;
+        private long maxMainMemoryBytes = 16L * 1024 * 1024;
+        private String tempDir;
+    }
+
+    @Data
+    public static class Outline {
+        /** Use muscle group bookmarks to find sections instead of scanning earlier pages */
+        private boolean enabled = true;
+    }
+
+    public enum Engine {
+        /** PDFBox PDFTextStripper with full glyph positioning */
+        STRIPPER,
+        /** Text operators only; faster, for text laid out in reading order outside form XObjects */
+        LIGHTWEIGHT
+    }
+
+    public enum VideoUrlSource {
+        /** Find YouTube URLs in the extracted text of each line */
+        TEXT,
+        /** Take URLs from the link annotation on each table row; rows without one fall back to TEXT */
+        ANNOTATIONS
+    }
+
+    public enum InputMode {
+        /** PDFBox default: buffered reads through a file channel */
+        BUFFERED_FILE,
+        /** Map the file into memory outside the Java heap */
+        MEMORY_MAPPED
+    }
+
+    public enum ScratchMode {
+        /** Keep all decoded streams on the heap (PDFBox default) */
+        MEMORY,
+        /** Keep up to max-main-memory-bytes on the heap per document, spill the rest to temp files */
+        MIXED,
+        /** Keep all decoded streams in temp files */
+        TEMP_FILE
+    }
+}
@@ -0,0 +1,197 @@
+package com.kraftlog.pdfimport.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.yaml.snakeyaml.Yaml;
+
+import jakarta.annotation.PostConstruct;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Named layouts of routine spreadsheets: where each workout block's name, exercises, sets x
+ * reps, techniques and rest interval are. Cells use A1 notation. Without a configuration file
+ * only the built-in "standard" layout is available.
+ */
+@Configuration
+@Data
+@Slf4j
+public class RoutineLayoutConfig {
+
+    public static final String STANDARD_LAYOUT = "standard";
+
+    @Value("${kraftlog.xlsx.layouts.config-path:routine-layouts.yml}")
+    private String configPath;
+
+    private String defaultLayout = STANDARD_LAYOUT;
+    private Map<String, Layout> layouts = standardLayouts();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Layout {
+        private List<Workout> workouts = new ArrayList<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Workout {
+        /** Cell with the workout name, e.g. "B2" */
+        private String name;
+        /** Column range with one exercise name per row, e.g. "B4:B8" */
+        private String exercises;
+        /** Column with sets x reps on each exercise row; defaults to the one after the exercises */
+        private String setsRepsColumn;
+        /** Column with the advanced technique; defaults to the one after sets x reps */
+        private String techniqueColumn;
+        /** Cell with the rest interval, e.g. "B16" */
+        private String rest;
+    }
+
+    @PostConstruct
+    public void loadConfiguration() {
+        if (configPath == null || configPath.trim().isEmpty()) {
+            log.warn("No routine layout configuration file specified. " +
+                    "Set 'kraftlog.xlsx.layouts.config-path' or environment variable 'ROUTINE_LAYOUTS_CONFIG_PATH'. " +
+                    "Only the standard layout will be available.");
+            return;
+        }
+
+        try {
+            log.info("Loading routine layouts from: {}", configPath);
+
+            try (InputStream inputStream = new FileInputStream(configPath)) {
+                Yaml yaml = new Yaml();
+                Map<String, Object> data = yaml.load(inputStream);
+
+                if (data != null) {
+                    Map<String, Layout> loaded = new LinkedHashMap<>();
+                    asMap(data.get("layouts")).forEach((name, value) -> {
+                        Layout layout = toLayout(name, value);
+                        if (layout != null) {
+                            loaded.put(name, layout);
+                        }
+                    });
+
+                    if (!loaded.isEmpty()) {
+                        layouts = loaded;
+                    }
+                    if (data.get("default-layout") != null) {
+                        defaultLayout = data.get("default-layout").toString();
+                    }
+                    if (!layouts.containsKey(defaultLayout)) {
+                        log.warn("Default routine layout '{}' is not defined; using '{}'",
+                                defaultLayout, layouts.keySet().iterator().next());
+                        defaultLayout = layouts.keySet().iterator().next();
+                    }
+
+                    log.info("Successfully loaded {} routine layouts (default: {})", layouts.size(), defaultLayout);
+                } else {
+                    log.warn("Configuration file is empty or invalid: {}", configPath);
+                }
+            }
+
+        } catch (IOException e) {
+            log.warn("Could not load routine layouts from '{}': {}. " +
+                    "Only the standard layout will be available.",
+                    configPath, e.getMessage());
+        }
+    }
+
+    /**
+     * The layout with the given name, or the default layout when the name is null.
+     *
+     * @throws IllegalArgumentException if no layout has that name
+     */
+    public Layout getLayout(String name) {
+        String layoutName = name == null || name.isBlank() ? defaultLayout : name.trim();
+        Layout layout = layouts.get(layoutName);
+        if (layout == null) {
+            throw new IllegalArgumentException("Unknown routine layout: " + layoutName
+                    + " (available: " + String.join(", ", layouts.keySet()) + ")");
+        }
+        return layout;
+    }
+
+    public String resolveLayoutName(String name) {
+        return name == null || name.isBlank() ? defaultLayout : name.trim();
+    }
+
+    private static Layout toLayout(String name, Object value) {
+        List<Workout> workouts = new ArrayList<>();
+        for (Object item : asList(asMap(value).get("workouts"))) {
+            Map<String, Object> fields = asMap(item);
+            Workout workout = new Workout(asString(fields.get("name")), asString(fields.get("exercises")),
+                    asString(fields.get("sets-reps-column")), asString(fields.get("technique-column")),
+                    asString(fields.get("rest")));
+            try {
+                validate(workout);
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping routine layout '{}': {}", name, e.getMessage());
+                return null;
+            }
+            workouts.add(workout);
+        }
+
+        if (workouts.isEmpty()) {
+            log.warn("Skipping routine layout '{}': it defines no workouts", name);
+            return null;
+        }
+        return new Layout(workouts);
+    }
+
+    private static void validate(Workout workout) {
+        if (workout.getName() == null || workout.getExercises() == null) {
+            throw new IllegalArgumentException("each workout needs a name cell and an exercises range");
+        }
+        new CellReference(workout.getName());
+        CellRangeAddress exercises = CellRangeAddress.valueOf(workout.getExercises());
+        if (exercises.getFirstColumn() != exercises.getLastColumn()) {
+            throw new IllegalArgumentException("exercises range " + workout.getExercises() + " spans several columns");
+        }
+        if (workout.getRest() != null) {
+            new CellReference(workout.getRest());
+        }
+        for (String column : new String[]{workout.getSetsRepsColumn(), workout.getTechniqueColumn()}) {
+            if (column != null && !column.matches("[A-Za-z]{1,3}")) {
+                throw new IllegalArgumentException("invalid column " + column);
+            }
+        }
+    }
+
+    private static Map<String, Layout> standardLayouts() {
+        Map<String, Layout> layouts = new LinkedHashMap<>();
+        layouts.put(STANDARD_LAYOUT, new Layout(new ArrayList<>(List.of(
+                new Workout("B2", "B4:B8", "C", "D", "B16"),
+                new Workout("F2", "F4:F10", "G", "H", "F16"),
+                new Workout("J2", "J4:J10", "K", "L", "J16"),
+                new Workout("B18", "B20:B25", "C", "D", "B16"),
+                new Workout("F18", "F20:F27", "G", "H", "F16")))));
+        return layouts;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        return value instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+    }
+
+    private static List<?> asList(Object value) {
+        return value instanceof List<?> list ? list : List.of();
+    }
+
+    private static String asString(Object value) {
+        return value == null || value.toString().isBlank() ? null : value.toString().trim();
+    }
+}
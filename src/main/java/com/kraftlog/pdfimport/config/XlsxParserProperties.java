@@ -0,0 +1,21 @@
+package com.kraftlog.pdfimport.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "kraftlog.xlsx")
+@Data
+public class XlsxParserProperties {
+    private ReaderMode reader = ReaderMode.STREAMING;
+    /** Sheets parsed at the same time when importing several routines from one workbook */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    public enum ReaderMode {
+        /** Load the whole workbook into an XSSFWorkbook */
+        DOM,
+        /** Read the sheet XML as a SAX stream, keeping only the cells of the workout blocks */
+        STREAMING
+    }
+}
@@ -1,7 +1,11 @@
 package com.kraftlog.pdfimport.controller;
 
+import com.kraftlog.pdfimport.dto.ParsedExerciseData;
+import com.kraftlog.pdfimport.dto.PdfParseOptions;
 import com.kraftlog.pdfimport.service.ExerciseImportService;
+import com.kraftlog.pdfimport.service.InvalidPdfParseOptionsException;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -15,8 +19,10 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 @Slf4j
 @RestController
@@ -25,6 +31,8 @@ import java.util.Objects;
 @Tag(name = "PDF Import", description = "APIs for importing exercises from PDF files to KraftLog API")
 public class ImportController {
 
+    private static final int DEFAULT_PREVIEW_LIMIT = 20;
+
     private final ExerciseImportService exerciseImportService;
 
     @Operation(summary = "Import exercises from PDF file",
@@ -33,36 +41,43 @@ public class ImportController {
                            "Exercises will be sent to the configured KraftLog API.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Import completed successfully"),
-            @ApiResponse(responseCode = "400", description = "Invalid PDF format or no exercises found", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Invalid PDF format, page range or muscle group, or no exercises found", content = @Content),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
     })
     @PostMapping("/pdf")
     public ResponseEntity<Map<String, Object>> importExercisesFromPdf(
-            @RequestParam("file") MultipartFile file) {
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "First page to import (1-based)")
+            @RequestParam(value = "startPage", required = false) Integer startPage,
+            @Parameter(description = "Last page to import (inclusive)")
+            @RequestParam(value = "endPage", required = false) Integer endPage,
+            @Parameter(description = "Import at most this many exercises")
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @Parameter(description = "Import only these muscle groups, e.g. PEITORAL")
+            @RequestParam(value = "muscleGroups", required = false) Set<String> muscleGroups) {
         
         log.info("Received request to import exercises from PDF: {}", file.getOriginalFilename());
         
-        if (file.isEmpty()) {
-            return ResponseEntity.badRequest().body(Map.of(
-                    "status", "error",
-                    "message", "File is empty"
-            ));
+        ResponseEntity<Map<String, Object>> invalidUpload = validatePdfUpload(file);
+        if (invalidUpload != null) {
+            return invalidUpload;
         }
         
-        if (!Objects.requireNonNull(file.getOriginalFilename()).toLowerCase().endsWith(".pdf")) {
-            return ResponseEntity.badRequest().body(Map.of(
-                    "status", "error",
-                    "message", "File must be a PDF"
-            ));
-        }
+        PdfParseOptions options = PdfParseOptions.builder()
+                .startPage(startPage)
+                .endPage(endPage)
+                .limit(limit)
+                .muscleGroups(muscleGroups)
+                .build();
         
         try {
             Path tempFile = Files.createTempFile("exercise-import-", ".pdf");
             file.transferTo(tempFile.toFile());
             
             try {
-                ExerciseImportService.ImportResult result = 
-                        exerciseImportService.importExercisesFromPdf(tempFile.toFile());
+                ExerciseImportService.ImportResult result = options.isFullDocument()
+                        ? exerciseImportService.importExercisesFromPdf(tempFile.toFile())
+                        : exerciseImportService.importExercisesFromPdf(tempFile.toFile(), options);
                 
                 return ResponseEntity.ok(Map.of(
                         "status", "success",
@@ -82,6 +97,84 @@ public class ImportController {
                     "status", "error",
                     "message", "Failed to process PDF: " + e.getMessage()
             ));
+        } catch (InvalidPdfParseOptionsException e) {
+            log.warn("Invalid import request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", e.getMessage()
+            ));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid input", e);
+            return ResponseEntity.internalServerError().body(Map.of(
+                    "status", "error",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    @Operation(summary = "Preview exercises in a PDF file",
+               description = "Parse the selected pages of a PDF file and return the first exercises found, " +
+                           "without sending anything to the KraftLog API.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Preview parsed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid PDF file or page range", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @PostMapping("/pdf/preview")
+    public ResponseEntity<Map<String, Object>> previewExercisesFromPdf(
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "First page to parse (1-based)")
+            @RequestParam(value = "startPage", required = false) Integer startPage,
+            @Parameter(description = "Last page to parse (inclusive)")
+            @RequestParam(value = "endPage", required = false) Integer endPage,
+            @Parameter(description = "Stop after this many exercises")
+            @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PREVIEW_LIMIT) Integer limit,
+            @Parameter(description = "Preview only these muscle groups, e.g. PEITORAL")
+            @RequestParam(value = "muscleGroups", required = false) Set<String> muscleGroups) {
+        
+        log.info("Received request to preview exercises from PDF: {}", file.getOriginalFilename());
+        
+        ResponseEntity<Map<String, Object>> invalidUpload = validatePdfUpload(file);
+        if (invalidUpload != null) {
+            return invalidUpload;
+        }
+        
+        PdfParseOptions options = PdfParseOptions.builder()
+                .startPage(startPage)
+                .endPage(endPage)
+                .limit(limit)
+                .muscleGroups(muscleGroups)
+                .build();
+        
+        try {
+            Path tempFile = Files.createTempFile("exercise-preview-", ".pdf");
+            file.transferTo(tempFile.toFile());
+            
+            try {
+                List<ParsedExerciseData> exercises =
+                        exerciseImportService.previewExercisesFromPdf(tempFile.toFile(), options);
+                
+                return ResponseEntity.ok(Map.of(
+                        "status", "success",
+                        "count", exercises.size(),
+                        "exercises", exercises
+                ));
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            
+        } catch (IOException e) {
+            log.error("Failed to process PDF file", e);
+            return ResponseEntity.internalServerError().body(Map.of(
+                    "status", "error",
+                    "message", "Failed to process PDF: " + e.getMessage()
+            ));
+        } catch (InvalidPdfParseOptionsException e) {
+            log.warn("Invalid preview request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", e.getMessage()
+            ));
         } catch (IllegalArgumentException e) {
             log.error("Invalid input", e);
             return ResponseEntity.internalServerError().body(Map.of(
@@ -99,4 +192,22 @@ public class ImportController {
                 "service", "KraftLog PDF Import"
         ));
     }
+
+    private ResponseEntity<Map<String, Object>> validatePdfUpload(MultipartFile file) {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", "File is empty"
+            ));
+        }
+        
+        if (!Objects.requireNonNull(file.getOriginalFilename()).toLowerCase().endsWith(".pdf")) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", "File must be a PDF"
+            ));
+        }
+        
+        return null;
+    }
 }
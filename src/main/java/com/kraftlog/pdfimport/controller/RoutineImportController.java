@@ -1,5 +1,6 @@
 package com.kraftlog.pdfimport.controller;
 
+import com.kraftlog.pdfimport.config.RoutineLayoutConfig;
 import com.kraftlog.pdfimport.dto.RoutineImportResult;
 import com.kraftlog.pdfimport.service.RoutineImportService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -18,6 +19,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -28,6 +30,7 @@ import java.util.Map;
 public class RoutineImportController {
 
     private final RoutineImportService routineImportService;
+    private final RoutineLayoutConfig routineLayoutConfig;
 
     @PostMapping(value = "/generate-json", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(
@@ -39,7 +42,9 @@ public class RoutineImportController {
     @ApiResponse(responseCode = "500", description = "Internal server error")
     public ResponseEntity<Map<String, Object>> generateJsonFromXlsx(
             @Parameter(description = "XLSX file containing the routine", required = true)
-            @RequestParam("file") MultipartFile file) {
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "Routine layout of the spreadsheet (default layout if omitted)")
+            @RequestParam(value = "layout", required = false) String layout) {
         
         log.info("Received request to generate JSON from XLSX: {}", file.getOriginalFilename());
         
@@ -61,7 +66,8 @@ public class RoutineImportController {
             // Generate JSON
             String json = routineImportService.generateRoutineJson(
                     file.getInputStream(), 
-                    originalFilename);
+                    originalFilename,
+                    layout);
             
             response.put("success", true);
             response.put("fileName", originalFilename);
@@ -96,7 +102,13 @@ public class RoutineImportController {
             @Parameter(description = "XLSX file containing the routine", required = true)
             @RequestParam("file") MultipartFile file,
             @Parameter(description = "User ID for the routine", required = true)
-            @RequestParam("userId") String userId) {
+            @RequestParam("userId") String userId,
+            @Parameter(description = "Routine layout of the spreadsheet (default layout if omitted)")
+            @RequestParam(value = "layout", required = false) String layout,
+            @Parameter(description = "Import one routine per sheet instead of only the first sheet")
+            @RequestParam(value = "allSheets", defaultValue = "false") boolean allSheets,
+            @Parameter(description = "Sheets to import one routine each from (implies allSheets)")
+            @RequestParam(value = "sheets", required = false) List<String> sheets) {
         
         log.info("Received request to import routine from XLSX: {} for user: {}", 
                 file.getOriginalFilename(), userId);
@@ -122,11 +134,31 @@ public class RoutineImportController {
                 return ResponseEntity.badRequest().body(response);
             }
             
+            if (allSheets || (sheets != null && !sheets.isEmpty())) {
+                List<RoutineImportResult> results = routineImportService.importRoutinesFromXlsx(
+                        file.getInputStream(),
+                        originalFilename,
+                        userId,
+                        layout,
+                        sheets);
+                
+                boolean failures = results.stream()
+                        .anyMatch(result -> result.getFailedWorkouts() > 0 || result.getFailedExercises() > 0);
+                response.put("success", !failures);
+                response.put("results", results);
+                response.put("message", failures
+                        ? "Import of " + results.size() + " routines completed with some failures"
+                        : "Import of " + results.size() + " routines completed successfully");
+                
+                return ResponseEntity.ok(response);
+            }
+            
             // Import routine
             RoutineImportResult result = routineImportService.importRoutineFromXlsx(
                     file.getInputStream(), 
                     originalFilename,
-                    userId);
+                    userId,
+                    layout);
             
             response.put("success", result.getFailedWorkouts() == 0 && result.getFailedExercises() == 0);
             response.put("result", result);
@@ -149,4 +181,17 @@ public class RoutineImportController {
             return ResponseEntity.badRequest().body(response);
         }
     }
+
+    @GetMapping("/layouts")
+    @Operation(
+            summary = "List routine layouts",
+            description = "Names of the spreadsheet layouts accepted by the layout parameter, and the default one"
+    )
+    @ApiResponse(responseCode = "200", description = "Layouts listed successfully")
+    public ResponseEntity<Map<String, Object>> getLayouts() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("layouts", routineLayoutConfig.getLayouts().keySet());
+        response.put("defaultLayout", routineLayoutConfig.getDefaultLayout());
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,60 @@
+package com.kraftlog.pdfimport.controller;
+
+import com.kraftlog.pdfimport.client.KraftLogApiClient;
+import com.kraftlog.pdfimport.service.ExerciseCatalogMirror;
+import com.kraftlog.pdfimport.service.ParseResultCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+@Tag(name = "Stats", description = "Runtime statistics of the import service")
+public class StatsController {
+
+    private final ParseResultCache parseResultCache;
+    private final KraftLogApiClient apiClient;
+    private final ExerciseCatalogMirror exerciseCatalog;
+
+    @Operation(summary = "Parse cache statistics",
+               description = "Entries, size and hit/miss/eviction counters of the parse result cache")
+    @GetMapping("/parse-cache")
+    public ResponseEntity<Map<String, Object>> parseCacheStats() {
+        return ResponseEntity.ok(parseResultCache.getStats());
+    }
+
+    @Operation(summary = "API client concurrency",
+               description = "Adaptive concurrency limit, calls in flight and queue depth of the KraftLog API client")
+    @GetMapping("/api-concurrency")
+    public ResponseEntity<Map<String, Object>> apiConcurrencyStats() {
+        return ResponseEntity.ok(apiClient.getConcurrencyStats());
+    }
+
+    @Operation(summary = "API client circuit breakers",
+               description = "State of the circuit breaker of each KraftLog API endpoint")
+    @GetMapping("/api-circuit-breakers")
+    public ResponseEntity<Map<String, Object>> apiCircuitBreakerStats() {
+        return ResponseEntity.ok(apiClient.getCircuitBreakerStats());
+    }
+
+    @Operation(summary = "Exercise search cache statistics",
+               description = "Entries, hit/negative hit/miss/eviction counters and hit rate of the exercise search cache")
+    @GetMapping("/search-cache")
+    public ResponseEntity<Map<String, Object>> searchCacheStats() {
+        return ResponseEntity.ok(apiClient.getSearchCacheStats());
+    }
+
+    @Operation(summary = "Exercise catalog mirror statistics",
+               description = "Size, sync counters and hit/miss counters of the local exercise catalog")
+    @GetMapping("/exercise-catalog")
+    public ResponseEntity<Map<String, Object>> exerciseCatalogStats() {
+        return ResponseEntity.ok(exerciseCatalog.getStats());
+    }
+}
@@ -0,0 +1,23 @@
+package com.kraftlog.pdfimport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of creating one exercise of a batch: the created exercise, or why it was not created.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExerciseCreateResult {
+    private String name;
+    private ParsedExerciseData created;
+    private String error;
+
+    public boolean isSuccess() {
+        return created != null && created.getId() != null;
+    }
+}
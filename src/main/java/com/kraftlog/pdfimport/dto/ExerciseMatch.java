@@ -0,0 +1,21 @@
+package com.kraftlog.pdfimport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The catalog exercise a spreadsheet exercise name was resolved to, and how similar the two
+ * names are, from 0 to 1 (same name up to case, accents, plurals and abbreviations).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExerciseMatch {
+    private String exerciseName;
+    private String matchedName;
+    private String exerciseId;
+    private Double score;
+}
@@ -13,5 +13,6 @@ import java.util.List;
 @AllArgsConstructor
 public class ParsedRoutineData {
     private String routineName;
+    private String sheetName;
     private List<ParsedWorkoutData> workouts;
 }
@@ -0,0 +1,35 @@
+package com.kraftlog.pdfimport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * Restricts a PDF parse to a page range and/or to the first exercises found, e.g. to preview
+ * a document before importing it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PdfParseOptions {
+    /** First page to parse (1-based), or null for the first page */
+    private Integer startPage;
+    /** Last page to parse (inclusive), or null for the last page */
+    private Integer endPage;
+    /** Stop once this many exercises have been found, or null for no limit */
+    private Integer limit;
+    /** Only exercises of these muscle groups (Portuguese headers), or null for all */
+    private Set<String> muscleGroups;
+
+    public static PdfParseOptions fullDocument() {
+        return new PdfParseOptions();
+    }
+
+    public boolean isFullDocument() {
+        return startPage == null && endPage == null && limit == null && muscleGroups == null;
+    }
+}
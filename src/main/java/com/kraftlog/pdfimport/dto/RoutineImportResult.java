@@ -21,4 +21,6 @@ public class RoutineImportResult {
     private Integer successfulExercises;
     private Integer failedExercises;
     private List<String> errors;
+    /** Catalog exercise chosen for each distinct exercise name, in order of first appearance */
+    private List<ExerciseMatch> exerciseMatches;
 }
@@ -0,0 +1,78 @@
+package com.kraftlog.pdfimport.service;
+
+import com.kraftlog.pdfimport.config.RoutineLayoutConfig;
+import org.apache.poi.ss.util.CellAddress;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * A routine layout resolved to 0-based cell positions, with every cell it reads collected
+ * into one sorted index so that a single forward scan of the sheet fills all workouts.
+ * Immutable; compiled once per layout and shared between parses.
+ */
+final class CompiledRoutineLayout {
+
+    /**
+     * One workout block. Exercise rows hold the exercise name in {@code exerciseColumn}, sets
+     * x reps in {@code setsRepsColumn} and the technique in {@code techniqueColumn}.
+     */
+    record WorkoutBlock(CellAddress name, int firstExerciseRow, int lastExerciseRow, int exerciseColumn,
+                        int setsRepsColumn, int techniqueColumn, CellAddress rest) {
+    }
+
+    private final List<WorkoutBlock> blocks;
+    private final CellAddress[] cellIndex;
+
+    private CompiledRoutineLayout(List<WorkoutBlock> blocks, CellAddress[] cellIndex) {
+        this.blocks = blocks;
+        this.cellIndex = cellIndex;
+    }
+
+    static CompiledRoutineLayout compile(RoutineLayoutConfig.Layout layout) {
+        List<WorkoutBlock> blocks = new ArrayList<>();
+        TreeSet<CellAddress> cells = new TreeSet<>();
+
+        for (RoutineLayoutConfig.Workout workout : layout.getWorkouts()) {
+            CellRangeAddress exercises = CellRangeAddress.valueOf(workout.getExercises());
+            int exerciseColumn = exercises.getFirstColumn();
+            int setsRepsColumn = workout.getSetsRepsColumn() != null
+                    ? CellReference.convertColStringToIndex(workout.getSetsRepsColumn()) : exerciseColumn + 1;
+            int techniqueColumn = workout.getTechniqueColumn() != null
+                    ? CellReference.convertColStringToIndex(workout.getTechniqueColumn()) : setsRepsColumn + 1;
+
+            WorkoutBlock block = new WorkoutBlock(
+                    new CellAddress(workout.getName()),
+                    exercises.getFirstRow(), exercises.getLastRow(),
+                    exerciseColumn, setsRepsColumn, techniqueColumn,
+                    workout.getRest() != null ? new CellAddress(workout.getRest()) : null);
+            blocks.add(block);
+
+            cells.add(block.name());
+            if (block.rest() != null) {
+                cells.add(block.rest());
+            }
+            for (int row = block.firstExerciseRow(); row <= block.lastExerciseRow(); row++) {
+                cells.add(new CellAddress(row, exerciseColumn));
+                cells.add(new CellAddress(row, setsRepsColumn));
+                cells.add(new CellAddress(row, techniqueColumn));
+            }
+        }
+
+        return new CompiledRoutineLayout(List.copyOf(blocks), cells.toArray(new CellAddress[0]));
+    }
+
+    List<WorkoutBlock> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * An empty value holder for one parse, indexed by this layout's cells.
+     */
+    SheetCells newSheetCells() {
+        return new SheetCells(cellIndex);
+    }
+}
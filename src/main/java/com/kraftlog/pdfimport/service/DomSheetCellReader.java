@@ -0,0 +1,147 @@
+package com.kraftlog.pdfimport.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellAddress;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the whole workbook into an {@link XSSFWorkbook} and looks the cells up in it. Sheets
+ * are read one at a time, as the workbook is not safe for concurrent access.
+ *
+ * <p>Formula cells yield the result stored with them. Only formulas saved without a result
+ * are evaluated, with one {@link FormulaEvaluator} created on first use and reused for the
+ * workbook.
+ */
+@Slf4j
+class DomSheetCellReader implements SheetCellReader {
+
+    private final OPCPackage xlsxPackage;
+    private final XSSFWorkbook workbook;
+    private FormulaEvaluator formulaEvaluator;
+
+    DomSheetCellReader(File file) throws IOException {
+        try {
+            xlsxPackage = OPCPackage.open(file, PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException("Not a valid XLSX package", e);
+        }
+
+        try {
+            workbook = new XSSFWorkbook(xlsxPackage);
+        } catch (IOException | RuntimeException e) {
+            xlsxPackage.revert();
+            throw e;
+        }
+    }
+
+    /**
+     * Loads the workbook from a package opened by the caller, who remains responsible for
+     * reverting it; {@link #close()} must not be called.
+     */
+    DomSheetCellReader(OPCPackage xlsxPackage) throws IOException {
+        this.xlsxPackage = xlsxPackage;
+        this.workbook = new XSSFWorkbook(xlsxPackage);
+    }
+
+    @Override
+    public List<String> getSheetNames() {
+        List<String> names = new ArrayList<>();
+        workbook.forEach(sheet -> names.add(sheet.getSheetName()));
+        return names;
+    }
+
+    @Override
+    public synchronized void readSheet(int sheetIndex, SheetCells cells) {
+        Sheet sheet = workbook.getSheetAt(sheetIndex);
+
+        readCells(sheet, cells.addresses(), cells);
+    }
+
+    /**
+     * Fills {@code cells} with the values of only the given cells of the sheet.
+     */
+    synchronized void readCells(int sheetIndex, List<CellAddress> addresses, SheetCells cells) {
+        readCells(workbook.getSheetAt(sheetIndex), addresses, cells);
+    }
+
+    private void readCells(Sheet sheet, List<CellAddress> addresses, SheetCells cells) {
+        for (CellAddress address : addresses) {
+            cells.put(address, getCellValue(sheet.getRow(address.getRow()), address.getColumn()));
+        }
+    }
+
+    @Override
+    public void close() {
+        // Closing would try to save the package; a read-only package is reverted instead
+        xlsxPackage.revert();
+    }
+
+    private String getCellValue(Row row, int cellIndex) {
+        if (row == null) {
+            return null;
+        }
+        
+        Cell cell = row.getCell(cellIndex);
+        if (cell == null) {
+            return null;
+        }
+        
+        return switch (cell.getCellType()) {
+            case STRING -> cell.getStringCellValue();
+            case NUMERIC -> String.valueOf((int) cell.getNumericCellValue());
+            case BOOLEAN -> SheetCellReader.booleanValue(cell.getBooleanCellValue());
+            case FORMULA -> getFormulaValue((XSSFCell) cell);
+            default -> null;
+        };
+    }
+
+    private String getFormulaValue(XSSFCell cell) {
+        if (cell.getCTCell().isSetV()) {
+            return switch (cell.getCachedFormulaResultType()) {
+                case STRING -> cell.getStringCellValue();
+                case NUMERIC -> String.valueOf((int) cell.getNumericCellValue());
+                case BOOLEAN -> SheetCellReader.booleanValue(cell.getBooleanCellValue());
+                default -> null;
+            };
+        }
+
+        CellValue value;
+        try {
+            value = getFormulaEvaluator().evaluate(cell);
+        } catch (RuntimeException e) {
+            log.debug("Could not evaluate formula {} in {}: {}", cell.getCellFormula(), cell.getAddress(), e.getMessage());
+            return null;
+        }
+        if (value == null) {
+            return null;
+        }
+        
+        return switch (value.getCellType()) {
+            case STRING -> value.getStringValue();
+            case NUMERIC -> String.valueOf((int) value.getNumberValue());
+            case BOOLEAN -> SheetCellReader.booleanValue(value.getBooleanValue());
+            default -> null;
+        };
+    }
+
+    private FormulaEvaluator getFormulaEvaluator() {
+        if (formulaEvaluator == null) {
+            formulaEvaluator = workbook.getCreationHelper().createFormulaEvaluator();
+        }
+        return formulaEvaluator;
+    }
+}
@@ -0,0 +1,316 @@
+package com.kraftlog.pdfimport.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kraftlog.pdfimport.client.KraftLogApiClient;
+import com.kraftlog.pdfimport.config.ExerciseCatalogProperties;
+import com.kraftlog.pdfimport.dto.ParsedExerciseData;
+import com.kraftlog.pdfimport.text.ExerciseMatchIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local copy of the KraftLog exercise catalog, so that resolving an exercise name is a hash
+ * lookup instead of a search request.
+ *
+ * <p>When enabled, the catalog is loaded from the snapshot file at startup, if there is one, and
+ * synced from the API right after and then every {@code refreshInterval}. Syncs only fetch the
+ * exercises updated since the newest {@code updatedAt} already held, except every
+ * {@code fullSyncInterval}, when the whole catalog is loaded again so deleted exercises go away.
+ * After each sync the catalog is saved to the snapshot file, keeping restarts warm.
+ *
+ * <p>Names are matched through an {@link ExerciseMatchIndex}, so case, accents, punctuation,
+ * plurals and abbreviations don't matter, and a name close enough to a catalog name (at least
+ * {@code minMatchScore}) matches it. Lookups never block on a sync: each sync builds a new index
+ * and swaps it in. Exercises created in between are kept in a small side map, matched by
+ * {@link ExerciseMatchIndex#fuzzyKey key} only, and folded into the index by the next sync.
+ * Returned exercises are shared and must not be modified.
+ */
+@Component
+@Slf4j
+public class ExerciseCatalogMirror {
+
+    private record Catalog(Map<String, ParsedExerciseData> byId,
+                           ExerciseMatchIndex<ParsedExerciseData> byName,
+                           LocalDateTime latestUpdate,
+                           Instant fullSyncAt) {
+
+        private static final Catalog EMPTY = new Catalog(Map.of(), ExerciseMatchIndex.of(List.of(), ParsedExerciseData::getName), null, null);
+
+        private static Catalog of(Collection<ParsedExerciseData> exercises, Instant fullSyncAt) {
+            Map<String, ParsedExerciseData> byId = new LinkedHashMap<>();
+            LocalDateTime latestUpdate = null;
+
+            for (ParsedExerciseData exercise : exercises) {
+                if (exercise.getId() == null || exercise.getName() == null) {
+                    continue;
+                }
+                byId.put(exercise.getId(), exercise);
+                if (exercise.getUpdatedAt() != null
+                        && (latestUpdate == null || exercise.getUpdatedAt().isAfter(latestUpdate))) {
+                    latestUpdate = exercise.getUpdatedAt();
+                }
+            }
+            // The first exercise of a name wins, as the first search result would
+            return new Catalog(byId, ExerciseMatchIndex.of(byId.values(), ParsedExerciseData::getName),
+                    latestUpdate, fullSyncAt);
+        }
+    }
+
+    /**
+     * Contents of the snapshot file.
+     */
+    private record Snapshot(Instant fullSyncAt, List<ParsedExerciseData> exercises) {
+    }
+
+    private final KraftLogApiClient apiClient;
+    private final ExerciseCatalogProperties properties;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final Object syncLock = new Object();
+    private volatile Catalog catalog = Catalog.EMPTY;
+    // Exercises added since the last sync, by fuzzy key; replaced as a whole on every change
+    private volatile Map<String, ParsedExerciseData> created = Map.of();
+    private volatile Instant lastSyncAt;
+    private ScheduledExecutorService syncScheduler;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong fuzzyHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+    private final AtomicLong syncFailures = new AtomicLong();
+
+    public ExerciseCatalogMirror(KraftLogApiClient apiClient, ExerciseCatalogProperties properties) {
+        this.apiClient = apiClient;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        loadSnapshot();
+        syncScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("kraftlog-catalog-sync").daemon().factory());
+        // Started in the background, so an unreachable API doesn't hold up startup
+        syncScheduler.scheduleWithFixedDelay(this::syncQuietly, 0,
+                properties.getRefreshInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (syncScheduler != null) {
+            syncScheduler.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * The exercise with the given name, if the catalog holds one.
+     */
+    public Optional<ParsedExerciseData> find(String name) {
+        return match(name).map(ExerciseMatchIndex.Match::value);
+    }
+
+    /**
+     * The catalog exercise whose name best matches the given one, with its score, if the score
+     * is at least {@code minMatchScore}.
+     */
+    public Optional<ExerciseMatchIndex.Match<ParsedExerciseData>> match(String name) {
+        if (!isEnabled() || name == null) {
+            return Optional.empty();
+        }
+
+        Optional<ExerciseMatchIndex.Match<ParsedExerciseData>> match =
+                catalog.byName().bestMatch(name, properties.getMinMatchScore());
+        if (match.isEmpty() || match.get().score() < 1) {
+            ParsedExerciseData added = created.get(ExerciseMatchIndex.fuzzyKey(name));
+            if (added != null) {
+                match = Optional.of(new ExerciseMatchIndex.Match<>(added, added.getName(), 1.0));
+            }
+        }
+        if (match.isEmpty()) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+            if (match.get().score() < 1) {
+                fuzzyHits.incrementAndGet();
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Adds an exercise created through the API, so it is found by its name before the next sync.
+     * Only the side map is copied, not the catalog, so this stays cheap however large it is.
+     */
+    public synchronized void add(ParsedExerciseData exercise) {
+        if (!isEnabled() || exercise.getId() == null || exercise.getName() == null) {
+            return;
+        }
+        String key = ExerciseMatchIndex.fuzzyKey(exercise.getName());
+        if (key.isEmpty() || created.containsKey(key)) {
+            return;
+        }
+
+        Map<String, ParsedExerciseData> updated = new HashMap<>(created);
+        updated.put(key, exercise);
+        created = Map.copyOf(updated);
+    }
+
+    /**
+     * Fetches the exercises changed since the last sync, or the whole catalog when it is empty
+     * or the full sync interval has passed, and saves the result to the snapshot file. Only one
+     * sync runs at a time; the API is called without blocking {@link #add}.
+     */
+    public void sync() throws IOException, InterruptedException {
+        synchronized (syncLock) {
+            Catalog current = catalog;
+            Instant now = Instant.now();
+            boolean full = current.byId().isEmpty()
+                    || current.fullSyncAt() == null
+                    || !now.isBefore(current.fullSyncAt().plus(properties.getFullSyncInterval()));
+
+            List<ParsedExerciseData> fetched = apiClient.listExercises(full ? null : current.latestUpdate());
+
+            Catalog updated;
+            synchronized (this) {
+                Map<String, ParsedExerciseData> exercises = new LinkedHashMap<>(full ? Map.of() : current.byId());
+                for (ParsedExerciseData exercise : fetched) {
+                    if (exercise.getId() != null) {
+                        exercises.put(exercise.getId(), exercise);
+                    }
+                }
+                // Exercises added meanwhile may have been created after the request was answered
+                for (ParsedExerciseData exercise : created.values()) {
+                    exercises.putIfAbsent(exercise.getId(), exercise);
+                }
+                Catalog merged = Catalog.of(exercises.values(), full ? now : current.fullSyncAt());
+                // Created exercises may carry no updatedAt; only fetched ones move the sync point
+                updated = new Catalog(merged.byId(), merged.byName(),
+                        latestUpdate(fetched, full ? null : current.latestUpdate()), merged.fullSyncAt());
+                catalog = updated;
+                created = Map.of();
+                if (full) {
+                    log.info("Loaded exercise catalog: {} exercises", updated.byId().size());
+                } else {
+                    log.debug("Synced exercise catalog: {} changed, {} exercises", fetched.size(), updated.byId().size());
+                }
+            }
+
+            lastSyncAt = now;
+            syncs.incrementAndGet();
+            saveSnapshot(updated);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Catalog current = catalog;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled());
+        stats.put("exercises", current.byId().size());
+        stats.put("pendingExercises", created.size());
+        stats.put("latestUpdate", current.latestUpdate() != null ? current.latestUpdate().toString() : null);
+        stats.put("lastSyncAt", lastSyncAt != null ? lastSyncAt.toString() : null);
+        stats.put("syncs", syncs.get());
+        stats.put("syncFailures", syncFailures.get());
+        stats.put("hits", hits.get());
+        stats.put("fuzzyHits", fuzzyHits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    /**
+     * Loads the catalog saved by an earlier run, if any.
+     */
+    void loadSnapshot() {
+        Path file = snapshotFile();
+        if (file == null || !Files.isRegularFile(file)) {
+            return;
+        }
+
+        try {
+            Snapshot snapshot = objectMapper.readValue(file.toFile(), Snapshot.class);
+            synchronized (this) {
+                catalog = Catalog.of(snapshot.exercises(), snapshot.fullSyncAt());
+            }
+            log.info("Loaded exercise catalog snapshot {}: {} exercises", file, catalog.byId().size());
+        } catch (IOException e) {
+            log.warn("Could not read exercise catalog snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static LocalDateTime latestUpdate(List<ParsedExerciseData> exercises, LocalDateTime latestUpdate) {
+        for (ParsedExerciseData exercise : exercises) {
+            if (exercise.getUpdatedAt() != null
+                    && (latestUpdate == null || exercise.getUpdatedAt().isAfter(latestUpdate))) {
+                latestUpdate = exercise.getUpdatedAt();
+            }
+        }
+        return latestUpdate;
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            syncFailures.incrementAndGet();
+            log.warn("Exercise catalog sync failed, keeping {} exercises: {}", catalog.byId().size(), e.getMessage());
+        }
+    }
+
+    private void saveSnapshot(Catalog saved) {
+        Path file = snapshotFile();
+        if (file == null) {
+            return;
+        }
+
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            objectMapper.writeValue(tempFile.toFile(),
+                    new Snapshot(saved.fullSyncAt(), new ArrayList<>(saved.byId().values())));
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warn("Could not write exercise catalog snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Path snapshotFile() {
+        String snapshotFile = properties.getSnapshotFile();
+        return snapshotFile == null || snapshotFile.isBlank() ? null : Path.of(snapshotFile);
+    }
+}
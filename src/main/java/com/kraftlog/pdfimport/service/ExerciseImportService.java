@@ -1,9 +1,12 @@
 package com.kraftlog.pdfimport.service;
 
+import com.kraftlog.pdfimport.client.ExerciseBatchInterruptedException;
 import com.kraftlog.pdfimport.client.KraftLogApiClient;
 import com.kraftlog.pdfimport.config.MuscleGroupMappingConfig;
 import com.kraftlog.pdfimport.dto.ExerciseCreateRequest;
+import com.kraftlog.pdfimport.dto.ExerciseCreateResult;
 import com.kraftlog.pdfimport.dto.ParsedExerciseData;
+import com.kraftlog.pdfimport.dto.PdfParseOptions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -23,9 +26,18 @@ public class ExerciseImportService {
     private final MuscleGroupMappingConfig muscleGroupConfig;
 
     public ImportResult importExercisesFromPdf(File pdfFile) throws IOException {
+        return importExercisesFromPdf(pdfFile, PdfParseOptions.fullDocument());
+    }
+
+    /**
+     * Imports only the pages and number of exercises selected by the options.
+     */
+    public ImportResult importExercisesFromPdf(File pdfFile, PdfParseOptions options) throws IOException {
         log.info("Starting exercise import from PDF: {}", pdfFile.getName());
         
-        List<ParsedExerciseData> parsedExercises = pdfParser.parseExercisesFromPdf(pdfFile);
+        List<ParsedExerciseData> parsedExercises = options.isFullDocument()
+                ? pdfParser.parseExercisesFromPdf(pdfFile)
+                : pdfParser.parseExercisesFromPdf(pdfFile, options);
         
         if (parsedExercises.isEmpty()) {
             throw new IllegalArgumentException("No exercises found in PDF file");
@@ -35,6 +47,13 @@ public class ExerciseImportService {
         
         ImportResult result = new ImportResult();
         
+        if (apiClient.isBatchEnabled()) {
+            importInBatches(parsedExercises, result);
+            log.info("Exercise import completed. Success: {}, Failed: {}", 
+                    result.getSuccessCount(), result.getFailureCount());
+            return result;
+        }
+        
         for (ParsedExerciseData parsedExercise : parsedExercises) {
             try {
                 ExerciseCreateRequest request = convertToCreateRequest(parsedExercise);
@@ -59,6 +78,51 @@ public class ExerciseImportService {
         return result;
     }
 
+    private void importInBatches(List<ParsedExerciseData> parsedExercises, ImportResult result) {
+        List<ExerciseCreateRequest> requests = parsedExercises.stream()
+                .map(this::convertToCreateRequest)
+                .toList();
+        
+        try {
+            addResults(apiClient.createExercises(requests), result);
+        } catch (ExerciseBatchInterruptedException e) {
+            Thread.currentThread().interrupt();
+            List<ExerciseCreateResult> completed = e.getCompleted();
+            log.warn("Exercise import interrupted after {} of {} exercises", completed.size(), parsedExercises.size());
+            addResults(completed, result);
+            // Results come in request order, so the rest are the exercises not handled yet
+            for (ParsedExerciseData parsedExercise : parsedExercises.subList(completed.size(), parsedExercises.size())) {
+                result.addFailure(parsedExercise.getName(), "Import interrupted");
+            }
+        }
+    }
+
+    private static void addResults(List<ExerciseCreateResult> results, ImportResult result) {
+        for (ExerciseCreateResult created : results) {
+            if (created.isSuccess()) {
+                result.incrementSuccess();
+            } else {
+                log.warn("Failed to import exercise: {} - {}", created.getName(), created.getError());
+                result.addFailure(created.getName(), created.getError() != null ? created.getError() : "API returned error");
+            }
+        }
+    }
+
+    /**
+     * Parses the selected part of the PDF without importing anything, with the English muscle
+     * group each exercise would be imported under.
+     */
+    public List<ParsedExerciseData> previewExercisesFromPdf(File pdfFile, PdfParseOptions options) throws IOException {
+        List<ParsedExerciseData> parsedExercises = pdfParser.parseExercisesFromPdf(pdfFile, options);
+        
+        for (ParsedExerciseData parsedExercise : parsedExercises) {
+            parsedExercise.setMuscleGroup(muscleGroupConfig.getMuscleGroupEnglishName(
+                    parsedExercise.getMuscleGroupPortuguese()));
+        }
+        
+        return parsedExercises;
+    }
+
     private ExerciseCreateRequest convertToCreateRequest(ParsedExerciseData parsedExercise) {
         String muscleGroupEnglish = muscleGroupConfig.getMuscleGroupEnglishName(
                 parsedExercise.getMuscleGroupPortuguese());
@@ -0,0 +1,177 @@
+package com.kraftlog.pdfimport.service;
+
+import com.kraftlog.pdfimport.dto.ParsedExerciseData;
+import com.kraftlog.pdfimport.text.ExerciseNameNormalizer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns stripped PDF text, one line at a time, into exercises while tracking the muscle
+ * group header currently in effect. One instance per document or page range; not thread-safe.
+ */
+@Slf4j
+class ExerciseLineParser {
+
+    private static final Pattern URL_PATTERN = Pattern.compile(
+            "https://(?:(?:www\\.)?youtube\\.com/watch\\?v=|youtu\\.be/)[A-Za-z0-9_-]+");
+
+    private final PdfLineClassifier lineClassifier;
+    private final Consumer<ParsedExerciseData> consumer;
+    private final boolean keepLeadingExercises;
+    private final List<ParsedExerciseData> leadingExercises = new ArrayList<>();
+    private final ExerciseNameNormalizer nameNormalizer = new ExerciseNameNormalizer();
+
+    private String currentMuscleGroup;
+    private int exerciseCount;
+    private int limit = Integer.MAX_VALUE;
+    private Set<String> muscleGroupFilter;
+
+    /**
+     * @param keepLeadingExercises whether exercises found before the first header are kept
+     *                             aside (page ranges) or dropped (whole documents)
+     */
+    ExerciseLineParser(PdfLineClassifier lineClassifier,
+                       Consumer<ParsedExerciseData> consumer,
+                       boolean keepLeadingExercises) {
+        this.lineClassifier = lineClassifier;
+        this.consumer = consumer;
+        this.keepLeadingExercises = keepLeadingExercises;
+    }
+
+    void acceptLine(String line) {
+        acceptLine(line, null);
+    }
+
+    /**
+     * @param linkUrl video URL taken from a link annotation on the line's row; when null the
+     *                URL is looked for in the line text
+     */
+    void acceptLine(String line, String linkUrl) {
+        if (isLimitReached()) {
+            return;
+        }
+
+        line = line.trim();
+
+        // Skip empty lines
+        if (line.isEmpty()) {
+            return;
+        }
+
+        PdfLineClassifier.LineType lineType = lineClassifier.classify(line);
+
+        // Check for muscle group header
+        if (lineType == PdfLineClassifier.LineType.HEADER) {
+            currentMuscleGroup = lineClassifier.muscleGroupHeader(line);
+            log.debug("Found muscle group: {}", currentMuscleGroup);
+            return;
+        }
+
+        // Skip title, footer, table header and sub-header lines
+        if (lineType != PdfLineClassifier.LineType.EXERCISE) {
+            return;
+        }
+
+        if (currentMuscleGroup == null) {
+            // Lines before the first header of a page range are kept aside until the
+            // muscle group carried over from the previous range is known
+            if (keepLeadingExercises) {
+                ParsedExerciseData exercise = parseExerciseLine(line, linkUrl, null);
+                if (exercise != null) {
+                    leadingExercises.add(exercise);
+                }
+            }
+            return;
+        }
+
+        if (muscleGroupFilter != null && !muscleGroupFilter.contains(currentMuscleGroup)) {
+            return;
+        }
+
+        ParsedExerciseData exercise = parseExerciseLine(line, linkUrl, currentMuscleGroup);
+        if (exercise != null) {
+            exerciseCount++;
+            consumer.accept(exercise);
+            log.debug("Parsed exercise: {} | Group: {} | URL: {}",
+                    exercise.getName(), exercise.getMuscleGroupPortuguese(), exercise.getVideoUrl());
+        }
+    }
+
+    /**
+     * Starts in the given muscle group, for parses that begin inside a section.
+     */
+    void continueMuscleGroup(String muscleGroup) {
+        currentMuscleGroup = muscleGroup;
+    }
+
+    /**
+     * Ignores every line once this many exercises have been emitted.
+     */
+    void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Only emits exercises of these muscle groups. Leading exercises are kept regardless, as
+     * their muscle group is not known yet.
+     */
+    void setMuscleGroupFilter(Set<String> muscleGroups) {
+        this.muscleGroupFilter = muscleGroups;
+    }
+
+    boolean isLimitReached() {
+        return exerciseCount >= limit;
+    }
+
+    List<ParsedExerciseData> getLeadingExercises() {
+        return leadingExercises;
+    }
+
+    String getCurrentMuscleGroup() {
+        return currentMuscleGroup;
+    }
+
+    int getExerciseCount() {
+        return exerciseCount;
+    }
+
+    private ParsedExerciseData parseExerciseLine(String line, String linkUrl, String muscleGroup) {
+        String videoUrl = linkUrl;
+        int nameEnd = line.length();
+
+        // Extract URL from the text if no link annotation provided one
+        if (videoUrl == null) {
+            Matcher urlMatcher = URL_PATTERN.matcher(line);
+            if (urlMatcher.find()) {
+                videoUrl = urlMatcher.group();
+                // Only the text before the URL is the exercise name
+                nameEnd = urlMatcher.start();
+            }
+        }
+
+        // Clean up exercise name
+        String exerciseName = nameNormalizer.clean(line, 0, nameEnd);
+
+        // Validate exercise name
+        if (exerciseName.isEmpty() || exerciseName.length() < 3) {
+            return null;
+        }
+
+        // Skip lines that look like sub-headers or non-exercise text
+        if (lineClassifier.isSubHeader(exerciseName)) {
+            return null;
+        }
+
+        return ParsedExerciseData.builder()
+                .name(exerciseName)
+                .videoUrl(videoUrl)
+                .muscleGroupPortuguese(muscleGroup)
+                .build();
+    }
+}
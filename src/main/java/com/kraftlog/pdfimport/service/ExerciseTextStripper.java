@@ -0,0 +1,158 @@
+package com.kraftlog.pdfimport.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Text stripper that hands each line to a consumer as soon as PDFBox writes it, instead of
+ * accumulating the whole document into one String. Only the current page and the current
+ * line are held in memory.
+ *
+ * <p>When reading link annotations, each line is also paired with the URI of the link that
+ * covers its row, and glyphs drawn inside a link area (link text such as "Assistir" or the
+ * printed URL itself) are left out of the line.
+ */
+class ExerciseTextStripper extends PDFTextStripper implements PdfLineExtractor {
+
+    private final boolean readLinkAnnotations;
+    private PageLinks pageLinks = PageLinks.NONE;
+    private float cropBoxX;
+    private float cropBoxY;
+    private String currentLineLink;
+
+    ExerciseTextStripper() {
+        this(false);
+    }
+
+    ExerciseTextStripper(boolean readLinkAnnotations) {
+        this.readLinkAnnotations = readLinkAnnotations;
+    }
+
+    @Override
+    public void stripLinesWithLinks(PDDocument document, LineHandler lineHandler) throws IOException {
+        LineWriter writer = new LineWriter(lineHandler);
+        writeText(document, writer);
+        writer.flushPendingLine();
+    }
+
+    @Override
+    public void stopAfterCurrentPage() {
+        setEndPage(getCurrentPageNo());
+    }
+
+    @Override
+    protected void startPage(PDPage page) throws IOException {
+        super.startPage(page);
+
+        pageLinks = readLinkAnnotations ? PageLinks.read(page) : PageLinks.NONE;
+        // Text positions are relative to the crop box origin, links are not
+        cropBoxX = page.getCropBox().getLowerLeftX();
+        cropBoxY = page.getCropBox().getLowerLeftY();
+    }
+
+    @Override
+    protected void writeString(String text, List<TextPosition> textPositions) throws IOException {
+        if (pageLinks.isEmpty()) {
+            super.writeString(text, textPositions);
+            return;
+        }
+
+        List<TextPosition> kept = null;
+        for (int i = 0; i < textPositions.size(); i++) {
+            TextPosition position = textPositions.get(i);
+            float centerX = cropBoxX + position.getTextMatrix().getTranslateX() + position.getWidth() / 2;
+            float centerY = cropBoxY + position.getTextMatrix().getTranslateY() + position.getHeight() / 2;
+
+            String linkUri = pageLinks.uriAt(centerX, centerY);
+            if (linkUri != null) {
+                currentLineLink = linkUri;
+            } else if (currentLineLink == null) {
+                currentLineLink = pageLinks.uriOnRow(centerY);
+            }
+
+            boolean insideLink = linkUri != null;
+            if (insideLink && kept == null) {
+                kept = new ArrayList<>(textPositions.subList(0, i));
+            } else if (!insideLink && kept != null) {
+                kept.add(position);
+            }
+        }
+
+        if (kept == null) {
+            super.writeString(text, textPositions);
+            return;
+        }
+
+        StringBuilder keptText = new StringBuilder();
+        for (TextPosition position : kept) {
+            keptText.append(position.getUnicode());
+        }
+        super.writeString(keptText.toString(), kept);
+    }
+
+    private final class LineWriter extends Writer {
+        private final LineHandler lineHandler;
+        private final StringBuilder currentLine = new StringBuilder();
+
+        private LineWriter(LineHandler lineHandler) {
+            this.lineHandler = lineHandler;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            int lineStart = offset;
+            int end = offset + length;
+
+            for (int i = offset; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    currentLine.append(buffer, lineStart, i - lineStart);
+                    emitLine();
+                    lineStart = i + 1;
+                }
+            }
+
+            currentLine.append(buffer, lineStart, end - lineStart);
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+            int end = offset + length;
+
+            for (int i = offset; i < end; i++) {
+                char c = text.charAt(i);
+                if (c == '\n') {
+                    emitLine();
+                } else {
+                    currentLine.append(c);
+                }
+            }
+        }
+
+        private void emitLine() {
+            lineHandler.acceptLine(currentLine.toString(), currentLineLink);
+            currentLine.setLength(0);
+            currentLineLink = null;
+        }
+
+        private void flushPendingLine() {
+            if (!currentLine.isEmpty()) {
+                emitLine();
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.kraftlog.pdfimport.service;
+
+/**
+ * Thrown when the page range, limit or muscle groups of a {@link com.kraftlog.pdfimport.dto.PdfParseOptions}
+ * don't fit the document or the configured muscle groups, i.e. when the request is at fault.
+ */
+public class InvalidPdfParseOptionsException extends IllegalArgumentException {
+
+    public InvalidPdfParseOptionsException(String message) {
+        super(message);
+    }
+}
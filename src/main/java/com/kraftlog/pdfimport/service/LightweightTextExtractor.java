@@ -0,0 +1,228 @@
+package com.kraftlog.pdfimport.service;
+
+import org.apache.pdfbox.contentstream.PDFStreamEngine;
+import org.apache.pdfbox.contentstream.operator.state.Concatenate;
+import org.apache.pdfbox.contentstream.operator.state.Restore;
+import org.apache.pdfbox.contentstream.operator.state.Save;
+import org.apache.pdfbox.contentstream.operator.state.SetGraphicsStateParameters;
+import org.apache.pdfbox.contentstream.operator.state.SetMatrix;
+import org.apache.pdfbox.contentstream.operator.text.BeginText;
+import org.apache.pdfbox.contentstream.operator.text.EndText;
+import org.apache.pdfbox.contentstream.operator.text.MoveText;
+import org.apache.pdfbox.contentstream.operator.text.MoveTextSetLeading;
+import org.apache.pdfbox.contentstream.operator.text.NextLine;
+import org.apache.pdfbox.contentstream.operator.text.SetCharSpacing;
+import org.apache.pdfbox.contentstream.operator.text.SetFontAndSize;
+import org.apache.pdfbox.contentstream.operator.text.SetTextHorizontalScaling;
+import org.apache.pdfbox.contentstream.operator.text.SetTextLeading;
+import org.apache.pdfbox.contentstream.operator.text.SetTextRenderingMode;
+import org.apache.pdfbox.contentstream.operator.text.SetTextRise;
+import org.apache.pdfbox.contentstream.operator.text.SetWordSpacing;
+import org.apache.pdfbox.contentstream.operator.text.ShowText;
+import org.apache.pdfbox.contentstream.operator.text.ShowTextAdjusted;
+import org.apache.pdfbox.contentstream.operator.text.ShowTextLine;
+import org.apache.pdfbox.contentstream.operator.text.ShowTextLineAndSpace;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.util.Matrix;
+import org.apache.pdfbox.util.Vector;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Line extractor for the simple tabular PDFs we import, built directly on
+ * {@link PDFStreamEngine} instead of {@code PDFTextStripper}.
+ *
+ * <p>Only the text and graphics state operators are registered, so images, paths, form
+ * XObjects and marked content are never decoded, and no {@code TextPosition} objects, font
+ * metric lookups, position sorting or article bead handling take place. Glyphs are appended
+ * straight to the current line: a glyph starts a new line when its baseline leaves the current
+ * row, and a space is inserted where the gap since the previous glyph is wider than
+ * {@code PDFTextStripper} would allow within a word.
+ *
+ * <p>This matches the stripper for text laid out in reading order, which is what the exercise
+ * tables are. Text drawn inside form XObjects and duplicated "fake bold" glyphs are not
+ * handled; use the stripper for documents that rely on either.
+ */
+class LightweightTextExtractor extends PDFStreamEngine implements PdfLineExtractor {
+
+    // Same tolerances as PDFTextStripper's defaults
+    private static final float SPACING_TOLERANCE = 0.5f;
+    private static final float AVERAGE_CHAR_TOLERANCE = 0.3f;
+
+    // Glyph height as a share of the font size, for the row and link checks
+    private static final float GLYPH_HEIGHT_RATIO = 0.7f;
+
+    private final boolean readLinkAnnotations;
+    private final StringBuilder currentLine = new StringBuilder();
+    private final Map<PDFont, Float> spaceWidths = new HashMap<>();
+
+    private int startPage = 1;
+    private int endPage = Integer.MAX_VALUE;
+    private int currentPageNo;
+
+    private LineHandler lineHandler;
+    private PageLinks pageLinks = PageLinks.NONE;
+    private String currentLineLink;
+
+    private boolean lineStarted;
+    private float lineBaseline;
+    private float lineHeight;
+    private float lastEndX;
+    private float lastWidth;
+
+    LightweightTextExtractor() {
+        this(false);
+    }
+
+    LightweightTextExtractor(boolean readLinkAnnotations) {
+        this.readLinkAnnotations = readLinkAnnotations;
+
+        addOperator(new BeginText(this));
+        addOperator(new EndText(this));
+        addOperator(new SetFontAndSize(this));
+        addOperator(new SetCharSpacing(this));
+        addOperator(new SetWordSpacing(this));
+        addOperator(new SetTextHorizontalScaling(this));
+        addOperator(new SetTextLeading(this));
+        addOperator(new SetTextRenderingMode(this));
+        addOperator(new SetTextRise(this));
+        addOperator(new MoveText(this));
+        addOperator(new MoveTextSetLeading(this));
+        addOperator(new NextLine(this));
+        addOperator(new SetMatrix(this));
+        addOperator(new ShowText(this));
+        addOperator(new ShowTextAdjusted(this));
+        addOperator(new ShowTextLine(this));
+        addOperator(new ShowTextLineAndSpace(this));
+        addOperator(new Save(this));
+        addOperator(new Restore(this));
+        addOperator(new Concatenate(this));
+        addOperator(new SetGraphicsStateParameters(this));
+    }
+
+    @Override
+    public void setStartPage(int startPage) {
+        this.startPage = startPage;
+    }
+
+    @Override
+    public void setEndPage(int endPage) {
+        this.endPage = endPage;
+    }
+
+    @Override
+    public void stopAfterCurrentPage() {
+        endPage = currentPageNo;
+    }
+
+    @Override
+    public void stripLinesWithLinks(PDDocument document, LineHandler lineHandler) throws IOException {
+        this.lineHandler = lineHandler;
+        currentPageNo = 0;
+
+        for (PDPage page : document.getPages()) {
+            currentPageNo++;
+            if (currentPageNo < startPage) {
+                continue;
+            }
+            if (currentPageNo > endPage) {
+                break;
+            }
+
+            if (page.hasContents()) {
+                pageLinks = readLinkAnnotations ? PageLinks.read(page) : PageLinks.NONE;
+                spaceWidths.clear();
+                processPage(page);
+            }
+            // Lines never continue across pages
+            endLine();
+        }
+
+        pageLinks = PageLinks.NONE;
+        this.lineHandler = null;
+    }
+
+    @Override
+    protected void showGlyph(Matrix textRenderingMatrix, PDFont font, int code, Vector displacement) {
+        String text = font.toUnicode(code);
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+
+        float x = textRenderingMatrix.getTranslateX();
+        float y = textRenderingMatrix.getTranslateY();
+        float fontSize = textRenderingMatrix.getScalingFactorY();
+        float width = displacement.getX() * textRenderingMatrix.getScalingFactorX();
+        float height = fontSize * GLYPH_HEIGHT_RATIO;
+
+        if (lineStarted && !onCurrentRow(y, height)) {
+            endLine();
+        }
+
+        if (!lineStarted) {
+            lineStarted = true;
+            lineBaseline = y;
+            lineHeight = height;
+        } else if (!endsWithSpace() && x > lastEndX + wordGap(font, textRenderingMatrix)) {
+            currentLine.append(' ');
+        }
+
+        lastEndX = x + width;
+        lastWidth = width;
+        lineHeight = Math.max(lineHeight, height);
+
+        if (!pageLinks.isEmpty() && insideLink(x + width / 2, y + height / 2)) {
+            // Link text such as "Assistir" or the printed URL is left out of the line
+            return;
+        }
+
+        currentLine.append(text);
+    }
+
+    private boolean insideLink(float centerX, float centerY) {
+        String linkUri = pageLinks.uriAt(centerX, centerY);
+        if (linkUri != null) {
+            currentLineLink = linkUri;
+            return true;
+        }
+        if (currentLineLink == null) {
+            currentLineLink = pageLinks.uriOnRow(centerY);
+        }
+        return false;
+    }
+
+    private boolean onCurrentRow(float baseline, float height) {
+        return Math.abs(baseline - lineBaseline) < Math.max(height, lineHeight) / 2;
+    }
+
+    private float wordGap(PDFont font, Matrix textRenderingMatrix) {
+        float spaceWidth = spaceWidths.computeIfAbsent(font, LightweightTextExtractor::spaceWidth)
+                * textRenderingMatrix.getScalingFactorX();
+        return Math.min(spaceWidth * SPACING_TOLERANCE, lastWidth * AVERAGE_CHAR_TOLERANCE);
+    }
+
+    private static float spaceWidth(PDFont font) {
+        float width = font.getSpaceWidth();
+        if (width <= 0) {
+            width = font.getAverageFontWidth();
+        }
+        return width / 1000;
+    }
+
+    private boolean endsWithSpace() {
+        return !currentLine.isEmpty() && currentLine.charAt(currentLine.length() - 1) == ' ';
+    }
+
+    private void endLine() {
+        if (lineStarted) {
+            lineHandler.acceptLine(currentLine.toString(), currentLineLink);
+        }
+        currentLine.setLength(0);
+        currentLineLink = null;
+        lineStarted = false;
+    }
+}
@@ -0,0 +1,95 @@
+package com.kraftlog.pdfimport.service;
+
+import com.kraftlog.pdfimport.config.MuscleGroupKeywordsConfig;
+import com.kraftlog.pdfimport.config.MuscleGroupMappingConfig;
+import com.kraftlog.pdfimport.text.AhoCorasickMatcher;
+import com.kraftlog.pdfimport.text.ExerciseNameNormalizer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tells the muscle group of an exercise from its name, e.g. CHEST for "Supino Reto".
+ *
+ * <p>The keywords of {@link MuscleGroupKeywordsConfig} and the muscle group names of
+ * {@link MuscleGroupMappingConfig} are compiled once into an Aho-Corasick automaton over
+ * {@link ExerciseNameNormalizer#matchKey match keys}. A name is classified in one pass over its
+ * characters, folding case and accents and collapsing punctuation on the fly, without
+ * allocating. Keywords only match at the start of a word; the longest matching keyword wins,
+ * then the one configured first.
+ */
+@Component
+public class MuscleGroupClassifier {
+
+    public static final String OTHER = "Other";
+
+    private final AhoCorasickMatcher matcher;
+    // Per pattern: the muscle group it stands for
+    private final String[] muscleGroups;
+
+    public MuscleGroupClassifier(MuscleGroupMappingConfig muscleGroupConfig, MuscleGroupKeywordsConfig keywordsConfig) {
+        Map<String, String> patterns = new LinkedHashMap<>();
+        keywordsConfig.getKeywords().forEach((muscleGroup, keywords) -> {
+            for (String keyword : keywords) {
+                addPattern(patterns, keyword, muscleGroup);
+            }
+        });
+        muscleGroupConfig.getMuscleGroupMappings().forEach((name, muscleGroup) -> addPattern(patterns, name, muscleGroup));
+
+        matcher = new AhoCorasickMatcher(new ArrayList<>(patterns.keySet()));
+        muscleGroups = patterns.values().toArray(new String[0]);
+    }
+
+    /**
+     * The muscle group of the exercise, or {@link #OTHER} if no keyword matches its name.
+     */
+    public String classify(CharSequence exerciseName) {
+        if (exerciseName == null || matcher.patternCount() == 0) {
+            return OTHER;
+        }
+
+        // Every pattern starts with a space, so feeding one first lets a name's first word match
+        int state = matcher.next(AhoCorasickMatcher.ROOT, ' ');
+        int best = -1;
+        boolean pendingSeparator = false;
+
+        for (int i = 0; i < exerciseName.length(); i++) {
+            char c = ExerciseNameNormalizer.fold(exerciseName.charAt(i));
+            if (!Character.isLetterOrDigit(c)) {
+                pendingSeparator = true;
+                continue;
+            }
+            if (pendingSeparator) {
+                state = matcher.next(state, ' ');
+                best = better(best, matcher.outputs(state));
+                pendingSeparator = false;
+            }
+            state = matcher.next(state, c);
+            best = better(best, matcher.outputs(state));
+        }
+
+        return best >= 0 ? muscleGroups[best] : OTHER;
+    }
+
+    private int better(int best, int[] outputs) {
+        for (int patternIndex : outputs) {
+            if (best < 0
+                    || matcher.patternLength(patternIndex) > matcher.patternLength(best)
+                    || (matcher.patternLength(patternIndex) == matcher.patternLength(best) && patternIndex < best)) {
+                best = patternIndex;
+            }
+        }
+        return best;
+    }
+
+    private static void addPattern(Map<String, String> patterns, String keyword, String muscleGroup) {
+        String key = ExerciseNameNormalizer.matchKeyOf(keyword);
+        if (!key.isEmpty()) {
+            // A leading space anchors the keyword at the start of a word
+            patterns.putIfAbsent(" " + key, muscleGroup);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.kraftlog.pdfimport.service;
+
+import com.kraftlog.pdfimport.text.ExerciseNameNormalizer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Muscle group sections of a document, read from its outline (bookmarks) instead of from the
+ * page text. Bookmarks whose title is a configured muscle group header mark the page on which
+ * that section starts; other bookmarks are ignored.
+ *
+ * <p>A bookmark only points at a page, and the section header may sit in the middle of it, so
+ * the start page of a section is also treated as the last page of the section before it.
+ */
+@Slf4j
+class MuscleGroupOutline {
+
+    record Section(String muscleGroup, int startPage) {
+    }
+
+    record PageRange(int startPage, int endPage) {
+    }
+
+    private static final MuscleGroupOutline EMPTY = new MuscleGroupOutline(List.of());
+
+    private final List<Section> sections;
+
+    private MuscleGroupOutline(List<Section> sections) {
+        this.sections = sections;
+    }
+
+    static MuscleGroupOutline empty() {
+        return EMPTY;
+    }
+
+    static MuscleGroupOutline read(PDDocument document, PdfLineClassifier lineClassifier) throws IOException {
+        PDDocumentOutline outline = document.getDocumentCatalog().getDocumentOutline();
+        if (outline == null) {
+            return EMPTY;
+        }
+
+        List<Section> sections = new ArrayList<>();
+        collectSections(document, outline, lineClassifier, sections);
+        if (sections.isEmpty()) {
+            return EMPTY;
+        }
+
+        sections.sort(Comparator.comparingInt(Section::startPage));
+        log.debug("Document outline has {} muscle group sections", sections.size());
+        return new MuscleGroupOutline(List.copyOf(sections));
+    }
+
+    private static void collectSections(PDDocument document, PDOutlineNode node,
+                                        PdfLineClassifier lineClassifier, List<Section> sections) throws IOException {
+        for (PDOutlineItem item : node.children()) {
+            String title = item.getTitle();
+            String muscleGroup = title != null
+                    ? lineClassifier.muscleGroupHeader(ExerciseNameNormalizer.cleanName(title)) : null;
+
+            if (muscleGroup != null) {
+                PDPage page = item.findDestinationPage(document);
+                int pageIndex = page != null ? document.getPages().indexOf(page) : -1;
+                if (pageIndex >= 0) {
+                    sections.add(new Section(muscleGroup, pageIndex + 1));
+                }
+            }
+
+            collectSections(document, item, lineClassifier, sections);
+        }
+    }
+
+    boolean isEmpty() {
+        return sections.isEmpty();
+    }
+
+    boolean hasSectionsFor(Set<String> muscleGroups) {
+        Set<String> outlined = new HashSet<>();
+        sections.forEach(section -> outlined.add(section.muscleGroup()));
+        return outlined.containsAll(muscleGroups);
+    }
+
+    List<Section> getSections() {
+        return sections;
+    }
+
+    /**
+     * The muscle group in effect at the top of the given page, i.e. that of the last section
+     * starting on an earlier page, or null if there is none.
+     */
+    String muscleGroupBefore(int page) {
+        String muscleGroup = null;
+        for (Section section : sections) {
+            if (section.startPage() >= page) {
+                break;
+            }
+            muscleGroup = section.muscleGroup();
+        }
+        return muscleGroup;
+    }
+
+    /**
+     * Merged page ranges, clipped to {@code [firstPage, lastPage]}, that cover every section of
+     * the given muscle groups.
+     */
+    List<PageRange> pageRanges(Set<String> muscleGroups, int firstPage, int lastPage) {
+        List<PageRange> ranges = new ArrayList<>();
+
+        for (int i = 0; i < sections.size(); i++) {
+            Section section = sections.get(i);
+            if (!muscleGroups.contains(section.muscleGroup())) {
+                continue;
+            }
+
+            int start = Math.max(firstPage, section.startPage());
+            int end = Math.min(lastPage, i + 1 < sections.size() ? sections.get(i + 1).startPage() : lastPage);
+            if (start > end) {
+                continue;
+            }
+
+            PageRange previous = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (previous != null && start <= previous.endPage() + 1) {
+                ranges.set(ranges.size() - 1,
+                        new PageRange(previous.startPage(), Math.max(previous.endPage(), end)));
+            } else {
+                ranges.add(new PageRange(start, end));
+            }
+        }
+
+        return ranges;
+    }
+
+    /**
+     * Splits {@code [firstPage, lastPage]} into ranges of roughly {@code pagesPerRange} pages
+     * that start where a section starts whenever possible, so that few ranges begin inside a
+     * section.
+     */
+    List<PageRange> splitAtSections(int firstPage, int lastPage, int pagesPerRange) {
+        List<PageRange> ranges = new ArrayList<>();
+        if (sections.isEmpty()) {
+            addFixedSizeRanges(ranges, firstPage, lastPage, pagesPerRange);
+            return ranges;
+        }
+
+        // Sections much longer than a range are still split, so that no single range dominates
+        int maxPages = 2 * pagesPerRange;
+        int rangeStart = firstPage;
+
+        for (Section section : sections) {
+            int sectionStart = section.startPage();
+            if (sectionStart <= rangeStart || sectionStart > lastPage) {
+                continue;
+            }
+            if (sectionStart - rangeStart >= pagesPerRange) {
+                addFixedSizeRanges(ranges, rangeStart, sectionStart - 1, maxPages);
+                rangeStart = sectionStart;
+            }
+        }
+        addFixedSizeRanges(ranges, rangeStart, lastPage, maxPages);
+
+        return ranges;
+    }
+
+    private static void addFixedSizeRanges(List<PageRange> ranges, int startPage, int endPage, int maxPages) {
+        for (int start = startPage; start <= endPage; start += maxPages) {
+            ranges.add(new PageRange(start, Math.min(endPage, start + maxPages - 1)));
+        }
+    }
+}
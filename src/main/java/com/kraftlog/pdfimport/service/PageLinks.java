@@ -0,0 +1,73 @@
+package com.kraftlog.pdfimport.service;
+
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.interactive.action.PDActionURI;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotation;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationLink;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The URI link annotations of one page, with their areas in PDF user space.
+ */
+final class PageLinks {
+
+    static final PageLinks NONE = new PageLinks(List.of());
+
+    private record Link(float lowerLeftX, float lowerLeftY, float upperRightX, float upperRightY, String uri) {
+    }
+
+    private final List<Link> links;
+
+    private PageLinks(List<Link> links) {
+        this.links = links;
+    }
+
+    static PageLinks read(PDPage page) throws IOException {
+        List<Link> links = new ArrayList<>();
+        for (PDAnnotation annotation : page.getAnnotations()) {
+            if (annotation instanceof PDAnnotationLink link
+                    && link.getAction() instanceof PDActionURI action
+                    && action.getURI() != null
+                    && link.getRectangle() != null) {
+                PDRectangle area = link.getRectangle();
+                links.add(new Link(area.getLowerLeftX(), area.getLowerLeftY(),
+                        area.getUpperRightX(), area.getUpperRightY(), action.getURI()));
+            }
+        }
+        return links.isEmpty() ? NONE : new PageLinks(links);
+    }
+
+    boolean isEmpty() {
+        return links.isEmpty();
+    }
+
+    /**
+     * URI of the link whose area contains the point, or null.
+     */
+    String uriAt(float x, float y) {
+        for (Link link : links) {
+            if (y >= link.lowerLeftY() && y <= link.upperRightY()
+                    && x >= link.lowerLeftX() && x <= link.upperRightX()) {
+                return link.uri();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * URI of the first link on the same row as the given height, wherever it is on that row,
+     * or null.
+     */
+    String uriOnRow(float y) {
+        for (Link link : links) {
+            if (y >= link.lowerLeftY() && y <= link.upperRightY()) {
+                return link.uri();
+            }
+        }
+        return null;
+    }
+}
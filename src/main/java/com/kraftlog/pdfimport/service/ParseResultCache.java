@@ -0,0 +1,315 @@
+package com.kraftlog.pdfimport.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kraftlog.pdfimport.config.ConfigDigest;
+import com.kraftlog.pdfimport.config.MuscleGroupMappingConfig;
+import com.kraftlog.pdfimport.config.ParseCacheProperties;
+import com.kraftlog.pdfimport.config.PdfLineRulesConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed cache of parse results, so that uploading the same PDF or XLSX file again
+ * skips PDFBox and POI entirely.
+ *
+ * <p>Entries are keyed by the SHA-256 of the upload bytes plus a SHA-256 of the loaded muscle
+ * group mapping, the PDF line rules and the parse options, so editing either configuration file
+ * never serves a stale result. Results are held as serialized JSON in a size-bounded LRU map; each hit is
+ * deserialized into fresh objects, so callers can never modify a cached entry. An optional
+ * on-disk tier keeps entries across restarts.
+ */
+@Component
+@Slf4j
+public class ParseResultCache {
+
+    private static final String DISK_ENTRY_SUFFIX = ".json";
+
+    private final ParseCacheProperties properties;
+    private final MuscleGroupMappingConfig muscleGroupConfig;
+    private final PdfLineRulesConfig lineRulesConfig;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ParseResultCache(ParseCacheProperties properties,
+                            MuscleGroupMappingConfig muscleGroupConfig,
+                            PdfLineRulesConfig lineRulesConfig) {
+        this.properties = properties;
+        this.muscleGroupConfig = muscleGroupConfig;
+        this.lineRulesConfig = lineRulesConfig;
+    }
+
+    /**
+     * A cache that never stores anything, for parsers constructed outside Spring.
+     */
+    public static ParseResultCache disabled() {
+        ParseCacheProperties properties = new ParseCacheProperties();
+        properties.setEnabled(false);
+        return new ParseResultCache(properties, new MuscleGroupMappingConfig(), new PdfLineRulesConfig());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Builds the cache key for content of the given kind ("pdf", "xlsx") with the given digest.
+     * Parse options that change the result must be passed as {@code variant}.
+     */
+    public String key(String kind, String contentDigest, String variant) {
+        // One digest over the configuration versions and the variant keeps keys short enough for file names
+        String configDigest = ConfigDigest.sha256(List.of(muscleGroupConfig.getMappingVersion(),
+                lineRulesConfig.getRulesVersion(), variant == null ? "" : variant));
+        return kind + "-" + contentDigest + "-" + configDigest;
+    }
+
+    public <T> Optional<T> get(String key, TypeReference<T> type) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+
+        byte[] json;
+        synchronized (entries) {
+            json = entries.get(key);
+        }
+
+        if (json != null) {
+            Optional<T> value = deserialize(key, json, type);
+            if (value.isPresent()) {
+                hits.incrementAndGet();
+                return value;
+            }
+        }
+
+        json = readFromDisk(key);
+        if (json != null) {
+            Optional<T> value = deserialize(key, json, type);
+            if (value.isPresent()) {
+                diskHits.incrementAndGet();
+                putInMemory(key, json);
+                return value;
+            }
+            deleteFromDisk(key);
+        }
+
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String key, Object value) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            log.warn("Could not serialize parse result for cache entry {}: {}", key, e.getMessage());
+            return;
+        }
+
+        putInMemory(key, json);
+        writeToDisk(key, json);
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            totalBytes = 0;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("entries", entries.size());
+            stats.put("bytes", totalBytes);
+        }
+        stats.put("hits", hits.get());
+        stats.put("diskHits", diskHits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    public static String sha256(File file) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            MessageDigest digest = newSha256();
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return toHex(digest.digest());
+        }
+    }
+
+    /**
+     * Copies the stream to the file, returning the SHA-256 of the bytes copied, so an upload is
+     * hashed without holding it in memory or reading it twice.
+     */
+    public static String copyAndHash(InputStream inputStream, Path file) throws IOException {
+        MessageDigest digest = newSha256();
+        // Not closed: the stream belongs to the caller
+        Files.copy(new DigestInputStream(inputStream, digest), file, StandardCopyOption.REPLACE_EXISTING);
+        return toHex(digest.digest());
+    }
+
+    public static String sha256(byte[] content) {
+        return toHex(newSha256().digest(content));
+    }
+
+    private void putInMemory(String key, byte[] json) {
+        synchronized (entries) {
+            byte[] previous = entries.put(key, json);
+            totalBytes += json.length - (previous != null ? previous.length : 0);
+
+            Iterator<byte[]> eldest = entries.values().iterator();
+            while (!entries.isEmpty()
+                    && (entries.size() > properties.getMaxEntries() || totalBytes > properties.getMaxBytes())) {
+                totalBytes -= eldest.next().length;
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private <T> Optional<T> deserialize(String key, byte[] json, TypeReference<T> type) {
+        try {
+            return Optional.of(objectMapper.readValue(json, type));
+        } catch (IOException e) {
+            log.warn("Discarding unreadable cache entry {}: {}", key, e.getMessage());
+            synchronized (entries) {
+                if (entries.remove(key) != null) {
+                    totalBytes -= json.length;
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    private byte[] readFromDisk(String key) {
+        Path entry = diskEntry(key);
+        if (entry == null || !Files.isRegularFile(entry)) {
+            return null;
+        }
+
+        try {
+            byte[] json = Files.readAllBytes(entry);
+            // Reads refresh the modification time, so the disk tier evicts least recently used
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return json;
+        } catch (IOException e) {
+            log.warn("Could not read cache entry {}: {}", entry, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, byte[] json) {
+        Path entry = diskEntry(key);
+        if (entry == null) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(entry.getParent());
+            Path tempFile = Files.createTempFile(entry.getParent(), key, ".tmp");
+            Files.write(tempFile, json);
+            try {
+                Files.move(tempFile, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+            evictFromDisk(entry.getParent());
+        } catch (IOException e) {
+            log.warn("Could not write cache entry {}: {}", entry, e.getMessage());
+        }
+    }
+
+    private void evictFromDisk(Path directory) throws IOException {
+        List<Path> diskEntries = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + DISK_ENTRY_SUFFIX)) {
+            stream.forEach(diskEntries::add);
+        }
+
+        int excess = diskEntries.size() - properties.getDisk().getMaxEntries();
+        if (excess <= 0) {
+            return;
+        }
+
+        Map<Path, Long> modified = new HashMap<>();
+        for (Path diskEntry : diskEntries) {
+            modified.put(diskEntry, diskEntry.toFile().lastModified());
+        }
+        diskEntries.sort(Comparator.comparing(modified::get));
+
+        for (int i = 0; i < excess; i++) {
+            Files.deleteIfExists(diskEntries.get(i));
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void deleteFromDisk(String key) {
+        Path entry = diskEntry(key);
+        if (entry != null) {
+            try {
+                Files.deleteIfExists(entry);
+            } catch (IOException e) {
+                log.warn("Could not delete cache entry {}: {}", entry, e.getMessage());
+            }
+        }
+    }
+
+    private Path diskEntry(String key) {
+        ParseCacheProperties.Disk disk = properties.getDisk();
+        if (!disk.isEnabled() || disk.getDirectory() == null || disk.getDirectory().isBlank()) {
+            return null;
+        }
+        return Path.of(disk.getDirectory(), key + DISK_ENTRY_SUFFIX);
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+}
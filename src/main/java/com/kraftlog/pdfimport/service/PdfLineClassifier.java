@@ -0,0 +1,187 @@
+package com.kraftlog.pdfimport.service;
+
+import com.kraftlog.pdfimport.config.MuscleGroupMappingConfig;
+import com.kraftlog.pdfimport.config.PdfLineRulesConfig;
+import com.kraftlog.pdfimport.text.AhoCorasickMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Classifies PDF text lines as muscle group headers, skipped lines, sub-headers or exercise
+ * candidates. All rules are compiled once from configuration: headers and sub-headers into
+ * upper-cased hash lookups and the skip phrases into a single Aho-Corasick automaton, so each
+ * line costs one upper-casing, one hash lookup and one pass over its characters.
+ */
+@Component
+public class PdfLineClassifier {
+
+    public enum LineType {
+        HEADER,
+        SKIP,
+        SUBHEADER,
+        EXERCISE
+    }
+
+    private final Map<String, String> headersByUpperCase = new HashMap<>();
+    private final Set<String> subHeaderEquals = new HashSet<>();
+    private final List<String> subHeaderContains = new ArrayList<>();
+    // Upper-casing never shortens a line, so longer lines cannot be headers or sub-headers
+    private final int maxUpperCaseLength;
+
+    private final AhoCorasickMatcher skipMatcher;
+    // Per pattern: which kinds of skip rule it takes part in, and its contains-all slot
+    private final boolean[] startsWithPattern;
+    private final boolean[] containsPattern;
+    private final long[] containsAllSlots;
+    // Per contains-all group: the bitmask of slots that must all be seen
+    private final long[] containsAllGroupMasks;
+
+    public PdfLineClassifier(MuscleGroupMappingConfig muscleGroupConfig, PdfLineRulesConfig lineRulesConfig) {
+        for (String header : muscleGroupConfig.getMuscleGroupHeaders()) {
+            headersByUpperCase.putIfAbsent(header.toUpperCase(), header);
+        }
+        for (String subHeader : lineRulesConfig.getSubHeaderEquals()) {
+            subHeaderEquals.add(subHeader.toUpperCase());
+        }
+        for (String subHeader : lineRulesConfig.getSubHeaderContains()) {
+            subHeaderContains.add(subHeader.toUpperCase());
+        }
+
+        int maxLength = -1;
+        for (String key : headersByUpperCase.keySet()) {
+            maxLength = Math.max(maxLength, key.length());
+        }
+        for (String key : subHeaderEquals) {
+            maxLength = Math.max(maxLength, key.length());
+        }
+        maxUpperCaseLength = maxLength;
+
+        Map<String, Integer> patternIndexes = new LinkedHashMap<>();
+        List<Integer> startsWith = new ArrayList<>();
+        List<Integer> contains = new ArrayList<>();
+        for (String phrase : lineRulesConfig.getSkipStartsWith()) {
+            startsWith.add(patternIndexes.computeIfAbsent(phrase, key -> patternIndexes.size()));
+        }
+        for (String phrase : lineRulesConfig.getSkipContains()) {
+            contains.add(patternIndexes.computeIfAbsent(phrase, key -> patternIndexes.size()));
+        }
+
+        List<List<Integer>> containsAllGroups = new ArrayList<>();
+        for (List<String> group : lineRulesConfig.getSkipContainsAll()) {
+            List<Integer> groupPatterns = new ArrayList<>();
+            for (String phrase : group) {
+                groupPatterns.add(patternIndexes.computeIfAbsent(phrase, key -> patternIndexes.size()));
+            }
+            containsAllGroups.add(groupPatterns);
+        }
+
+        int patternCount = patternIndexes.size();
+        skipMatcher = new AhoCorasickMatcher(new ArrayList<>(patternIndexes.keySet()));
+        startsWithPattern = new boolean[patternCount];
+        containsPattern = new boolean[patternCount];
+        containsAllSlots = new long[patternCount];
+        containsAllGroupMasks = new long[containsAllGroups.size()];
+
+        startsWith.forEach(index -> startsWithPattern[index] = true);
+        contains.forEach(index -> containsPattern[index] = true);
+
+        int slot = 0;
+        for (int group = 0; group < containsAllGroups.size(); group++) {
+            for (int patternIndex : containsAllGroups.get(group)) {
+                if (slot >= Long.SIZE) {
+                    throw new IllegalStateException("At most " + Long.SIZE + " contains-all phrases are supported");
+                }
+                containsAllSlots[patternIndex] |= 1L << slot;
+                containsAllGroupMasks[group] |= 1L << slot;
+                slot++;
+            }
+        }
+    }
+
+    /**
+     * Classifies a trimmed, non-empty line. Lines classified as {@link LineType#EXERCISE} may
+     * still turn out to be sub-headers once their name is extracted, see {@link #isSubHeader}.
+     */
+    public LineType classify(String line) {
+        String upperLine = null;
+        if (line.length() <= maxUpperCaseLength) {
+            upperLine = line.toUpperCase();
+            if (headersByUpperCase.containsKey(upperLine)) {
+                return LineType.HEADER;
+            }
+        }
+
+        if (matchesSkipRule(line)) {
+            return LineType.SKIP;
+        }
+
+        if (upperLine != null && subHeaderEquals.contains(upperLine)) {
+            return LineType.SUBHEADER;
+        }
+
+        return LineType.EXERCISE;
+    }
+
+    /**
+     * Returns the configured muscle group header for a line classified as
+     * {@link LineType#HEADER}, or null.
+     */
+    public String muscleGroupHeader(String line) {
+        if (line.length() > maxUpperCaseLength) {
+            return null;
+        }
+        return headersByUpperCase.get(line.toUpperCase());
+    }
+
+    public boolean isSubHeader(String exerciseName) {
+        String upper = exerciseName.toUpperCase();
+        if (subHeaderEquals.contains(upper)) {
+            return true;
+        }
+        for (String phrase : subHeaderContains) {
+            if (upper.contains(phrase)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesSkipRule(String line) {
+        if (skipMatcher.patternCount() == 0) {
+            return false;
+        }
+
+        int state = AhoCorasickMatcher.ROOT;
+        long seenSlots = 0;
+
+        for (int i = 0; i < line.length(); i++) {
+            state = skipMatcher.next(state, line.charAt(i));
+
+            for (int patternIndex : skipMatcher.outputs(state)) {
+                if (containsPattern[patternIndex]) {
+                    return true;
+                }
+                if (startsWithPattern[patternIndex] && i + 1 == skipMatcher.patternLength(patternIndex)) {
+                    return true;
+                }
+                if (containsAllSlots[patternIndex] != 0) {
+                    seenSlots |= containsAllSlots[patternIndex];
+                    for (long groupMask : containsAllGroupMasks) {
+                        if ((seenSlots & groupMask) == groupMask) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,36 @@
+package com.kraftlog.pdfimport.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Extracts the text lines of a page range, in content order, one line at a time.
+ * Implementations are not thread-safe; use one instance per extraction.
+ */
+interface PdfLineExtractor {
+
+    @FunctionalInterface
+    interface LineHandler {
+        /**
+         * @param linkUrl URI of the link annotation on this line's row, or null if there is none
+         */
+        void acceptLine(String line, String linkUrl);
+    }
+
+    void setStartPage(int startPage);
+
+    void setEndPage(int endPage);
+
+    /**
+     * Makes the current page the last one extracted; later pages are not decoded.
+     */
+    void stopAfterCurrentPage();
+
+    void stripLinesWithLinks(PDDocument document, LineHandler lineHandler) throws IOException;
+
+    default void stripLines(PDDocument document, Consumer<String> lineConsumer) throws IOException {
+        stripLinesWithLinks(document, (line, linkUrl) -> lineConsumer.accept(line));
+    }
+}
@@ -1,176 +1,392 @@
 package com.kraftlog.pdfimport.service;
 
-import com.kraftlog.pdfimport.config.MuscleGroupMappingConfig;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.kraftlog.pdfimport.config.PdfParserProperties;
 import com.kraftlog.pdfimport.dto.ParsedExerciseData;
+import com.kraftlog.pdfimport.dto.PdfParseOptions;
+import com.kraftlog.pdfimport.service.MuscleGroupOutline.PageRange;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile;
+import org.apache.pdfbox.io.RandomAccessStreamCache.StreamCacheCreateFunction;
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PdfParserService {
 
-    private final MuscleGroupMappingConfig muscleGroupConfig;
+    private final PdfLineClassifier lineClassifier;
+    private final PdfParserProperties pdfProperties;
+    private final ParseResultCache parseCache;
 
-    private static final Pattern URL_PATTERN = Pattern.compile(
-            "https://(?:(?:www\\.)?youtube\\.com/watch\\?v=|youtu\\.be/)[A-Za-z0-9_-]+");
+    private static final TypeReference<List<ParsedExerciseData>> EXERCISE_LIST = new TypeReference<>() {};
 
+    private ForkJoinPool parallelPool;
+
+    /**
+     * Parses the whole document, or returns the cached result of an earlier upload with
+     * identical content without opening it.
+     */
     public List<ParsedExerciseData> parseExercisesFromPdf(File pdfFile) throws IOException {
-        log.info("Parsing exercises from PDF: {}", pdfFile.getName());
-        
+        String cacheKey = null;
+        if (parseCache.isEnabled()) {
+            cacheKey = parseCache.key("pdf", ParseResultCache.sha256(pdfFile), cacheVariant());
+            Optional<List<ParsedExerciseData>> cached = parseCache.get(cacheKey, EXERCISE_LIST);
+            if (cached.isPresent()) {
+                log.info("Using cached parse result for PDF: {} ({} exercises)",
+                        pdfFile.getName(), cached.get().size());
+                return cached.get();
+            }
+        }
+
         List<ParsedExerciseData> exercises = new ArrayList<>();
-        
-        try (PDDocument document = Loader.loadPDF(pdfFile)) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            String text = stripper.getText(document);
-            
-            exercises = parseExercisesFromText(text);
-            
-            log.info("Successfully parsed {} exercises from PDF", exercises.size());
-        }
-        
+        parseExercisesFromPdf(pdfFile, exercises::add);
+
+        if (cacheKey != null) {
+            parseCache.put(cacheKey, exercises);
+        }
         return exercises;
     }
 
-    private List<ParsedExerciseData> parseExercisesFromText(String text) {
+    /**
+     * Parses only the pages and number of exercises selected by the options. Partial parses
+     * are not cached.
+     */
+    public List<ParsedExerciseData> parseExercisesFromPdf(File pdfFile, PdfParseOptions options) throws IOException {
+        if (options.isFullDocument()) {
+            return parseExercisesFromPdf(pdfFile);
+        }
+
         List<ParsedExerciseData> exercises = new ArrayList<>();
-        
-        String[] lines = text.split("\n");
-        String currentMuscleGroup = null;
-        
-        for (String line : lines) {
-            line = line.trim();
-            
-            // Skip empty lines
-            if (line.isEmpty()) {
-                continue;
+        parseExercisesFromPdf(pdfFile, options, exercises::add);
+        return exercises;
+    }
+
+    /**
+     * Streams exercises to the consumer in document order as each line is stripped, so peak
+     * memory depends on the size of a page rather than on the size of the document.
+     */
+    public void parseExercisesFromPdf(File pdfFile, Consumer<ParsedExerciseData> consumer) throws IOException {
+        parseExercisesFromPdf(pdfFile, PdfParseOptions.fullDocument(), consumer);
+    }
+
+    /**
+     * Streams the exercises selected by the options. PDFBox parses page content lazily, so
+     * pages outside the range are never decoded, and a limited parse stops stripping after the
+     * page on which the limit is reached. When the document outline has a bookmark for every
+     * selected muscle group, only the pages of those sections are parsed.
+     */
+    public void parseExercisesFromPdf(File pdfFile, PdfParseOptions options,
+                                      Consumer<ParsedExerciseData> consumer) throws IOException {
+        log.info("Parsing exercises from PDF: {}", pdfFile.getName());
+
+        int exerciseCount = 0;
+
+        try (PDDocument document = loadDocument(pdfFile)) {
+            int pageCount = document.getNumberOfPages();
+            int startPage = options.getStartPage() != null ? options.getStartPage() : 1;
+            int endPage = options.getEndPage() != null ? Math.min(options.getEndPage(), pageCount) : pageCount;
+            validateOptions(options, startPage, endPage, pageCount);
+            Set<String> muscleGroups = resolveMuscleGroups(options.getMuscleGroups());
+
+            MuscleGroupOutline outline = pdfProperties.getOutline().isEnabled()
+                    ? MuscleGroupOutline.read(document, lineClassifier)
+                    : MuscleGroupOutline.empty();
+
+            // Without a bookmark for every selected group, parse the whole range and filter
+            boolean outlineCoversSelection = muscleGroups != null && outline.hasSectionsFor(muscleGroups);
+            List<PageRange> pageRanges = outlineCoversSelection
+                    ? outline.pageRanges(muscleGroups, startPage, endPage)
+                    : List.of(new PageRange(startPage, endPage));
+
+            for (PageRange pageRange : pageRanges) {
+                Integer remaining = options.getLimit() != null ? options.getLimit() - exerciseCount : null;
+                if (remaining != null && remaining <= 0) {
+                    break;
+                }
+                exerciseCount += parsePages(pdfFile, document, outline, pageRange, muscleGroups, remaining, consumer);
             }
-            
-            // Check for muscle group header
-            String detectedMuscleGroup = detectMuscleGroup(line);
-            if (detectedMuscleGroup != null) {
-                currentMuscleGroup = detectedMuscleGroup;
-                log.debug("Found muscle group: {}", currentMuscleGroup);
-                continue;
+
+            log.info("Successfully parsed {} exercises from PDF", exerciseCount);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (parallelPool != null) {
+            parallelPool.shutdown();
+        }
+    }
+
+    /**
+     * Opens the document with the configured input and scratch strategy, so that large
+     * uploads are read off-heap and each document has a bounded heap footprint.
+     */
+    private PDDocument loadDocument(File pdfFile) throws IOException {
+        PdfParserProperties.Loading loading = pdfProperties.getLoading();
+        StreamCacheCreateFunction streamCache = createStreamCache(loading);
+
+        if (loading.getInput() == PdfParserProperties.InputMode.MEMORY_MAPPED) {
+            RandomAccessRead input = new RandomAccessReadMemoryMappedFile(pdfFile);
+            try {
+                return Loader.loadPDF(input, streamCache);
+            } catch (IOException e) {
+                IOUtils.closeQuietly(input);
+                throw e;
             }
-            
-            // Skip title, footer, and table headers
-            if (line.startsWith("Vídeos dos Exercícios") ||
-                line.contains("Alguns exercícios podem ter") ||
-                line.contains("portanto para não haver") ||
-                line.startsWith("Leandro Twin") ||
-                line.startsWith("CREF:") ||
-                line.startsWith("WhatsApp:") ||
-                line.startsWith("www.") ||
-                line.contains("Exercício") && line.contains("Execução em Vídeo") ||
-                line.startsWith("Técnicas Avançadas") ||
-                line.contains("Não encontrou o que queria") ||
-                line.contains("forma 100% original") ||
-                line.contains("Bi-set") ||
-                line.contains("Agonista x Antagonista") ||
-                line.contains("Alongamentos")) {
-                continue;
+        }
+
+        return Loader.loadPDF(pdfFile, streamCache);
+    }
+
+    private StreamCacheCreateFunction createStreamCache(PdfParserProperties.Loading loading) {
+        MemoryUsageSetting memoryUsage = switch (loading.getScratch()) {
+            case MEMORY -> MemoryUsageSetting.setupMainMemoryOnly();
+            case MIXED -> MemoryUsageSetting.setupMixed(loading.getMaxMainMemoryBytes());
+            case TEMP_FILE -> MemoryUsageSetting.setupTempFileOnly();
+        };
+
+        if (loading.getTempDir() != null && !loading.getTempDir().isBlank()) {
+            memoryUsage.setTempDir(new File(loading.getTempDir()));
+        }
+
+        return memoryUsage.streamCache;
+    }
+
+    private PdfLineExtractor newTextStripper() {
+        return newTextStripper(pdfProperties.getVideoUrlSource() == PdfParserProperties.VideoUrlSource.ANNOTATIONS);
+    }
+
+    private PdfLineExtractor newTextStripper(boolean readLinkAnnotations) {
+        return pdfProperties.getEngine() == PdfParserProperties.Engine.LIGHTWEIGHT
+                ? new LightweightTextExtractor(readLinkAnnotations)
+                : new ExerciseTextStripper(readLinkAnnotations);
+    }
+
+    /**
+     * Parse options that change the result, as part of the cache key.
+     */
+    private String cacheVariant() {
+        List<String> variant = new ArrayList<>();
+        if (pdfProperties.getVideoUrlSource() != PdfParserProperties.VideoUrlSource.TEXT) {
+            variant.add(pdfProperties.getVideoUrlSource().name().toLowerCase());
+        }
+        if (pdfProperties.getEngine() != PdfParserProperties.Engine.STRIPPER) {
+            variant.add(pdfProperties.getEngine().name().toLowerCase());
+        }
+        return variant.isEmpty() ? null : String.join("-", variant);
+    }
+
+    private int parsePages(File pdfFile, PDDocument document, MuscleGroupOutline outline, PageRange pageRange,
+                           Set<String> muscleGroups, Integer limit,
+                           Consumer<ParsedExerciseData> consumer) throws IOException {
+        int startPage = pageRange.startPage();
+        int endPage = pageRange.endPage();
+
+        // A range starting inside a section continues the last header before it
+        String muscleGroupBefore = null;
+        if (startPage > 1) {
+            muscleGroupBefore = outline.isEmpty()
+                    ? findMuscleGroupBefore(document, startPage)
+                    : outline.muscleGroupBefore(startPage);
+        }
+
+        if (limit == null && shouldParseInParallel(endPage - startPage + 1)) {
+            int pagesPerRange = Math.max(1, pdfProperties.getParallel().getPagesPerRange());
+            return parsePageRangesInParallel(pdfFile, outline.splitAtSections(startPage, endPage, pagesPerRange),
+                    muscleGroupBefore, muscleGroups, consumer);
+        }
+
+        ExerciseLineParser lineParser = new ExerciseLineParser(lineClassifier, consumer, false);
+        lineParser.continueMuscleGroup(muscleGroupBefore);
+        lineParser.setMuscleGroupFilter(muscleGroups);
+        if (limit != null) {
+            lineParser.setLimit(limit);
+        }
+
+        PdfLineExtractor stripper = newTextStripper();
+        stripper.setStartPage(startPage);
+        stripper.setEndPage(endPage);
+        stripper.stripLinesWithLinks(document, (line, linkUrl) -> {
+            lineParser.acceptLine(line, linkUrl);
+            if (lineParser.isLimitReached()) {
+                stripper.stopAfterCurrentPage();
             }
-            
-            // If we have a current muscle group, try to parse exercise from this line
-            if (currentMuscleGroup != null) {
-                ParsedExerciseData exercise = parseExerciseLine(line, currentMuscleGroup);
-                if (exercise != null) {
-                    exercises.add(exercise);
-                    log.debug("Parsed exercise: {} | Group: {} | URL: {}", 
-                            exercise.getName(), exercise.getMuscleGroupPortuguese(), exercise.getVideoUrl());
-                }
+        });
+
+        return lineParser.getExerciseCount();
+    }
+
+    /**
+     * Maps requested muscle group names to the configured headers, ignoring case.
+     */
+    private Set<String> resolveMuscleGroups(Set<String> requested) {
+        if (requested == null || requested.isEmpty()) {
+            return null;
+        }
+
+        Set<String> muscleGroups = new HashSet<>();
+        for (String name : requested) {
+            String header = name != null ? lineClassifier.muscleGroupHeader(name.trim()) : null;
+            if (header == null) {
+                throw new InvalidPdfParseOptionsException("Unknown muscle group: " + name);
             }
+            muscleGroups.add(header);
         }
-        
-        return exercises;
+        return muscleGroups;
     }
-    
-    private ParsedExerciseData parseExerciseLine(String line, String muscleGroup) {
-        // Extract URL if present
-        Matcher urlMatcher = URL_PATTERN.matcher(line);
-        String videoUrl = null;
-        String exerciseName = line;
-        
-        if (urlMatcher.find()) {
-            videoUrl = urlMatcher.group();
-            // Remove URL from line to get exercise name
-            exerciseName = line.substring(0, urlMatcher.start()).trim();
-        }
-        
-        // Clean up exercise name
-        exerciseName = cleanExerciseName(exerciseName);
-        
-        // Validate exercise name
-        if (exerciseName.isEmpty() || exerciseName.length() < 3) {
-            return null;
+
+    private void validateOptions(PdfParseOptions options, int startPage, int endPage, int pageCount) {
+        if (startPage < 1 || startPage > pageCount) {
+            throw new InvalidPdfParseOptionsException(
+                    "Start page " + startPage + " is outside the document (1-" + pageCount + ")");
         }
-        
-        // Skip lines that look like sub-headers or non-exercise text
-        if (isSubHeader(exerciseName)) {
-            return null;
+        if (endPage < startPage) {
+            throw new InvalidPdfParseOptionsException("End page " + endPage + " is before start page " + startPage);
+        }
+        if (options.getLimit() != null && options.getLimit() < 1) {
+            throw new InvalidPdfParseOptionsException("Limit must be at least 1");
+        }
+    }
+
+    private String findMuscleGroupBefore(PDDocument document, int startPage) throws IOException {
+        AtomicReference<String> lastHeader = new AtomicReference<>();
+
+        for (int page = startPage - 1; page >= 1 && lastHeader.get() == null; page--) {
+            PdfLineExtractor stripper = newTextStripper(false);
+            stripper.setStartPage(page);
+            stripper.setEndPage(page);
+            stripper.stripLines(document, line -> {
+                String header = lineClassifier.muscleGroupHeader(line.trim());
+                if (header != null) {
+                    lastHeader.set(header);
+                }
+            });
         }
-        
-        return ParsedExerciseData.builder()
-                .name(exerciseName)
-                .videoUrl(videoUrl)
-                .muscleGroupPortuguese(muscleGroup)
-                .build();
-    }
-    
-    private boolean isSubHeader(String text) {
-        String upper = text.toUpperCase();
-        // Check if this is a sub-muscle-group header rather than an exercise
-        return upper.equals("DELTÓIDES") ||
-               upper.equals("TRAPÉZIO") ||
-               upper.equals("ANTEBRAÇO") ||
-               upper.equals("COXAS") ||
-               upper.equals("PESCOÇO") ||
-               upper.equals("POSTERIOR DE COXA") ||
-               upper.equals("QUADRÍCEPS") ||
-               upper.contains("TÉCNICAS AVANÇADAS");
-    }
-
-    private String detectMuscleGroup(String line) {
-        String upperLine = line.toUpperCase();
-        
-        Set<String> configuredHeaders = muscleGroupConfig.getMuscleGroupHeaders();
-        
-        for (String header : configuredHeaders) {
-            // Exact match for single-word muscle groups
-            if (upperLine.equals(header.toUpperCase())) {
-                return header;
+
+        return lastHeader.get();
+    }
+
+    private boolean shouldParseInParallel(int pageCount) {
+        PdfParserProperties.Parallel parallel = pdfProperties.getParallel();
+        return parallel.isEnabled()
+                && parallel.getParallelism() > 1
+                && pageCount >= parallel.getMinPages()
+                && pageCount > parallel.getPagesPerRange();
+    }
+
+    /**
+     * Strips and parses fixed-size page ranges concurrently, each on its own PDDocument
+     * instance (PDFBox documents are not safe for concurrent access), and emits the results
+     * in page order as soon as each range and all ranges before it are done.
+     */
+    private int parsePageRangesInParallel(File pdfFile, List<PageRange> pageRanges, String muscleGroupBefore,
+                                          Set<String> muscleGroups,
+                                          Consumer<ParsedExerciseData> consumer) throws IOException {
+        log.debug("Parsing pages {}-{} in {} ranges", pageRanges.get(0).startPage(),
+                pageRanges.get(pageRanges.size() - 1).endPage(), pageRanges.size());
+
+        List<Future<PageRangeResult>> futures = new ArrayList<>(pageRanges.size());
+        ForkJoinPool pool = getParallelPool();
+        for (PageRange pageRange : pageRanges) {
+            Callable<PageRangeResult> task = () -> parsePageRange(pdfFile, pageRange, muscleGroups);
+            futures.add(pool.submit(task));
+        }
+
+        int exerciseCount = 0;
+        String carriedMuscleGroup = muscleGroupBefore;
+
+        try {
+            for (Future<PageRangeResult> future : futures) {
+                PageRangeResult result = awaitPageRange(future);
+
+                // Exercises found before the first header of a range belong to whichever muscle
+                // group was active at the end of the previous range, as in a sequential pass
+                if (carriedMuscleGroup != null
+                        && (muscleGroups == null || muscleGroups.contains(carriedMuscleGroup))) {
+                    for (ParsedExerciseData exercise : result.leadingExercises()) {
+                        exercise.setMuscleGroupPortuguese(carriedMuscleGroup);
+                        consumer.accept(exercise);
+                        exerciseCount++;
+                    }
+                }
+                for (ParsedExerciseData exercise : result.exercises()) {
+                    consumer.accept(exercise);
+                    exerciseCount++;
+                }
+
+                if (result.lastMuscleGroup() != null) {
+                    carriedMuscleGroup = result.lastMuscleGroup();
+                }
+            }
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        return exerciseCount;
+    }
+
+    private PageRangeResult parsePageRange(File pdfFile, PageRange pageRange,
+                                           Set<String> muscleGroups) throws IOException {
+        try (PDDocument document = loadDocument(pdfFile)) {
+            List<ParsedExerciseData> exercises = new ArrayList<>();
+            ExerciseLineParser lineParser = new ExerciseLineParser(lineClassifier, exercises::add, true);
+            lineParser.setMuscleGroupFilter(muscleGroups);
+
+            PdfLineExtractor stripper = newTextStripper();
+            stripper.setStartPage(pageRange.startPage());
+            stripper.setEndPage(pageRange.endPage());
+            stripper.stripLinesWithLinks(document, (line, linkUrl) -> lineParser.acceptLine(line, linkUrl));
+
+            return new PageRangeResult(lineParser.getLeadingExercises(), exercises,
+                    lineParser.getCurrentMuscleGroup());
+        }
+    }
+
+    private PageRangeResult awaitPageRange(Future<PageRangeResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing PDF page ranges", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
             }
+            throw new IOException("Failed to parse PDF page range", e.getCause());
+        }
+    }
+
+    private synchronized ForkJoinPool getParallelPool() {
+        if (parallelPool == null) {
+            parallelPool = new ForkJoinPool(Math.max(1, pdfProperties.getParallel().getParallelism()));
         }
-        
-        return null;
-    }
-
-    private String cleanExerciseName(String name) {
-        // Remove extra whitespace
-        name = name.replaceAll("\\s+", " ").trim();
-        
-        // Remove leading numbers, dots, and dashes
-        name = name.replaceAll("^[\\d.\\-]+\\s*", "");
-        
-        // Remove pipes and tabs
-        name = name.replaceAll("[|\\t]+", " ");
-        
-        // Remove backslashes used in some exercise names
-        name = name.replace("\\", "/");
-        
-        return name.trim();
+        return parallelPool;
+    }
+
+    private record PageRangeResult(List<ParsedExerciseData> leadingExercises,
+                                   List<ParsedExerciseData> exercises,
+                                   String lastMuscleGroup) {
     }
 }
@@ -2,8 +2,9 @@ package com.kraftlog.pdfimport.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.kraftlog.pdfimport.client.KraftLogApiClient;
-import com.kraftlog.pdfimport.config.MuscleGroupMappingConfig;
+import com.kraftlog.pdfimport.config.ExerciseCatalogProperties;
 import com.kraftlog.pdfimport.dto.*;
+import com.kraftlog.pdfimport.text.ExerciseMatchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -20,16 +21,27 @@ public class RoutineImportService {
 
     private final XlsxParserService xlsxParserService;
     private final KraftLogApiClient kraftLogApiClient;
-    private final MuscleGroupMappingConfig muscleGroupMappingConfig;
+    private final MuscleGroupClassifier muscleGroupClassifier;
+    private final ExerciseCatalogMirror exerciseCatalog;
+    private final ExerciseCatalogProperties exerciseCatalogProperties;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
      * Parse routine from XLSX and generate JSON structure
      */
     public String generateRoutineJson(InputStream xlsxInputStream, String fileName) throws IOException {
+        return generateRoutineJson(xlsxInputStream, fileName, null);
+    }
+
+    /**
+     * Parse routine from XLSX with the given routine layout (null for the default) and generate
+     * JSON structure
+     */
+    public String generateRoutineJson(InputStream xlsxInputStream, String fileName, String layout)
+            throws IOException {
         log.info("Generating routine JSON from XLSX: {}", fileName);
         
-        ParsedRoutineData parsedRoutine = xlsxParserService.parseRoutineFromXlsx(xlsxInputStream, fileName);
+        ParsedRoutineData parsedRoutine = parseRoutine(xlsxInputStream, fileName, layout);
         
         // Build routine structure matching KraftLog API
         Map<String, Object> routine = new LinkedHashMap<>();
@@ -59,9 +71,9 @@ public class RoutineImportService {
                 
                 // Try to find exercise in API to get muscle group
                 try {
-                    List<ParsedExerciseData> apiExercises = kraftLogApiClient.searchExercises(exercise.getExerciseName());
-                    if (!apiExercises.isEmpty()) {
-                        ParsedExerciseData apiExercise = apiExercises.get(0);
+                    ExerciseMatchIndex.Match<ParsedExerciseData> match = findExercise(exercise.getExerciseName());
+                    if (match != null) {
+                        ParsedExerciseData apiExercise = match.value();
                         exerciseData.put("muscleGroup", apiExercise.getMuscleGroup());
                         log.debug("Found exercise '{}' with muscle group: {}", 
                                 exercise.getExerciseName(), apiExercise.getMuscleGroup());
@@ -103,10 +115,61 @@ public class RoutineImportService {
      */
     public RoutineImportResult importRoutineFromXlsx(InputStream xlsxInputStream, String fileName, String userId) 
             throws IOException {
+        return importRoutineFromXlsx(xlsxInputStream, fileName, userId, null);
+    }
+
+    /**
+     * Import routine from XLSX, laid out with the given routine layout (null for the default),
+     * to KraftLog API
+     */
+    public RoutineImportResult importRoutineFromXlsx(InputStream xlsxInputStream, String fileName, String userId,
+                                                     String layout) throws IOException {
         log.info("Starting routine import from XLSX: {} for user: {}", fileName, userId);
         
-        ParsedRoutineData parsedRoutine = xlsxParserService.parseRoutineFromXlsx(xlsxInputStream, fileName);
+        ParsedRoutineData parsedRoutine = parseRoutine(xlsxInputStream, fileName, layout);
+        return importParsedRoutine(parsedRoutine, userId);
+    }
+
+    /**
+     * Import one routine per sheet of the XLSX (only the given sheets, if any) to KraftLog API.
+     * The sheets are parsed in parallel; a routine that fails to import is reported in its
+     * result without stopping the others.
+     */
+    public List<RoutineImportResult> importRoutinesFromXlsx(InputStream xlsxInputStream, String fileName,
+                                                            String userId, String layout, List<String> sheets)
+            throws IOException {
+        log.info("Starting multi-sheet routine import from XLSX: {} for user: {}", fileName, userId);
+        
+        List<ParsedRoutineData> parsedRoutines =
+                xlsxParserService.parseRoutinesFromXlsx(xlsxInputStream, fileName, layout, sheets);
+        
+        List<RoutineImportResult> results = new ArrayList<>();
+        for (ParsedRoutineData parsedRoutine : parsedRoutines) {
+            try {
+                results.add(importParsedRoutine(parsedRoutine, userId));
+            } catch (IOException e) {
+                log.warn("Failed to import routine '{}': {}", parsedRoutine.getRoutineName(), e.getMessage());
+                int totalWorkouts = parsedRoutine.getWorkouts().size();
+                results.add(RoutineImportResult.builder()
+                        .routineName(parsedRoutine.getRoutineName())
+                        .totalWorkouts(totalWorkouts)
+                        .successfulWorkouts(0)
+                        .failedWorkouts(totalWorkouts)
+                        .totalExercises(0)
+                        .successfulExercises(0)
+                        .failedExercises(0)
+                        .errors(new ArrayList<>(List.of(e.getMessage())))
+                        .exerciseMatches(new ArrayList<>())
+                        .build());
+            }
+        }
         
+        log.info("Multi-sheet routine import completed. {} routines imported from {}", results.size(), fileName);
+        return results;
+    }
+
+    private RoutineImportResult importParsedRoutine(ParsedRoutineData parsedRoutine, String userId)
+            throws IOException {
         int totalWorkouts = parsedRoutine.getWorkouts().size();
         int successfulWorkouts = 0;
         int failedWorkouts = 0;
@@ -115,6 +178,7 @@ public class RoutineImportService {
         int failedExercises = 0;
         
         List<String> errors = new ArrayList<>();
+        Map<String, ExerciseMatch> exerciseMatches = new LinkedHashMap<>();
         
         // First, create or get the routine
         String routineId = createRoutine(parsedRoutine.getRoutineName(), userId);
@@ -141,20 +205,24 @@ public class RoutineImportService {
                     totalExercises++;
                     try {
                         // Find exercise in API
-                        List<ParsedExerciseData> apiExercises = 
-                                kraftLogApiClient.searchExercises(exercise.getExerciseName());
+                        ExerciseMatchIndex.Match<ParsedExerciseData> match = findExercise(exercise.getExerciseName());
                         
                         String exerciseId = null;
                         String muscleGroup = null;
                         
-                        if (!apiExercises.isEmpty()) {
-                            ParsedExerciseData apiExercise = apiExercises.get(0);
-                            exerciseId = apiExercise.getId();
-                            muscleGroup = apiExercise.getMuscleGroup();
+                        if (match != null) {
+                            exerciseId = match.value().getId();
+                            muscleGroup = match.value().getMuscleGroup();
+                            exerciseMatches.putIfAbsent(exercise.getExerciseName(), ExerciseMatch.builder()
+                                    .exerciseName(exercise.getExerciseName())
+                                    .matchedName(match.name())
+                                    .exerciseId(exerciseId)
+                                    .score(match.score())
+                                    .build());
                         } else {
                             // Create exercise if not found
                             log.debug("Exercise '{}' not found, creating it", exercise.getExerciseName());
-                            muscleGroup = determineMuscleGroup(exercise.getExerciseName());
+                            muscleGroup = muscleGroupClassifier.classify(exercise.getExerciseName());
                             exerciseId = createExercise(exercise.getExerciseName(), muscleGroup, userId);
                         }
                         
@@ -204,9 +272,17 @@ public class RoutineImportService {
                 .successfulExercises(successfulExercises)
                 .failedExercises(failedExercises)
                 .errors(errors)
+                .exerciseMatches(new ArrayList<>(exerciseMatches.values()))
                 .build();
     }
 
+    private ParsedRoutineData parseRoutine(InputStream xlsxInputStream, String fileName, String layout)
+            throws IOException {
+        return layout == null
+                ? xlsxParserService.parseRoutineFromXlsx(xlsxInputStream, fileName)
+                : xlsxParserService.parseRoutineFromXlsx(xlsxInputStream, fileName, layout);
+    }
+
     private String createRoutine(String routineName, String userId) {
         try {
             Map<String, Object> routineData = new LinkedHashMap<>();
@@ -243,6 +319,40 @@ public class RoutineImportService {
         }
     }
 
+    /**
+     * Looks the exercise up in the local catalog, falling back to an API search, of whose
+     * results the one with the most similar name is taken if it reaches
+     * {@code searchMinMatchScore}. Its score is kept in the match, so weak matches show up in the
+     * import result.
+     *
+     * @return the exercise and the similarity of its name, or null if the API doesn't know it
+     */
+    private ExerciseMatchIndex.Match<ParsedExerciseData> findExercise(String exerciseName)
+            throws IOException, InterruptedException {
+        Optional<ExerciseMatchIndex.Match<ParsedExerciseData>> cached = exerciseCatalog.match(exerciseName);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        ExerciseMatchIndex.Match<ParsedExerciseData> best = null;
+        for (ParsedExerciseData apiExercise : kraftLogApiClient.searchExercises(exerciseName)) {
+            double score = apiExercise.getName() != null
+                    ? ExerciseMatchIndex.similarity(exerciseName, apiExercise.getName())
+                    : 0;
+            if (best == null || score > best.score()) {
+                best = new ExerciseMatchIndex.Match<>(apiExercise, apiExercise.getName(), score);
+            }
+        }
+        if (best == null || best.score() < exerciseCatalogProperties.getSearchMinMatchScore()) {
+            return null;
+        }
+        if (best.score() < exerciseCatalogProperties.getMinMatchScore()) {
+            log.info("Using search result '{}' for exercise '{}' with similarity {}",
+                    best.name(), exerciseName, String.format("%.2f", best.score()));
+        }
+        return best;
+    }
+
     private String createExercise(String exerciseName, String muscleGroup, String userId) {
         try {
             ExerciseCreateRequest request = new ExerciseCreateRequest();
@@ -250,6 +360,7 @@ public class RoutineImportService {
             request.setMuscleGroup(muscleGroup);
             
             ParsedExerciseData created = kraftLogApiClient.createExercise(request);
+            exerciseCatalog.add(created);
             return created.getId();
         } catch (Exception e) {
             log.error("Failed to create exercise: {}", exerciseName, e);
@@ -282,18 +393,4 @@ public class RoutineImportService {
             return false;
         }
     }
-
-    private String determineMuscleGroup(String exerciseName) {
-        // Try to determine muscle group from exercise name using config mappings
-        Map<String, String> mappings = muscleGroupMappingConfig.getMuscleGroupMappings();
-        
-        for (Map.Entry<String, String> entry : mappings.entrySet()) {
-            if (exerciseName.toUpperCase().contains(entry.getKey().toUpperCase())) {
-                return entry.getValue();
-            }
-        }
-        
-        // Default to "Other" if no match found
-        return "Other";
-    }
 }
@@ -0,0 +1,29 @@
+package com.kraftlog.pdfimport.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * An XLSX workbook opened for reading selected cells of its sheets.
+ */
+interface SheetCellReader extends Closeable {
+
+    /**
+     * Sheet names in workbook order.
+     */
+    List<String> getSheetNames();
+
+    /**
+     * Fills {@code cells} with the values of the cells in its index, taken from the sheet at
+     * the given position. May be called from several threads at once, each with its own cells.
+     */
+    void readSheet(int sheetIndex, SheetCells cells) throws IOException;
+
+    /**
+     * How every reader writes a boolean cell.
+     */
+    static String booleanValue(boolean value) {
+        return value ? "true" : "false";
+    }
+}
@@ -0,0 +1,60 @@
+package com.kraftlog.pdfimport.service;
+
+import org.apache.poi.ss.util.CellAddress;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The text values of the cells a routine layout reads from one sheet, stored against the
+ * layout's sorted cell index. Readers offer every cell they come across; cells outside the
+ * index are ignored and read as null.
+ */
+class SheetCells {
+
+    private final CellAddress[] addresses;
+    private final String[] values;
+
+    /**
+     * @param addresses the cells to keep, sorted in row-major order; not copied
+     */
+    SheetCells(CellAddress[] addresses) {
+        this.addresses = addresses;
+        this.values = new String[addresses.length];
+    }
+
+    /**
+     * The cells to read, in row-major order, i.e. the order of a sequential sheet scan.
+     */
+    List<CellAddress> addresses() {
+        return Arrays.asList(addresses);
+    }
+
+    /**
+     * Row of the last cell to read, or -1 if there are none.
+     */
+    int lastRow() {
+        return addresses.length == 0 ? -1 : addresses[addresses.length - 1].getRow();
+    }
+
+    boolean contains(CellAddress address) {
+        return Arrays.binarySearch(addresses, address) >= 0;
+    }
+
+    /**
+     * @return whether the cell is in the index
+     */
+    boolean put(CellAddress address, String value) {
+        int index = Arrays.binarySearch(addresses, address);
+        if (index < 0) {
+            return false;
+        }
+        values[index] = value;
+        return true;
+    }
+
+    String get(int row, int column) {
+        int index = Arrays.binarySearch(addresses, new CellAddress(row, column));
+        return index < 0 ? null : values[index];
+    }
+}
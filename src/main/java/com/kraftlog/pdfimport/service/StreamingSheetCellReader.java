@@ -0,0 +1,254 @@
+package com.kraftlog.pdfimport.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePartName;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellAddress;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads sheets with POI's event model: the file is opened read-only as a zip with random
+ * access, and each sheet's XML is parsed as a SAX stream. Only the cells in the layout's index
+ * are kept, and parsing stops after the last row it uses, so cost depends on where the workout
+ * blocks are rather than on the size of the workbook.
+ *
+ * <p>Shared strings and styles are loaded once and shared by all sheets; sheets can be read
+ * concurrently, as the zip entries are read with positional reads.
+ *
+ * <p>Cell values are the same as {@link DomSheetCellReader}'s: numbers are truncated to
+ * integers, booleans are {@code "true"} or {@code "false"}, and formula cells yield the result
+ * stored with them. Excel always stores formula
+ * results, but workbooks written by other tools may not; for those cells only, the workbook is
+ * loaded into a {@link DomSheetCellReader} on first need, which evaluates them.
+ */
+@Slf4j
+class StreamingSheetCellReader implements SheetCellReader {
+
+    private final OPCPackage xlsxPackage;
+    private final List<String> sheetNames = new ArrayList<>();
+    private final List<PackagePartName> sheetParts = new ArrayList<>();
+    private ReadOnlySharedStringsTable sharedStrings;
+    private StylesTable styles;
+    private DomSheetCellReader formulaWorkbook;
+
+    StreamingSheetCellReader(File file) throws IOException {
+        try {
+            xlsxPackage = OPCPackage.open(file, PackageAccess.READ);
+        } catch (OpenXML4JException e) {
+            throw new IOException("Not a valid XLSX package", e);
+        }
+
+        try {
+            XSSFReader reader = new XSSFReader(xlsxPackage);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                sheets.next().close();
+                sheetNames.add(sheets.getSheetName());
+                sheetParts.add(sheets.getSheetPart().getPartName());
+            }
+        } catch (OpenXML4JException e) {
+            xlsxPackage.revert();
+            throw new IOException("Could not read workbook: " + e.getMessage(), e);
+        } catch (IOException | RuntimeException e) {
+            xlsxPackage.revert();
+            throw e;
+        }
+    }
+
+    @Override
+    public List<String> getSheetNames() {
+        return sheetNames;
+    }
+
+    @Override
+    public void readSheet(int sheetIndex, SheetCells cells) throws IOException {
+        if (cells.lastRow() < 0) {
+            return;
+        }
+
+        FormulaTrackingHandler sheetHandler;
+        try {
+            XMLReader sheetParser = XMLHelper.newXMLReader();
+            sheetHandler = new FormulaTrackingHandler(getStyles(), getSharedStrings(), cells);
+            sheetParser.setContentHandler(sheetHandler);
+
+            try (InputStream sheet = xlsxPackage.getPart(sheetParts.get(sheetIndex)).getInputStream()) {
+                sheetParser.parse(new InputSource(sheet));
+            } catch (LastRowPassed e) {
+                log.debug("Stopped reading sheet {} after row {}", sheetNames.get(sheetIndex), cells.lastRow() + 1);
+            }
+        } catch (SAXException | ParserConfigurationException e) {
+            throw new IOException("Could not read sheet: " + e.getMessage(), e);
+        }
+
+        List<CellAddress> uncachedFormulas = sheetHandler.getUncachedFormulas();
+        if (!uncachedFormulas.isEmpty()) {
+            log.debug("Evaluating {} formulas without a stored result in sheet {}",
+                    uncachedFormulas.size(), sheetNames.get(sheetIndex));
+            getFormulaWorkbook().readCells(sheetIndex, uncachedFormulas, cells);
+        }
+    }
+
+    @Override
+    public void close() {
+        // Closing would try to save the package; a read-only package is reverted instead
+        xlsxPackage.revert();
+    }
+
+    private synchronized ReadOnlySharedStringsTable getSharedStrings() throws IOException, SAXException {
+        if (sharedStrings == null) {
+            sharedStrings = new ReadOnlySharedStringsTable(xlsxPackage, false);
+        }
+        return sharedStrings;
+    }
+
+    private synchronized StylesTable getStyles() throws IOException {
+        if (styles == null) {
+            try {
+                styles = new XSSFReader(xlsxPackage).getStylesTable();
+            } catch (OpenXML4JException e) {
+                throw new IOException("Could not read workbook styles: " + e.getMessage(), e);
+            }
+        }
+        return styles;
+    }
+
+    private synchronized DomSheetCellReader getFormulaWorkbook() throws IOException {
+        if (formulaWorkbook == null) {
+            formulaWorkbook = new DomSheetCellReader(xlsxPackage);
+        }
+        return formulaWorkbook;
+    }
+
+    /**
+     * Sheet handler that also notes the selected cells holding a formula without a stored
+     * result, which {@link XSSFSheetXMLHandler} skips, and writes booleans as the DOM reader
+     * does rather than as {@code "TRUE"}.
+     */
+    private static final class FormulaTrackingHandler extends XSSFSheetXMLHandler {
+        private final SheetCells cells;
+        private final List<CellAddress> uncachedFormulas = new ArrayList<>();
+        private String cellReference;
+        private boolean hasFormula;
+        private boolean hasValue;
+        private boolean isBoolean;
+
+        private FormulaTrackingHandler(StylesTable styles, ReadOnlySharedStringsTable sharedStrings,
+                                       SheetCells cells) {
+            super(styles, sharedStrings, new SelectedCellsHandler(cells), new IntegerDataFormatter(), false);
+            this.cells = cells;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+                throws SAXException {
+            super.startElement(uri, localName, qName, attributes);
+
+            switch (localName) {
+                case "c" -> {
+                    cellReference = attributes.getValue("r");
+                    hasFormula = false;
+                    hasValue = false;
+                    isBoolean = "b".equals(attributes.getValue("t"));
+                }
+                case "f" -> hasFormula = true;
+                case "v", "is" -> hasValue = true;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            super.endElement(uri, localName, qName);
+
+            if (!"c".equals(localName) || cellReference == null) {
+                return;
+            }
+            CellAddress address = new CellAddress(cellReference);
+            if (hasFormula && !hasValue && cells.contains(address)) {
+                uncachedFormulas.add(address);
+            }
+            if (isBoolean && hasValue) {
+                String value = cells.get(address.getRow(), address.getColumn());
+                if (value != null) {
+                    cells.put(address, SheetCellReader.booleanValue("TRUE".equals(value)));
+                }
+            }
+        }
+
+        private List<CellAddress> getUncachedFormulas() {
+            return uncachedFormulas;
+        }
+    }
+
+    private static final class SelectedCellsHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final SheetCells cells;
+        private final int lastRow;
+
+        private SelectedCellsHandler(SheetCells cells) {
+            this.cells = cells;
+            this.lastRow = cells.lastRow();
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            if (rowNum > lastRow) {
+                throw new LastRowPassed();
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            cells.put(new CellAddress(cellReference), formattedValue);
+        }
+    }
+
+    /**
+     * Formats every number as its integer part, as the DOM reader does.
+     */
+    private static final class IntegerDataFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            return String.valueOf((int) value);
+        }
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString,
+                                            boolean use1904Windowing) {
+            return String.valueOf((int) value);
+        }
+    }
+
+    /**
+     * Ends the SAX parse once the rows of interest are behind us.
+     */
+    private static final class LastRowPassed extends RuntimeException {
+        private LastRowPassed() {
+            super(null, null, false, false);
+        }
+    }
+}
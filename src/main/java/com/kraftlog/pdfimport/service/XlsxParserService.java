@@ -1,64 +1,277 @@
 package com.kraftlog.pdfimport.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.kraftlog.pdfimport.config.ConfigDigest;
+import com.kraftlog.pdfimport.config.RoutineLayoutConfig;
+import com.kraftlog.pdfimport.config.XlsxParserProperties;
 import com.kraftlog.pdfimport.dto.ParsedRoutineData;
 import com.kraftlog.pdfimport.dto.ParsedWorkoutData;
 import com.kraftlog.pdfimport.dto.ParsedWorkoutExerciseData;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.stereotype.Service;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class XlsxParserService {
 
     private static final Pattern REST_PATTERN = Pattern.compile("(\\d+)\\s*a\\s*(\\d+)\\s*minutos?");
     private static final Pattern SETS_REPS_PATTERN = Pattern.compile("(\\d+)\\s*[xX]\\s*(\\d+)");
+    private static final TypeReference<List<ParsedRoutineData>> ROUTINES = new TypeReference<>() {};
+
+    private final ParseResultCache parseCache;
+    private final XlsxParserProperties xlsxProperties;
+    private final RoutineLayoutConfig layoutConfig;
+    private final Map<String, CompiledRoutineLayout> compiledLayouts = new ConcurrentHashMap<>();
+
+    private ForkJoinPool parallelPool;
 
     public ParsedRoutineData parseRoutineFromXlsx(InputStream inputStream, String fileName) throws IOException {
+        return parseRoutineFromXlsx(inputStream, fileName, null);
+    }
+
+    /**
+     * Parses the routine on the first sheet.
+     *
+     * @param layoutName routine layout from the layout configuration, or null for the default
+     * @throws IllegalArgumentException if there is no layout with that name
+     */
+    public ParsedRoutineData parseRoutineFromXlsx(InputStream inputStream, String fileName, String layoutName)
+            throws IOException {
+        return parse(inputStream, fileName, layoutName, true, null).get(0);
+    }
+
+    /**
+     * Parses one routine per sheet, for workbooks such as multi-week programs. Sheets are
+     * parsed in parallel and returned in workbook order; each routine is named after the file
+     * and its sheet.
+     *
+     * @param layoutName routine layout from the layout configuration, or null for the default
+     * @param sheetNames sheets to parse, or null or empty for all sheets
+     * @throws IllegalArgumentException if there is no layout with that name or no sheet with
+     *                                  one of the given names
+     */
+    public List<ParsedRoutineData> parseRoutinesFromXlsx(InputStream inputStream, String fileName,
+                                                         String layoutName, List<String> sheetNames)
+            throws IOException {
+        return parse(inputStream, fileName, layoutName, false,
+                sheetNames == null || sheetNames.isEmpty() ? null : sheetNames);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (parallelPool != null) {
+            parallelPool.shutdown();
+        }
+    }
+
+    private List<ParsedRoutineData> parse(InputStream inputStream, String fileName, String layoutName,
+                                          boolean firstSheetOnly, List<String> sheetNames) throws IOException {
+        String resolvedName = layoutConfig.resolveLayoutName(layoutName);
+        RoutineLayoutConfig.Layout layout = layoutConfig.getLayout(resolvedName);
+        CompiledRoutineLayout compiledLayout =
+                compiledLayouts.computeIfAbsent(resolvedName, name -> CompiledRoutineLayout.compile(layout));
+
+        // Both readers open the package from a file, for random access to its parts
+        Path tempFile = Files.createTempFile("kraftlog-routine-", ".xlsx");
+        try {
+            if (!parseCache.isEnabled()) {
+                Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                return parseWorkbook(tempFile.toFile(), fileName, compiledLayout, firstSheetOnly, sheetNames);
+            }
+
+            // Hashed while spooled to disk, so the upload is never held in memory
+            String contentDigest = ParseResultCache.copyAndHash(inputStream, tempFile);
+            String variant = resolvedName + "-" + ConfigDigest.sha256(layout);
+            if (!firstSheetOnly) {
+                variant += "-sheets-" + (sheetNames == null ? "all" : ConfigDigest.sha256(sheetNames));
+            }
+            String cacheKey = parseCache.key("xlsx", contentDigest, variant);
+
+            Optional<List<ParsedRoutineData>> cached = parseCache.get(cacheKey, ROUTINES);
+            if (cached.isPresent()) {
+                log.info("Using cached parse result for XLSX: {}", fileName);
+                // Identical content may be uploaded under another name
+                List<ParsedRoutineData> routines = cached.get();
+                routines.forEach(routine ->
+                        routine.setRoutineName(routineName(fileName, firstSheetOnly ? null : routine.getSheetName())));
+                return routines;
+            }
+
+            List<ParsedRoutineData> routines =
+                    parseWorkbook(tempFile.toFile(), fileName, compiledLayout, firstSheetOnly, sheetNames);
+            parseCache.put(cacheKey, routines);
+            return routines;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private List<ParsedRoutineData> parseWorkbook(File file, String fileName,
+                                                  CompiledRoutineLayout layout, boolean firstSheetOnly,
+                                                  List<String> sheetNames) throws IOException {
         log.info("Parsing routine from XLSX: {}", fileName);
         
-        try (Workbook workbook = new XSSFWorkbook(inputStream)) {
-            Sheet sheet = workbook.getSheetAt(0);
+        try (SheetCellReader reader = openSheetCellReader(file, fileName)) {
+            List<Integer> sheets = selectSheets(reader.getSheetNames(), firstSheetOnly, sheetNames, fileName);
+            return parseSheets(reader, sheets, fileName, layout, firstSheetOnly);
+        }
+    }
+
+    private SheetCellReader openSheetCellReader(File file, String fileName) throws IOException {
+        try {
+            return xlsxProperties.getReader() == XlsxParserProperties.ReaderMode.DOM
+                    ? new DomSheetCellReader(file)
+                    : new StreamingSheetCellReader(file);
+        } catch (Exception e) {
+            log.error("Error parsing XLSX file: {}", fileName, e);
+            throw new IOException("Failed to parse XLSX file: " + fileName, e);
+        }
+    }
+
+    private List<Integer> selectSheets(List<String> available, boolean firstSheetOnly, List<String> sheetNames,
+                                       String fileName) throws IOException {
+        if (available.isEmpty()) {
+            throw new IOException("Failed to parse XLSX file: " + fileName + " has no sheets");
+        }
+        if (firstSheetOnly) {
+            return List.of(0);
+        }
+        if (sheetNames == null) {
+            return IntStream.range(0, available.size()).boxed().toList();
+        }
+
+        List<Integer> sheets = new ArrayList<>();
+        for (String sheetName : sheetNames) {
+            int index = available.indexOf(sheetName);
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown sheet: " + sheetName
+                        + " (available: " + String.join(", ", available) + ")");
+            }
+            if (!sheets.contains(index)) {
+                sheets.add(index);
+            }
+        }
+        sheets.sort(null);
+        return sheets;
+    }
+
+    private List<ParsedRoutineData> parseSheets(SheetCellReader reader, List<Integer> sheets, String fileName,
+                                                CompiledRoutineLayout layout, boolean firstSheetOnly)
+            throws IOException {
+        List<String> names = reader.getSheetNames();
+        
+        if (sheets.size() == 1 || xlsxProperties.getParallelism() <= 1) {
+            List<ParsedRoutineData> routines = new ArrayList<>();
+            for (int sheet : sheets) {
+                String routineName = routineName(fileName, firstSheetOnly ? null : names.get(sheet));
+                routines.add(parseSheet(reader, sheet, names.get(sheet), routineName, layout, fileName));
+            }
+            return routines;
+        }
+        
+        log.debug("Parsing {} sheets of {} in parallel", sheets.size(), fileName);
+        List<Future<ParsedRoutineData>> futures = new ArrayList<>(sheets.size());
+        ForkJoinPool pool = getParallelPool();
+        for (int sheet : sheets) {
+            String routineName = routineName(fileName, names.get(sheet));
+            Callable<ParsedRoutineData> task =
+                    () -> parseSheet(reader, sheet, names.get(sheet), routineName, layout, fileName);
+            futures.add(pool.submit(task));
+        }
+        
+        try {
+            List<ParsedRoutineData> routines = new ArrayList<>(futures.size());
+            for (Future<ParsedRoutineData> future : futures) {
+                routines.add(awaitSheet(future, fileName));
+            }
+            return routines;
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private ParsedRoutineData parseSheet(SheetCellReader reader, int sheet, String sheetName, String routineName,
+                                         CompiledRoutineLayout layout, String fileName) throws IOException {
+        try {
+            SheetCells cells = layout.newSheetCells();
+            reader.readSheet(sheet, cells);
             
             List<ParsedWorkoutData> workouts = new ArrayList<>();
-            
-            // Parse 5 workouts based on the structure described (using 0-based row indices)
-            // colOffset, nameRow, firstExerciseRow, lastExerciseRow (inclusive), restRow
-            workouts.add(parseWorkout(sheet, 1, 1, 3, 7, 15));   // Workout 1: B2 name, B4-B8 exercises, B16 rest
-            workouts.add(parseWorkout(sheet, 5, 1, 3, 9, 15));  // Workout 2: F2 name, F4-F10 exercises, F16 rest
-            workouts.add(parseWorkout(sheet, 9, 1, 3, 9, 15));  // Workout 3: J2 name, J4-J10 exercises, J16 rest
-            workouts.add(parseWorkout(sheet, 1, 17, 19, 24, 15)); // Workout 4: B18 name, B20-B25 exercises, B16 rest
-            workouts.add(parseWorkout(sheet, 5, 17, 19, 26, 15)); // Workout 5: F18 name, F20-F27 exercises, F16 rest
+            for (CompiledRoutineLayout.WorkoutBlock block : layout.getBlocks()) {
+                workouts.add(parseWorkout(cells, block));
+            }
             
             return ParsedRoutineData.builder()
-                    .routineName(fileName.replace(".xlsx", ""))
+                    .routineName(routineName)
+                    .sheetName(sheetName)
                     .workouts(workouts)
                     .build();
         } catch (Exception e) {
-            log.error("Error parsing XLSX file: {}", fileName, e);
+            log.error("Error parsing sheet '{}' of XLSX file: {}", sheetName, fileName, e);
             throw new IOException("Failed to parse XLSX file: " + fileName, e);
         }
     }
 
-    private ParsedWorkoutData parseWorkout(Sheet sheet, int colOffset, int nameRow, int firstExerciseRow, 
-                                           int lastExerciseRow, int restRow) {
+    private ParsedRoutineData awaitSheet(Future<ParsedRoutineData> future, String fileName) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing XLSX sheets", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to parse XLSX file: " + fileName, e.getCause());
+        }
+    }
+
+    private synchronized ForkJoinPool getParallelPool() {
+        if (parallelPool == null) {
+            parallelPool = new ForkJoinPool(Math.max(1, xlsxProperties.getParallelism()));
+        }
+        return parallelPool;
+    }
+
+    private static String routineName(String fileName, String sheetName) {
+        String baseName = fileName.replace(".xlsx", "");
+        return sheetName == null ? baseName : baseName + " - " + sheetName;
+    }
+
+    private ParsedWorkoutData parseWorkout(SheetCells cells, CompiledRoutineLayout.WorkoutBlock block) {
+        int exerciseColumn = block.exerciseColumn();
+        int firstExerciseRow = block.firstExerciseRow();
+        int lastExerciseRow = block.lastExerciseRow();
+        
         // Parse workout name
-        Row workoutNameRow = sheet.getRow(nameRow);
-        String workoutName = getCellValue(workoutNameRow, colOffset);
+        String workoutName = cells.get(block.name().getRow(), block.name().getColumn());
         
-        log.debug("Parsing workout: {} at column offset {} (rows {}-{})", workoutName, colOffset, firstExerciseRow, lastExerciseRow);
+        log.debug("Parsing workout: {} at column {} (rows {}-{})", workoutName, exerciseColumn, firstExerciseRow, lastExerciseRow);
         
         // Parse rest intervals
-        Row restIntervalRow = sheet.getRow(restRow);
-        String restInterval = getCellValue(restIntervalRow, colOffset);
+        String restInterval = block.rest() != null ? cells.get(block.rest().getRow(), block.rest().getColumn()) : null;
         Integer minRest = null;
         Integer maxRest = null;
         
@@ -74,18 +287,13 @@ public class XlsxParserService {
         List<ParsedWorkoutExerciseData> exercises = new ArrayList<>();
         
         for (int exerciseRow = firstExerciseRow; exerciseRow <= lastExerciseRow; exerciseRow++) {
-            Row row = sheet.getRow(exerciseRow);
-            if (row == null) {
-                continue;
-            }
-            
-            String exerciseName = getCellValue(row, colOffset);
+            String exerciseName = cells.get(exerciseRow, exerciseColumn);
             if (exerciseName == null || exerciseName.trim().isEmpty()) {
                 continue;
             }
             
-            String setsReps = getCellValue(row, colOffset + 1);
-            String advancedTechnique = getCellValue(row, colOffset + 2);
+            String setsReps = cells.get(exerciseRow, block.setsRepsColumn());
+            String advancedTechnique = cells.get(exerciseRow, block.techniqueColumn());
             
             Integer sets = null;
             Integer reps = null;
@@ -116,23 +324,4 @@ public class XlsxParserService {
                 .maxRestMinutes(maxRest)
                 .build();
     }
-
-    private String getCellValue(Row row, int cellIndex) {
-        if (row == null) {
-            return null;
-        }
-        
-        Cell cell = row.getCell(cellIndex);
-        if (cell == null) {
-            return null;
-        }
-        
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue();
-            case NUMERIC -> String.valueOf((int) cell.getNumericCellValue());
-            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-            case FORMULA -> cell.getCellFormula();
-            default -> null;
-        };
-    }
 }
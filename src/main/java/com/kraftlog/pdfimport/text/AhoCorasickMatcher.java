@@ -0,0 +1,157 @@
+package com.kraftlog.pdfimport.text;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Immutable Aho-Corasick automaton over a fixed set of patterns. Finds every occurrence of
+ * every pattern in a single left-to-right pass over the input, without allocating.
+ *
+ * <p>Callers drive the automaton one character at a time with {@link #next(int, char)}, which
+ * lets them fold or filter characters on the fly, and read the patterns ending at the current
+ * position from {@link #outputs(int)}. Instances are safe to share between threads.
+ */
+public final class AhoCorasickMatcher {
+
+    public static final int ROOT = 0;
+
+    private static final int[] NO_OUTPUTS = new int[0];
+
+    private final char[][] transitionChars;
+    private final int[][] transitionTargets;
+    private final int[] failure;
+    private final int[][] outputs;
+    private final int[] patternLengths;
+
+    public AhoCorasickMatcher(List<String> patterns) {
+        List<char[]> chars = new ArrayList<>();
+        List<int[]> targets = new ArrayList<>();
+        List<int[]> nodeOutputs = new ArrayList<>();
+        chars.add(new char[0]);
+        targets.add(new int[0]);
+        nodeOutputs.add(NO_OUTPUTS);
+
+        patternLengths = new int[patterns.size()];
+
+        for (int patternIndex = 0; patternIndex < patterns.size(); patternIndex++) {
+            String pattern = patterns.get(patternIndex);
+            if (pattern == null || pattern.isEmpty()) {
+                throw new IllegalArgumentException("Patterns must not be empty");
+            }
+            patternLengths[patternIndex] = pattern.length();
+
+            int state = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                int target = findTransition(chars.get(state), targets.get(state), c);
+                if (target < 0) {
+                    target = chars.size();
+                    chars.add(new char[0]);
+                    targets.add(new int[0]);
+                    nodeOutputs.add(NO_OUTPUTS);
+                    addTransition(chars, targets, state, c, target);
+                }
+                state = target;
+            }
+            nodeOutputs.set(state, append(nodeOutputs.get(state), patternIndex));
+        }
+
+        int nodeCount = chars.size();
+        transitionChars = chars.toArray(new char[0][]);
+        transitionTargets = targets.toArray(new int[0][]);
+        outputs = nodeOutputs.toArray(new int[0][]);
+        failure = new int[nodeCount];
+
+        // Breadth-first so that every failure target is complete before it is used
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : transitionTargets[ROOT]) {
+            failure[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            char[] stateChars = transitionChars[state];
+            int[] stateTargets = transitionTargets[state];
+
+            for (int i = 0; i < stateChars.length; i++) {
+                int child = stateTargets[i];
+                int fallback = next(failure[state], stateChars[i]);
+                failure[child] = fallback;
+                if (outputs[fallback].length > 0) {
+                    outputs[child] = concat(outputs[child], outputs[fallback]);
+                }
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Advances the automaton by one character.
+     */
+    public int next(int state, char c) {
+        while (true) {
+            int target = findTransition(transitionChars[state], transitionTargets[state], c);
+            if (target >= 0) {
+                return target;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = failure[state];
+        }
+    }
+
+    /**
+     * Indexes of the patterns that end at the character which led to {@code state}.
+     * The returned array must not be modified.
+     */
+    public int[] outputs(int state) {
+        return outputs[state];
+    }
+
+    public int patternLength(int patternIndex) {
+        return patternLengths[patternIndex];
+    }
+
+    public int patternCount() {
+        return patternLengths.length;
+    }
+
+    private static int findTransition(char[] stateChars, int[] stateTargets, char c) {
+        int index = Arrays.binarySearch(stateChars, c);
+        return index >= 0 ? stateTargets[index] : -1;
+    }
+
+    private static void addTransition(List<char[]> chars, List<int[]> targets, int state, char c, int target) {
+        char[] stateChars = chars.get(state);
+        int[] stateTargets = targets.get(state);
+        int insertAt = -(Arrays.binarySearch(stateChars, c) + 1);
+
+        char[] newChars = new char[stateChars.length + 1];
+        int[] newTargets = new int[stateTargets.length + 1];
+        System.arraycopy(stateChars, 0, newChars, 0, insertAt);
+        System.arraycopy(stateTargets, 0, newTargets, 0, insertAt);
+        newChars[insertAt] = c;
+        newTargets[insertAt] = target;
+        System.arraycopy(stateChars, insertAt, newChars, insertAt + 1, stateChars.length - insertAt);
+        System.arraycopy(stateTargets, insertAt, newTargets, insertAt + 1, stateTargets.length - insertAt);
+
+        chars.set(state, newChars);
+        targets.set(state, newTargets);
+    }
+
+    private static int[] append(int[] values, int value) {
+        int[] result = Arrays.copyOf(values, values.length + 1);
+        result[values.length] = value;
+        return result;
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        int[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
@@ -0,0 +1,233 @@
+package com.kraftlog.pdfimport.text;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Immutable index that finds the exercise whose name best matches a spreadsheet name, even
+ * when the two differ by accents, case, plural forms or abbreviations such as {@code c/}.
+ *
+ * <p>Names are reduced to a {@link #fuzzyKey}: the {@link ExerciseNameNormalizer#matchKey}
+ * with abbreviations expanded, connecting words dropped and plurals made singular. Equal keys
+ * match with score 1. Otherwise the character trigrams of the key are looked up in an inverted
+ * index, and candidates are scored with the Dice coefficient of their trigram sets, so a query
+ * only touches names that share at least one trigram with it. Instances are safe to share
+ * between threads.
+ *
+ * @param <T> the indexed values
+ */
+public final class ExerciseMatchIndex<T> {
+
+    /**
+     * The value chosen for a name, with the name it was indexed under and the similarity of the
+     * two, from 0 (nothing in common) to 1 (same key).
+     */
+    public record Match<T>(T value, String name, double score) {
+    }
+
+    private static final int[] NO_POSTINGS = new int[0];
+
+    /** Abbreviations used in spreadsheets, as left by matchKey ("c/" becomes "c") */
+    private static final Map<String, String> ABBREVIATIONS = Map.of(
+            "s", "sem",
+            "alt", "alternado",
+            "unil", "unilateral",
+            "inc", "inclinado",
+            "dec", "declinado");
+
+    /** Words that don't tell exercises apart: "Rosca c/ Barra" is "Rosca Barra" */
+    private static final Set<String> CONNECTORS = Set.of(
+            "c", "com", "p", "para", "de", "da", "do", "das", "dos", "na", "no", "nas", "nos", "em", "e", "a", "o");
+
+    /** Plural endings and their singular, longest first */
+    private static final String[][] PLURALS = {
+            {"oes", "ao"}, {"aes", "ao"}, {"ais", "al"}, {"eis", "el"}, {"ois", "ol"},
+            {"res", "r"}, {"zes", "z"}, {"ns", "m"}, {"s", ""}};
+
+    private static final int MIN_PLURAL_LENGTH = 4;
+
+    private final List<T> values;
+    private final String[] names;
+    private final int[] trigramCounts;
+    private final Map<String, Integer> byKey;
+    private final Map<String, int[]> postings;
+
+    private ExerciseMatchIndex(List<T> values, String[] names, int[] trigramCounts,
+                               Map<String, Integer> byKey, Map<String, int[]> postings) {
+        this.values = values;
+        this.names = names;
+        this.trigramCounts = trigramCounts;
+        this.byKey = byKey;
+        this.postings = postings;
+    }
+
+    /**
+     * Indexes values under their names. Values without a name are skipped; of values sharing a
+     * key, the first one wins.
+     */
+    public static <T> ExerciseMatchIndex<T> of(Collection<T> items, Function<T, String> nameOf) {
+        List<T> values = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<Integer> trigramCounts = new ArrayList<>();
+        Map<String, Integer> byKey = new HashMap<>();
+        Map<String, List<Integer>> postingLists = new HashMap<>();
+
+        for (T item : items) {
+            String name = nameOf.apply(item);
+            if (name == null) {
+                continue;
+            }
+            String key = fuzzyKey(name);
+            if (key.isEmpty() || byKey.containsKey(key)) {
+                continue;
+            }
+
+            int id = values.size();
+            values.add(item);
+            names.add(name);
+            byKey.put(key, id);
+            Set<String> trigrams = trigrams(key);
+            trigramCounts.add(trigrams.size());
+            for (String trigram : trigrams) {
+                postingLists.computeIfAbsent(trigram, t -> new ArrayList<>()).add(id);
+            }
+        }
+
+        Map<String, int[]> postings = new HashMap<>(postingLists.size() * 2);
+        postingLists.forEach((trigram, ids) -> postings.put(trigram, ids.stream().mapToInt(Integer::intValue).toArray()));
+
+        return new ExerciseMatchIndex<>(List.copyOf(values), names.toArray(new String[0]),
+                trigramCounts.stream().mapToInt(Integer::intValue).toArray(), byKey, postings);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * The indexed value most similar to the name, if its score is at least {@code minScore}.
+     * Ties go to the value indexed first.
+     */
+    public Optional<Match<T>> bestMatch(String name, double minScore) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        String key = fuzzyKey(name);
+        if (key.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Integer exact = byKey.get(key);
+        if (exact != null) {
+            return Optional.of(new Match<>(values.get(exact), names[exact], 1.0));
+        }
+
+        Set<String> trigrams = trigrams(key);
+        int[] shared = new int[values.size()];
+        int[] touched = new int[values.size()];
+        int touchedCount = 0;
+        for (String trigram : trigrams) {
+            for (int id : postings.getOrDefault(trigram, NO_POSTINGS)) {
+                if (shared[id]++ == 0) {
+                    touched[touchedCount++] = id;
+                }
+            }
+        }
+
+        int best = -1;
+        double bestScore = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int id = touched[i];
+            double score = dice(shared[id], trigrams.size(), trigramCounts[id]);
+            if (score > bestScore || (score == bestScore && id < best)) {
+                best = id;
+                bestScore = score;
+            }
+        }
+
+        return best >= 0 && bestScore >= minScore
+                ? Optional.of(new Match<>(values.get(best), names[best], bestScore))
+                : Optional.empty();
+    }
+
+    /**
+     * Similarity of two names, on the same scale as {@link Match#score()}.
+     */
+    public static double similarity(String a, String b) {
+        String keyA = fuzzyKey(a);
+        String keyB = fuzzyKey(b);
+        if (keyA.isEmpty() || keyB.isEmpty()) {
+            return 0;
+        }
+        if (keyA.equals(keyB)) {
+            return 1;
+        }
+
+        Set<String> trigramsA = trigrams(keyA);
+        Set<String> trigramsB = trigrams(keyB);
+        int shared = 0;
+        for (String trigram : trigramsA) {
+            if (trigramsB.contains(trigram)) {
+                shared++;
+            }
+        }
+        return dice(shared, trigramsA.size(), trigramsB.size());
+    }
+
+    /**
+     * Key under which names are matched, e.g. {@code "supino inclinado halter"} for both
+     * {@code "Supino Inclinado c/ Halteres"} and {@code "SUPINO INCLINADO HALTER"}.
+     */
+    public static String fuzzyKey(String name) {
+        String matchKey = ExerciseNameNormalizer.matchKeyOf(name);
+        StringBuilder key = new StringBuilder(matchKey.length());
+
+        for (String word : matchKey.split(" ")) {
+            word = ABBREVIATIONS.getOrDefault(word, word);
+            if (word.isEmpty() || CONNECTORS.contains(word)) {
+                continue;
+            }
+            if (key.length() > 0) {
+                key.append(' ');
+            }
+            key.append(singular(word));
+        }
+        return key.toString();
+    }
+
+    private static String singular(String word) {
+        if (word.length() < MIN_PLURAL_LENGTH) {
+            return word;
+        }
+        for (String[] plural : PLURALS) {
+            if (word.endsWith(plural[0])) {
+                return word.substring(0, word.length() - plural[0].length()) + plural[1];
+            }
+        }
+        return word;
+    }
+
+    /**
+     * Distinct trigrams of the key padded with a space on each side, so that the start and end
+     * of the name weigh as much as its middle.
+     */
+    private static Set<String> trigrams(String key) {
+        String padded = " " + key + " ";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static double dice(int shared, int countA, int countB) {
+        return 2.0 * shared / (countA + countB);
+    }
+}
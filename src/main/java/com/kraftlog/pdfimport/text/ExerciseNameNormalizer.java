@@ -0,0 +1,174 @@
+package com.kraftlog.pdfimport.text;
+
+import java.text.Normalizer;
+
+/**
+ * Cleans exercise names and derives canonical matching keys in a single pass over the input,
+ * reusing one internal buffer instead of chaining regex replacements.
+ *
+ * <p>{@link #clean} produces exactly what the former regex chain produced: whitespace runs
+ * collapsed to one space, leading numbering ({@code 1.}, {@code 2-}) removed, pipe runs turned
+ * into a space, backslashes turned into slashes, and the result trimmed. {@link #matchKey}
+ * additionally folds accents and case and collapses punctuation, so that
+ * {@code "Supino Inclinado c/ Halteres"} and {@code "supino inclinado C/ HALTERES"} share a key.
+ *
+ * <p>Instances are not thread-safe; use one per parse, or the static helpers which keep one
+ * instance per thread.
+ */
+public final class ExerciseNameNormalizer {
+
+    private static final char FOLD_TABLE_START = 'À';
+    private static final char FOLD_TABLE_END = 'ſ';
+    private static final char[] FOLD_TABLE = buildFoldTable();
+
+    private static final ThreadLocal<ExerciseNameNormalizer> PER_THREAD =
+            ThreadLocal.withInitial(ExerciseNameNormalizer::new);
+
+    private final StringBuilder buffer = new StringBuilder(64);
+
+    public static String cleanName(CharSequence name) {
+        return PER_THREAD.get().clean(name);
+    }
+
+    public static String matchKeyOf(CharSequence name) {
+        return PER_THREAD.get().matchKey(name);
+    }
+
+    public String clean(CharSequence name) {
+        return clean(name, 0, name.length());
+    }
+
+    /**
+     * Cleans {@code name[start, end)} without copying the region first.
+     */
+    public String clean(CharSequence name, int start, int end) {
+        cleanIntoBuffer(name, start, end);
+        return buffer.toString();
+    }
+
+    /**
+     * Canonical key for matching exercise names: the cleaned name with accents removed,
+     * lower-cased, and every run of non-alphanumeric characters reduced to a single space.
+     */
+    public String matchKey(CharSequence name) {
+        cleanIntoBuffer(name, 0, name.length());
+
+        // Fold in place: the write position never overtakes the read position
+        StringBuilder out = buffer;
+        int length = 0;
+        boolean pendingSeparator = false;
+        for (int i = 0; i < out.length(); i++) {
+            char c = fold(out.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSeparator && length > 0) {
+                    out.setCharAt(length++, ' ');
+                }
+                out.setCharAt(length++, c);
+                pendingSeparator = false;
+            } else {
+                pendingSeparator = true;
+            }
+        }
+        out.setLength(length);
+
+        return out.toString();
+    }
+
+    private void cleanIntoBuffer(CharSequence name, int start, int end) {
+        StringBuilder out = buffer;
+        out.setLength(0);
+
+        int i = skipWhile(name, start, end, false);
+
+        // Leading numbering such as "1.", "12 -" or "3.1", plus the whitespace after it
+        int numberingEnd = i;
+        while (numberingEnd < end && isNumberingChar(name.charAt(numberingEnd))) {
+            numberingEnd++;
+        }
+        if (numberingEnd > i) {
+            i = numberingEnd;
+            while (i < end && isWhitespace(name.charAt(i))) {
+                i++;
+            }
+        }
+
+        // Pipes and blanks left at the front would be trimmed away
+        i = skipWhile(name, i, end, true);
+
+        boolean inWhitespace = false;
+        boolean inPipes = false;
+        for (; i < end; i++) {
+            char c = name.charAt(i);
+            if (isWhitespace(c)) {
+                if (!inWhitespace) {
+                    out.append(' ');
+                    inWhitespace = true;
+                }
+                inPipes = false;
+            } else if (c == '|') {
+                if (!inPipes) {
+                    out.append(' ');
+                    inPipes = true;
+                }
+                inWhitespace = false;
+            } else {
+                out.append(c == '\\' ? '/' : c);
+                inWhitespace = false;
+                inPipes = false;
+            }
+        }
+
+        trimEnd(out);
+    }
+
+    /**
+     * Lower-cases a character and strips its accent, e.g. {@code 'Ç'} becomes {@code 'c'}.
+     */
+    public static char fold(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        if (c >= FOLD_TABLE_START && c <= FOLD_TABLE_END) {
+            return FOLD_TABLE[c - FOLD_TABLE_START];
+        }
+        return Character.toLowerCase(c);
+    }
+
+    private static int skipWhile(CharSequence name, int i, int end, boolean includePipes) {
+        while (i < end) {
+            char c = name.charAt(i);
+            if (c > ' ' && !(includePipes && c == '|')) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static void trimEnd(StringBuilder out) {
+        int length = out.length();
+        while (length > 0 && out.charAt(length - 1) <= ' ') {
+            length--;
+        }
+        out.setLength(length);
+    }
+
+    private static boolean isNumberingChar(char c) {
+        return (c >= '0' && c <= '9') || c == '.' || c == '-';
+    }
+
+    // Same set as the regex \s: space, tab, line feed, vertical tab, form feed, carriage return
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    private static char[] buildFoldTable() {
+        char[] table = new char[FOLD_TABLE_END - FOLD_TABLE_START + 1];
+        for (char c = FOLD_TABLE_START; c <= FOLD_TABLE_END; c++) {
+            String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            char base = decomposed.charAt(0);
+            table[c - FOLD_TABLE_START] = Character.toLowerCase(base < 0x80 ? base : c);
+        }
+        return table;
+    }
+}
@@ -0,0 +1,154 @@
+package com.kraftlog.pdfimport.client;
+
+import com.kraftlog.pdfimport.config.KraftLogApiProperties;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Test
+    void testLimitGrowsWhileCallsAreFastAndUseTheWholeLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 8);
+
+        for (int round = 0; round < 50; round++) {
+            List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < limiter.getLimit(); i++) {
+                permits.add(limiter.acquire("GET /api/exercises/search"));
+            }
+            permits.forEach(permit -> permit.release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS, null, FAST));
+        }
+
+        assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    void testLimitDoesNotGrowWhileCallsLeaveItUnused() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 32);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire("GET /api/exercises/search")
+                    .release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS, null, FAST);
+        }
+
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void testBurstOfOverloadResponsesHalvesTheLimitOnce() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, 32);
+
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            permits.add(limiter.acquire("POST /api/exercises"));
+        }
+        permits.forEach(permit -> permit.release(AdaptiveConcurrencyLimiter.Outcome.OVERLOAD));
+
+        assertEquals(4, limiter.getLimit());
+        assertEquals(8L, limiter.getStats().get("overloads"));
+    }
+
+    @Test
+    void testSlowCallsShrinkTheLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, 32);
+        limiter.acquire("POST /api/exercises").release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS, null, FAST);
+
+        limiter.acquire("POST /api/exercises").release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS, null, SLOW);
+        assertEquals(7, limiter.getLimit());
+
+        // Another endpoint has its own baseline, so its first slow call is not congestion
+        limiter.acquire("POST /api/exercises/batch").release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS, null, SLOW);
+        assertEquals(7, limiter.getLimit());
+    }
+
+    @Test
+    void testCallsOverTheLimitQueueUntilASlotIsFree() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1);
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire("POST /api/routines");
+
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> second = limiter.acquireAsync("POST /api/routines");
+        assertFalse(second.isDone());
+        assertEquals(1L, limiter.getStats().get("queued"));
+        assertEquals(1, limiter.getStats().get("inFlight"));
+
+        first.release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+
+        assertTrue(second.isDone());
+        assertEquals(0L, limiter.getStats().get("queued"));
+        assertEquals(1, limiter.getStats().get("inFlight"));
+    }
+
+    @Test
+    void testWaitingTooLongForASlotFails() throws Exception {
+        KraftLogApiProperties.Concurrency settings = settings(1, 1);
+        settings.setQueueTimeout(Duration.ofMillis(100));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(settings);
+        limiter.acquire("POST /api/routines");
+
+        assertThrows(IOException.class, () -> limiter.acquire("POST /api/routines"));
+        assertEquals(0L, limiter.getStats().get("queued"));
+        assertEquals(1L, limiter.getStats().get("queueTimeouts"));
+    }
+
+    @Test
+    void testRetryAfterHoldsBackNewCalls() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 32);
+        limiter.acquire("POST /api/exercises")
+                .release(AdaptiveConcurrencyLimiter.Outcome.OVERLOAD, Duration.ofMillis(300));
+
+        long start = System.nanoTime();
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> next = limiter.acquireAsync("POST /api/exercises");
+        assertFalse(next.isDone());
+
+        next.get(5, TimeUnit.SECONDS);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(250));
+    }
+
+    @Test
+    void testDisabledLimiterNeverQueues() throws Exception {
+        KraftLogApiProperties.Concurrency settings = settings(1, 1);
+        settings.setEnabled(false);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(settings);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire("GET /api/exercises/search");
+        }
+
+        assertEquals(10, limiter.getStats().get("inFlight"));
+        assertEquals(0L, limiter.getStats().get("queued"));
+    }
+
+    @Test
+    void testParseRetryAfter() {
+        Instant now = Instant.parse("2024-01-15T10:00:00Z");
+
+        assertEquals(Duration.ofSeconds(120), AdaptiveConcurrencyLimiter.parseRetryAfter("120", now));
+        assertEquals(Duration.ofSeconds(30),
+                AdaptiveConcurrencyLimiter.parseRetryAfter("Mon, 15 Jan 2024 10:00:30 GMT", now));
+        assertEquals(Duration.ZERO, AdaptiveConcurrencyLimiter.parseRetryAfter("Mon, 15 Jan 2024 09:00:00 GMT", now));
+        assertNull(AdaptiveConcurrencyLimiter.parseRetryAfter("soon", now));
+        assertNull(AdaptiveConcurrencyLimiter.parseRetryAfter(null, now));
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit, int maxLimit) {
+        return new AdaptiveConcurrencyLimiter(settings(initialLimit, maxLimit));
+    }
+
+    private static KraftLogApiProperties.Concurrency settings(int initialLimit, int maxLimit) {
+        KraftLogApiProperties.Concurrency settings = new KraftLogApiProperties.Concurrency();
+        settings.setInitialLimit(initialLimit);
+        settings.setMaxLimit(maxLimit);
+        return settings;
+    }
+}
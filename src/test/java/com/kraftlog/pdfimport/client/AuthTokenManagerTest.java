@@ -0,0 +1,131 @@
+package com.kraftlog.pdfimport.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthTokenManagerTest {
+
+    @Test
+    void testConcurrentRequestsShareOneLogin() throws Exception {
+        AtomicInteger logins = new AtomicInteger();
+        AuthTokenManager manager = new AuthTokenManager(
+                () -> CompletableFuture.supplyAsync(() -> "token-" + logins.incrementAndGet(),
+                        CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS)),
+                () -> Duration.ofSeconds(60));
+
+        ExecutorService threads = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> tokens = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                tokens.add(threads.submit(manager::getToken));
+            }
+            for (Future<String> token : tokens) {
+                assertEquals("token-1", token.get());
+            }
+        } finally {
+            threads.shutdown();
+        }
+
+        assertEquals(1, logins.get());
+    }
+
+    @Test
+    void testInvalidateOnlyDropsTheRejectedToken() throws Exception {
+        AtomicInteger logins = new AtomicInteger();
+        AuthTokenManager manager = new AuthTokenManager(
+                () -> CompletableFuture.completedFuture("token-" + logins.incrementAndGet()),
+                () -> Duration.ofSeconds(60));
+
+        String first = manager.getToken();
+        manager.invalidate(first);
+        String second = manager.getToken();
+        // A late 401 for the first token must not drop the second one
+        manager.invalidate(first);
+
+        assertEquals("token-2", second);
+        assertEquals("token-2", manager.getToken());
+        assertEquals(2, logins.get());
+    }
+
+    @Test
+    void testJwtRefreshedBeforeExpiryWithoutBlocking() throws Exception {
+        MutableClock clock = new MutableClock(Instant.parse("2024-01-01T10:00:00Z"));
+        AtomicInteger logins = new AtomicInteger();
+        AuthTokenManager manager = new AuthTokenManager(
+                () -> CompletableFuture.completedFuture(
+                        jwt(logins.incrementAndGet(), clock.instant().plusSeconds(300))),
+                () -> Duration.ofSeconds(60), clock);
+        try {
+            String first = manager.getToken();
+            assertEquals(1, logins.get());
+
+            // Still valid, outside the refresh margin
+            clock.advance(Duration.ofSeconds(200));
+            assertEquals(first, manager.getToken());
+            assertEquals(1, logins.get());
+
+            // Inside the margin: the current token is used while a new one is fetched
+            clock.advance(Duration.ofSeconds(50));
+            assertEquals(first, manager.getToken());
+            assertEquals(2, logins.get());
+            assertNotEquals(first, manager.getToken());
+
+            // Past expiry: requests wait for a new token
+            clock.advance(Duration.ofSeconds(400));
+            String third = manager.getToken();
+            assertEquals(3, logins.get());
+            assertEquals(clock.instant().plusSeconds(300).getEpochSecond(),
+                    AuthTokenManager.readExpiry(third).getEpochSecond());
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    @Test
+    void testLoginFailureIsReportedAndRetried() throws Exception {
+        AtomicInteger logins = new AtomicInteger();
+        AuthTokenManager manager = new AuthTokenManager(
+                () -> logins.incrementAndGet() == 1
+                        ? CompletableFuture.failedFuture(new IOException("Authentication failed with status: 401"))
+                        : CompletableFuture.completedFuture("token"),
+                () -> Duration.ofSeconds(60));
+
+        IOException error = assertThrows(IOException.class, manager::getToken);
+        assertEquals("Authentication failed with status: 401", error.getMessage());
+        assertEquals("token", manager.getToken());
+    }
+
+    @Test
+    void testReadExpiry() {
+        assertEquals(Instant.ofEpochSecond(1700000000), AuthTokenManager.readExpiry(jwtWithPayload("{\"exp\":1700000000}")));
+        assertNull(AuthTokenManager.readExpiry(jwtWithPayload("{\"sub\":\"admin\"}")));
+        assertNull(AuthTokenManager.readExpiry("test-token-12345"));
+        assertNull(AuthTokenManager.readExpiry("a.not-base64!.c"));
+    }
+
+    private static String jwt(int id, Instant expiresAt) {
+        return jwtWithPayload("{\"sub\":\"admin-" + id + "\",\"exp\":" + expiresAt.getEpochSecond() + "}");
+    }
+
+    private static String jwtWithPayload(String payload) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8))
+                + "." + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+                + ".signature";
+    }
+}
@@ -0,0 +1,106 @@
+package com.kraftlog.pdfimport.client;
+
+import com.kraftlog.pdfimport.config.KraftLogApiProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private MutableClock clock;
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        KraftLogApiProperties.CircuitBreaker settings = new KraftLogApiProperties.CircuitBreaker();
+        settings.setFailureThreshold(3);
+        settings.setOpenDuration(Duration.ofSeconds(30));
+        clock = new MutableClock(Instant.parse("2024-01-01T10:00:00Z"));
+        circuitBreaker = new CircuitBreaker("POST /api/exercises", settings, clock);
+    }
+
+    @Test
+    void testOpensAfterConsecutiveFailuresOnly() {
+        fail(2);
+        succeed();
+        fail(2);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        fail(1);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+
+        CircuitOpenException error = circuitBreaker.openException();
+        assertEquals("POST /api/exercises", error.getEndpoint());
+        assertEquals(Duration.ofSeconds(30), error.getRetryIn());
+    }
+
+    @Test
+    void testHalfOpenLetsOneProbeThroughAndClosesOnSuccess() {
+        fail(3);
+        clock.advance(Duration.ofSeconds(30));
+
+        assertTrue(circuitBreaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        // Other calls keep failing fast while the probe is in flight
+        assertFalse(circuitBreaker.tryAcquire());
+
+        circuitBreaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void testFailedProbeOpensTheCircuitAgain() {
+        fail(3);
+        clock.advance(Duration.ofSeconds(31));
+
+        assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        clock.advance(Duration.ofSeconds(29));
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void testInconclusiveProbeFreesTheProbeSlot() {
+        fail(3);
+        clock.advance(Duration.ofSeconds(30));
+
+        assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.onIgnore();
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void testDisabledBreakerNeverOpens() {
+        KraftLogApiProperties.CircuitBreaker settings = new KraftLogApiProperties.CircuitBreaker();
+        settings.setEnabled(false);
+        CircuitBreaker disabled = new CircuitBreaker("GET /api/exercises/search", settings, clock);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(disabled.tryAcquire());
+            disabled.onFailure();
+        }
+        assertTrue(disabled.tryAcquire());
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(circuitBreaker.tryAcquire());
+            circuitBreaker.onFailure();
+        }
+    }
+
+    private void succeed() {
+        assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.onSuccess();
+    }
+}
@@ -0,0 +1,113 @@
+package com.kraftlog.pdfimport.client;
+
+import com.kraftlog.pdfimport.config.KraftLogApiProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExerciseSearchCacheTest {
+
+    private KraftLogApiProperties.SearchCache settings;
+    private MutableClock clock;
+    private ExerciseSearchCache cache;
+
+    @BeforeEach
+    void setUp() {
+        settings = new KraftLogApiProperties.SearchCache();
+        settings.setMaxEntries(2);
+        settings.setTtl(Duration.ofMinutes(10));
+        settings.setNegativeTtl(Duration.ofMinutes(1));
+        clock = new MutableClock(Instant.parse("2024-01-01T10:00:00Z"));
+        cache = new ExerciseSearchCache(settings, clock);
+    }
+
+    @Test
+    void testEntriesExpireAfterTheirTtl() {
+        cache.put("supino reto", "[{\"id\":\"1\"}]", false);
+        cache.put("remada curvada", "[]", true);
+
+        clock.advance(Duration.ofSeconds(59));
+        assertEquals("[{\"id\":\"1\"}]", cache.get("supino reto"));
+        assertEquals("[]", cache.get("remada curvada"));
+
+        // "Not found" is kept for a shorter time
+        clock.advance(Duration.ofSeconds(1));
+        assertEquals("[{\"id\":\"1\"}]", cache.get("supino reto"));
+        assertNull(cache.get("remada curvada"));
+
+        clock.advance(Duration.ofMinutes(9));
+        assertNull(cache.get("supino reto"));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        cache.put("supino reto", "[]", true);
+        cache.put("agachamento", "[]", true);
+        cache.get("supino reto");
+        cache.put("leg press", "[]", true);
+
+        assertNotNull(cache.get("supino reto"));
+        assertNull(cache.get("agachamento"));
+        assertNotNull(cache.get("leg press"));
+        assertEquals(1L, cache.getStats().get("evictions"));
+    }
+
+    @Test
+    void testStatsReportHitRate() {
+        cache.put("supino reto", "[{\"id\":\"1\"}]", false);
+        cache.put("remada curvada", "[]", true);
+
+        cache.get("supino reto");
+        cache.get("supino reto");
+        cache.get("remada curvada");
+        cache.get("agachamento");
+
+        Map<String, Object> stats = cache.getStats();
+        assertEquals(2, stats.get("entries"));
+        assertEquals(2L, stats.get("hits"));
+        assertEquals(1L, stats.get("negativeHits"));
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(0.75, stats.get("hitRate"));
+    }
+
+    @Test
+    void testCreatedExerciseReplacesNotFoundAndMergesIntoFoundEntries() {
+        cache.put("supino reto", "[]", true);
+        cache.put("remada curvada", "[{\"id\":\"1\"}]", false);
+
+        cache.putCreated("supino reto", "[{\"id\":\"7\"}]", cached -> fail("Nothing to merge into"));
+        cache.putCreated("remada curvada", "[{\"id\":\"8\"}]", cached -> cached + "+8");
+
+        assertEquals("[{\"id\":\"7\"}]", cache.get("supino reto"));
+        assertEquals("[{\"id\":\"1\"}]+8", cache.get("remada curvada"));
+        // A merged entry keeps the expiry of the search it came from
+        clock.advance(Duration.ofMinutes(10));
+        assertNull(cache.get("remada curvada"));
+    }
+
+    @Test
+    void testSearchStartedBeforeAWriteDoesNotReplaceIt() {
+        long startedAt = cache.generation();
+        cache.putCreated("supino reto", "[{\"id\":\"7\"}]", cached -> cached);
+
+        cache.put("supino reto", "[]", true, startedAt);
+        assertEquals("[{\"id\":\"7\"}]", cache.get("supino reto"));
+
+        cache.put("supino reto", "[{\"id\":\"7\"},{\"id\":\"9\"}]", false, cache.generation());
+        assertEquals("[{\"id\":\"7\"},{\"id\":\"9\"}]", cache.get("supino reto"));
+    }
+
+    @Test
+    void testDisabledCacheStoresNothing() {
+        settings.setEnabled(false);
+        cache.put("supino reto", "[]", true);
+
+        assertNull(cache.get("supino reto"));
+        assertEquals(0, cache.getStats().get("entries"));
+    }
+}
@@ -1,13 +1,27 @@
 package com.kraftlog.pdfimport.client;
 
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import com.kraftlog.pdfimport.config.KraftLogApiProperties;
 import com.kraftlog.pdfimport.dto.ExerciseCreateRequest;
+import com.kraftlog.pdfimport.dto.ParsedExerciseData;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 class KraftLogApiClientTest {
@@ -33,10 +47,9 @@ class KraftLogApiClientTest {
 
     @Test
     void testClientWithNullProperties() {
-        // The client doesn't throw NPE on construction with null properties
-        // It will throw when methods are called that use the properties
-        KraftLogApiClient client = new KraftLogApiClient(null);
-        assertNotNull(client);
+        // Properties are required; tests without settings pass new KraftLogApiProperties()
+        assertThrows(NullPointerException.class, () -> new KraftLogApiClient(null));
+        assertNotNull(new KraftLogApiClient(new KraftLogApiProperties()));
     }
 
     @Test
@@ -101,4 +114,435 @@ class KraftLogApiClientTest {
         assertNotNull(client2);
         assertNotSame(client1, client2);
     }
+
+    @Test
+    void testAsyncSearchesFanOut() throws Exception {
+        WireMockServer server = startApiServer();
+        try {
+            server.stubFor(get(urlPathEqualTo("/api/exercises/search"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withFixedDelay(200)
+                            .withBody("[{\"id\":\"1\",\"name\":\"Supino Reto\",\"muscleGroup\":\"Chest\"}]")));
+            KraftLogApiClient client = new KraftLogApiClient(apiProperties(server));
+            client.authenticate();
+
+            List<CompletableFuture<List<ParsedExerciseData>>> searches = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                searches.add(client.searchExercisesAsync("Supino " + i));
+            }
+            CompletableFuture.allOf(searches.toArray(CompletableFuture[]::new)).get();
+
+            for (CompletableFuture<List<ParsedExerciseData>> search : searches) {
+                assertEquals("Chest", search.get().get(0).getMuscleGroup());
+            }
+            server.verify(20, getRequestedFor(urlPathEqualTo("/api/exercises/search")));
+            server.verify(1, postRequestedFor(urlEqualTo("/api/auth/login")));
+            client.shutdown();
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testAsyncCreateReauthenticatesOnceAfter401() throws Exception {
+        WireMockServer server = startApiServer();
+        try {
+            server.stubFor(post(urlEqualTo("/api/routines"))
+                    .inScenario("Expired token")
+                    .whenScenarioStateIs(Scenario.STARTED)
+                    .willReturn(aResponse().withStatus(401))
+                    .willSetStateTo("Renewed"));
+            server.stubFor(post(urlEqualTo("/api/routines"))
+                    .inScenario("Expired token")
+                    .whenScenarioStateIs("Renewed")
+                    .willReturn(aResponse()
+                            .withStatus(201)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"id\":\"routine-1\"}")));
+            KraftLogApiClient client = new KraftLogApiClient(apiProperties(server));
+
+            Map<String, Object> routine = client.createRoutineAsync(Map.of("name", "Week 1")).get();
+
+            assertEquals("routine-1", routine.get("id"));
+            // Once for the missing token, once after the 401
+            server.verify(2, postRequestedFor(urlEqualTo("/api/auth/login")));
+            server.verify(2, postRequestedFor(urlEqualTo("/api/routines")));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testAsyncFailureCompletesWithIOException() {
+        WireMockServer server = startApiServer();
+        try {
+            server.stubFor(post(urlEqualTo("/api/exercises"))
+                    .willReturn(aResponse().withStatus(401)));
+            KraftLogApiClient client = new KraftLogApiClient(apiProperties(server));
+            ExerciseCreateRequest request = ExerciseCreateRequest.builder().name("Supino Reto").build();
+
+            ExecutionException error = assertThrows(ExecutionException.class,
+                    () -> client.createExerciseAsync(request).get());
+
+            assertInstanceOf(IOException.class, error.getCause());
+            assertEquals("Failed to create exercise: Supino Reto", error.getCause().getMessage());
+            server.verify(2, postRequestedFor(urlEqualTo("/api/exercises")));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testConfiguredVersionExecutorAndTimeouts() throws Exception {
+        WireMockServer server = startApiServer();
+        try {
+            server.stubFor(get(urlPathEqualTo("/api/exercises/search"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withFixedDelay(2000)
+                            .withBody("[]")));
+            server.stubFor(post(urlEqualTo("/api/workouts"))
+                    .willReturn(aResponse()
+                            .withStatus(201)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"id\":\"workout-1\"}")));
+            KraftLogApiProperties properties = apiProperties(server);
+            properties.getHttp().setVersion(HttpClient.Version.HTTP_1_1);
+            properties.getHttp().getTimeouts().setSearchExercises(Duration.ofMillis(200));
+            properties.getAsync().setExecutor(KraftLogApiProperties.AsyncExecutor.FIXED);
+            properties.getAsync().setThreads(2);
+            KraftLogApiClient client = new KraftLogApiClient(properties);
+
+            assertThrows(HttpTimeoutException.class, () -> client.searchExercises("Supino"));
+            ExecutionException asyncError = assertThrows(ExecutionException.class,
+                    () -> client.searchExercisesAsync("Supino").get());
+            assertInstanceOf(HttpTimeoutException.class, asyncError.getCause());
+
+            // Other calls keep their own timeout
+            assertEquals("workout-1", client.createWorkoutAsync(Map.of("name", "Treino A")).get().get("id"));
+            client.shutdown();
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testSearchIsRetriedAfterServerError() throws Exception {
+        WireMockServer server = startApiServer();
+        try {
+            server.stubFor(get(urlPathEqualTo("/api/exercises/search"))
+                    .inScenario("Brownout")
+                    .whenScenarioStateIs(Scenario.STARTED)
+                    .willReturn(aResponse().withStatus(503))
+                    .willSetStateTo("Recovered"));
+            server.stubFor(get(urlPathEqualTo("/api/exercises/search"))
+                    .inScenario("Brownout")
+                    .whenScenarioStateIs("Recovered")
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("[{\"id\":\"1\",\"name\":\"Supino Reto\"}]")));
+            KraftLogApiClient client = new KraftLogApiClient(fastRetries(apiProperties(server)));
+
+            assertEquals("Supino Reto", client.searchExercises("Supino").get(0).getName());
+            server.verify(2, getRequestedFor(urlPathEqualTo("/api/exercises/search")));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testCreateIsNotRetriedAfterServerErrorWithoutIdempotencyKeys() {
+        WireMockServer server = startApiServer();
+        try {
+            server.stubFor(post(urlEqualTo("/api/exercises"))
+                    .willReturn(aResponse().withStatus(502)));
+            KraftLogApiClient client = new KraftLogApiClient(fastRetries(apiProperties(server)));
+            ExerciseCreateRequest request = ExerciseCreateRequest.builder().name("Supino Reto").build();
+
+            assertThrows(IOException.class, () -> client.createExercise(request));
+            server.verify(1, postRequestedFor(urlEqualTo("/api/exercises")));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testCreateIsRetriedWithTheSameIdempotencyKey() throws Exception {
+        WireMockServer server = startApiServer();
+        try {
+            server.stubFor(post(urlEqualTo("/api/exercises"))
+                    .inScenario("Brownout")
+                    .whenScenarioStateIs(Scenario.STARTED)
+                    .willReturn(aResponse().withStatus(502))
+                    .willSetStateTo("Recovered"));
+            server.stubFor(post(urlEqualTo("/api/exercises"))
+                    .inScenario("Brownout")
+                    .whenScenarioStateIs("Recovered")
+                    .willReturn(aResponse()
+                            .withStatus(201)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"id\":\"1\",\"name\":\"Supino Reto\"}")));
+            KraftLogApiProperties properties = fastRetries(apiProperties(server));
+            properties.getRetry().setIdempotencyKeys(true);
+            KraftLogApiClient client = new KraftLogApiClient(properties);
+            ExerciseCreateRequest request = ExerciseCreateRequest.builder().name("Supino Reto").build();
+
+            assertEquals("1", client.createExerciseAsync(request).get().getId());
+
+            List<String> keys = server.findAll(postRequestedFor(urlEqualTo("/api/exercises"))).stream()
+                    .map(logged -> logged.getHeader("Idempotency-Key"))
+                    .toList();
+            assertEquals(2, keys.size());
+            assertNotNull(keys.get(0));
+            assertEquals(keys.get(0), keys.get(1));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testOpenCircuitFailsFastWithoutCallingTheApi() throws Exception {
+        WireMockServer server = startApiServer();
+        try {
+            server.stubFor(post(urlEqualTo("/api/workouts"))
+                    .willReturn(aResponse().withStatus(500)));
+            server.stubFor(post(urlEqualTo("/api/routines"))
+                    .willReturn(aResponse()
+                            .withStatus(201)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"id\":\"routine-1\"}")));
+            KraftLogApiProperties properties = apiProperties(server);
+            properties.getCircuitBreaker().setFailureThreshold(2);
+            KraftLogApiClient client = new KraftLogApiClient(properties);
+
+            assertThrows(IOException.class, () -> client.createWorkout(Map.of("name", "Treino A")));
+            assertThrows(IOException.class, () -> client.createWorkout(Map.of("name", "Treino A")));
+            assertThrows(CircuitOpenException.class, () -> client.createWorkout(Map.of("name", "Treino A")));
+            ExecutionException asyncError = assertThrows(ExecutionException.class,
+                    () -> client.createWorkoutAsync(Map.of("name", "Treino A")).get());
+            assertInstanceOf(CircuitOpenException.class, asyncError.getCause());
+            server.verify(2, postRequestedFor(urlEqualTo("/api/workouts")));
+
+            // Other endpoints have their own circuit
+            assertEquals("routine-1", client.createRoutine(Map.of("name", "Week 1")).get("id"));
+            assertEquals(Map.of("state", "OPEN", "consecutiveFailures", 2),
+                    client.getCircuitBreakerStats().get("POST /api/workouts"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testSearchesAreCachedByNormalizedTerm() throws Exception {
+        WireMockServer server = startApiServer();
+        try {
+            server.stubFor(get(urlPathEqualTo("/api/exercises/search"))
+                    .withQueryParam("query", equalTo("Supino Reto"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("[{\"id\":\"1\",\"name\":\"Supino Reto\"}]")));
+            server.stubFor(get(urlPathEqualTo("/api/exercises/search"))
+                    .withQueryParam("query", equalTo("Remada Curvada"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("[]")));
+            KraftLogApiClient client = new KraftLogApiClient(apiProperties(server));
+
+            assertEquals("1", client.searchExercises("Supino Reto").get(0).getId());
+            assertEquals("1", client.searchExercises("  supino   RETO ").get(0).getId());
+            assertEquals("1", client.searchExercisesAsync("Supino Reto").get().get(0).getId());
+            assertTrue(client.searchExercises("Remada Curvada").isEmpty());
+            assertTrue(client.searchExercises("remada curvada").isEmpty());
+
+            server.verify(1, getRequestedFor(urlPathEqualTo("/api/exercises/search"))
+                    .withQueryParam("query", equalTo("Supino Reto")));
+            server.verify(1, getRequestedFor(urlPathEqualTo("/api/exercises/search"))
+                    .withQueryParam("query", equalTo("Remada Curvada")));
+            assertEquals(2L, client.getSearchCacheStats().get("hits"));
+            assertEquals(1L, client.getSearchCacheStats().get("negativeHits"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testCreatedExerciseIsFoundWithoutSearching() throws Exception {
+        WireMockServer server = startApiServer();
+        try {
+            server.stubFor(get(urlPathEqualTo("/api/exercises/search"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("[]")));
+            server.stubFor(post(urlEqualTo("/api/exercises"))
+                    .willReturn(aResponse()
+                            .withStatus(201)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"id\":\"7\",\"name\":\"Crucifixo Inclinado\",\"muscleGroup\":\"Chest\"}")));
+            KraftLogApiClient client = new KraftLogApiClient(apiProperties(server));
+
+            assertTrue(client.searchExercises("Crucifixo Inclinado").isEmpty());
+            client.createExercise(ExerciseCreateRequest.builder().name("Crucifixo Inclinado").build());
+
+            // The cached "not found" is replaced by the created exercise
+            List<ParsedExerciseData> found = client.searchExercises("crucifixo inclinado");
+            assertEquals("7", found.get(0).getId());
+            assertEquals("Chest", found.get(0).getMuscleGroup());
+            server.verify(1, getRequestedFor(urlPathEqualTo("/api/exercises/search")));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testCreatedExerciseIsAddedToCachedSearchResults() throws Exception {
+        WireMockServer server = startApiServer();
+        try {
+            server.stubFor(get(urlPathEqualTo("/api/exercises/search"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("[{\"id\":\"1\",\"name\":\"Crucifixo Inclinado\",\"muscleGroup\":\"Chest\"}]")));
+            server.stubFor(post(urlEqualTo("/api/exercises"))
+                    .willReturn(aResponse()
+                            .withStatus(201)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"id\":\"7\",\"name\":\"Crucifixo Inclinado\",\"muscleGroup\":\"Shoulders\"}")));
+            KraftLogApiClient client = new KraftLogApiClient(apiProperties(server));
+
+            client.searchExercises("Crucifixo Inclinado");
+            client.createExercise(ExerciseCreateRequest.builder().name("Crucifixo Inclinado").build());
+
+            // The exercise found first stays first
+            List<ParsedExerciseData> found = client.searchExercises("crucifixo inclinado");
+            assertEquals(List.of("1", "7"), found.stream().map(ParsedExerciseData::getId).toList());
+            server.verify(1, getRequestedFor(urlPathEqualTo("/api/exercises/search")));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testConcurrentIdenticalSearchesShareOneRequest() throws Exception {
+        WireMockServer server = startApiServer();
+        try {
+            server.stubFor(get(urlPathEqualTo("/api/exercises/search"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withFixedDelay(500)
+                            .withBody("[{\"id\":\"1\",\"name\":\"Supino Reto\"}]")));
+            KraftLogApiProperties properties = apiProperties(server);
+            properties.getSearchCache().setEnabled(false);
+            KraftLogApiClient client = new KraftLogApiClient(properties);
+            client.authenticate();
+
+            List<CompletableFuture<List<ParsedExerciseData>>> searches = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                searches.add(client.searchExercisesAsync(i % 2 == 0 ? "Supino Reto" : "SUPINO  reto"));
+            }
+            CompletableFuture<List<ParsedExerciseData>> blocking = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return client.searchExercises("supino reto");
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            searches.add(blocking);
+
+            for (CompletableFuture<List<ParsedExerciseData>> search : searches) {
+                assertEquals("1", search.get().get(0).getId());
+            }
+            // Every caller gets its own result objects
+            assertNotSame(searches.get(0).get().get(0), searches.get(1).get().get(0));
+            server.verify(1, getRequestedFor(urlPathEqualTo("/api/exercises/search")));
+            assertEquals(0, client.getSearchCacheStats().get("inFlight"));
+
+            // Once completed, the next search asks the API again as caching is off
+            client.searchExercises("Supino Reto");
+            server.verify(2, getRequestedFor(urlPathEqualTo("/api/exercises/search")));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testListExercisesReadsPagesAndPassesUpdatedSince() throws Exception {
+        WireMockServer server = startApiServer();
+        try {
+            server.stubFor(get(urlPathEqualTo("/api/exercises"))
+                    .withQueryParam("updatedSince", absent())
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"content\":[{\"id\":\"1\",\"name\":\"Supino Reto\","
+                                    + "\"updatedAt\":\"2024-01-15T10:00:00\"}],\"totalElements\":1}")));
+            server.stubFor(get(urlPathEqualTo("/api/exercises"))
+                    .withQueryParam("updatedSince", equalTo("2024-01-15T10:00"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("[{\"id\":\"2\",\"name\":\"Remada Curvada\"}]")));
+            KraftLogApiClient client = new KraftLogApiClient(apiProperties(server));
+
+            List<ParsedExerciseData> all = client.listExercises(null);
+            assertEquals(1, all.size());
+            assertEquals(LocalDateTime.of(2024, 1, 15, 10, 0), all.get(0).getUpdatedAt());
+
+            List<ParsedExerciseData> changed = client.listExercises(all.get(0).getUpdatedAt());
+            assertEquals("2", changed.get(0).getId());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testListExercisesReauthenticatesOnlyOnce() {
+        WireMockServer server = startApiServer();
+        try {
+            server.stubFor(get(urlPathEqualTo("/api/exercises"))
+                    .willReturn(aResponse().withStatus(401)));
+            KraftLogApiClient client = new KraftLogApiClient(apiProperties(server));
+
+            assertThrows(IOException.class, () -> client.listExercises(null));
+
+            server.verify(2, getRequestedFor(urlPathEqualTo("/api/exercises")));
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static KraftLogApiProperties fastRetries(KraftLogApiProperties properties) {
+        properties.getRetry().setInitialBackoff(Duration.ofMillis(10));
+        properties.getRetry().setMaxBackoff(Duration.ofMillis(50));
+        return properties;
+    }
+
+    private static WireMockServer startApiServer() {
+        WireMockServer server = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+        server.start();
+        server.stubFor(post(urlEqualTo("/api/auth/login"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"token\":\"test-token\"}")));
+        return server;
+    }
+
+    private static KraftLogApiProperties apiProperties(WireMockServer server) {
+        KraftLogApiProperties properties = new KraftLogApiProperties();
+        properties.setBaseUrl("http://localhost:" + server.port());
+
+        KraftLogApiProperties.Auth auth = new KraftLogApiProperties.Auth();
+        auth.setUsername("testuser");
+        auth.setPassword("testpass");
+        properties.setAuth(auth);
+        return properties;
+    }
 }
@@ -0,0 +1,48 @@
+package com.kraftlog.pdfimport.client;
+
+import com.kraftlog.pdfimport.config.KraftLogApiProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryPolicyTest {
+
+    @Test
+    void testBackoffGrowsExponentiallyWithJitterUpToTheCap() {
+        KraftLogApiProperties.Retry settings = new KraftLogApiProperties.Retry();
+        settings.setMaxAttempts(10);
+        settings.setInitialBackoff(Duration.ofMillis(100));
+        settings.setMaxBackoff(Duration.ofMillis(1000));
+        RetryPolicy policy = new RetryPolicy(settings);
+
+        long[] ceilings = {100, 200, 400, 800, 1000, 1000};
+        for (int attempt = 1; attempt <= ceilings.length; attempt++) {
+            long max = 0;
+            for (int i = 0; i < 200; i++) {
+                long backoff = policy.backoff(attempt, null).toMillis();
+                assertTrue(backoff >= 0 && backoff <= ceilings[attempt - 1], "attempt " + attempt + ": " + backoff);
+                max = Math.max(max, backoff);
+            }
+            // Jittered over the whole range, not just the low end
+            assertTrue(max > ceilings[attempt - 1] / 2, "attempt " + attempt + ": " + max);
+        }
+    }
+
+    @Test
+    void testNoBackoffOnceAttemptsAreUsedUp() {
+        RetryPolicy policy = new RetryPolicy(new KraftLogApiProperties.Retry());
+
+        assertNotNull(policy.backoff(2, null));
+        assertNull(policy.backoff(3, null));
+    }
+
+    @Test
+    void testRetryAfterReplacesBackoffUnlessTooLong() {
+        RetryPolicy policy = new RetryPolicy(new KraftLogApiProperties.Retry());
+
+        assertEquals(Duration.ofSeconds(2), policy.backoff(1, Duration.ofSeconds(2)));
+        assertNull(policy.backoff(1, Duration.ofSeconds(30)));
+    }
+}
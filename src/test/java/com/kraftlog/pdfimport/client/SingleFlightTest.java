@@ -0,0 +1,112 @@
+package com.kraftlog.pdfimport.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void testConcurrentCallsForOneKeyShareOneCall() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(threads.submit(() -> flights.run("supino reto", () -> {
+                    calls.incrementAndGet();
+                    release.await();
+                    return "[{\"id\":\"1\"}]";
+                })));
+            }
+            // Let the followers join the call before it completes
+            while (flights.getCoalesced() < 7) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("[{\"id\":\"1\"}]", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            threads.shutdown();
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(0, flights.getInFlight());
+    }
+
+    @Test
+    void testKeyIsForgottenOnceTheCallCompletes() throws Exception {
+        SingleFlight<String, Integer> flights = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals(1, flights.run("supino reto", calls::incrementAndGet));
+        assertEquals(2, flights.run("supino reto", calls::incrementAndGet));
+        assertEquals(0, flights.getCoalesced());
+    }
+
+    @Test
+    void testAsyncCallersShareTheOutcomeButNotTheFuture() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CompletableFuture<String> response = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> first = flights.runAsync("supino reto", () -> {
+            calls.incrementAndGet();
+            return response;
+        });
+        CompletableFuture<String> second = flights.runAsync("supino reto", () -> {
+            calls.incrementAndGet();
+            return response;
+        });
+        assertEquals(1, flights.getInFlight());
+
+        // One caller giving up does not affect the other
+        first.cancel(false);
+        response.complete("[]");
+
+        assertEquals("[]", second.get());
+        assertEquals(1, calls.get());
+        assertEquals(0, flights.getInFlight());
+    }
+
+    @Test
+    void testFailureIsSharedWithWaitingCallers() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CompletableFuture<String> response = new CompletableFuture<>();
+
+        CompletableFuture<String> leader = flights.runAsync("supino reto", () -> response);
+        ExecutorService thread = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> follower = thread.submit(() -> flights.run("supino reto", () -> "not called"));
+            while (flights.getCoalesced() < 1) {
+                Thread.sleep(10);
+            }
+            response.completeExceptionally(new IOException("Failed to search exercises"));
+
+            ExecutionException leaderError = assertThrows(ExecutionException.class, leader::get);
+            assertInstanceOf(IOException.class, leaderError.getCause());
+            ExecutionException followerError = assertThrows(ExecutionException.class, follower::get);
+            assertEquals("Failed to search exercises", followerError.getCause().getMessage());
+        } finally {
+            thread.shutdown();
+        }
+        assertEquals(0, flights.getInFlight());
+    }
+}
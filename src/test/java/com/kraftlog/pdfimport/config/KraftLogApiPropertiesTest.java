@@ -2,6 +2,9 @@ package com.kraftlog.pdfimport.config;
 
 import org.junit.jupiter.api.Test;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class KraftLogApiPropertiesTest {
@@ -40,6 +43,11 @@ class KraftLogApiPropertiesTest {
         
         assertNull(properties.getBaseUrl());
         assertNull(properties.getAuth());
+        assertEquals(KraftLogApiProperties.AsyncExecutor.VIRTUAL, properties.getAsync().getExecutor());
+        assertEquals(HttpClient.Version.HTTP_2, properties.getHttp().getVersion());
+        assertEquals(Duration.ofSeconds(10), properties.getHttp().getConnectTimeout());
+        assertEquals(Duration.ofSeconds(10), properties.getHttp().getTimeouts().getCreateExercise());
+        assertEquals(Duration.ofSeconds(10), properties.getHttp().getTimeouts().getSearchExercises());
     }
 
     @Test
@@ -0,0 +1,91 @@
+package com.kraftlog.pdfimport.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfLineRulesConfigTest {
+
+    private PdfLineRulesConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new PdfLineRulesConfig();
+    }
+
+    @Test
+    void testLoadConfigurationWithValidFile(@TempDir Path tempDir) throws IOException {
+        Path configFile = tempDir.resolve("test-line-rules.yml");
+        Files.writeString(configFile,
+                "skip:\n" +
+                "  starts-with: [\"CREF:\"]\n" +
+                "  contains: [\"Bi-set\", \"Alongamentos\"]\n" +
+                "  contains-all:\n" +
+                "    - [\"Exercício\", \"Execução em Vídeo\"]\n" +
+                "sub-headers:\n" +
+                "  equals: [\"COXAS\"]\n" +
+                "  contains: [\"TÉCNICAS AVANÇADAS\"]\n");
+
+        config.setConfigPath(configFile.toString());
+        config.loadConfiguration();
+
+        assertEquals(List.of("CREF:"), config.getSkipStartsWith());
+        assertEquals(List.of("Bi-set", "Alongamentos"), config.getSkipContains());
+        assertEquals(List.of(List.of("Exercício", "Execução em Vídeo")), config.getSkipContainsAll());
+        assertEquals(List.of("COXAS"), config.getSubHeaderEquals());
+        assertEquals(List.of("TÉCNICAS AVANÇADAS"), config.getSubHeaderContains());
+    }
+
+    @Test
+    void testLoadConfigurationWithNonExistentFile() {
+        config.setConfigPath("/non/existent/file.yml");
+        config.loadConfiguration();
+
+        // The built-in rules still filter titles, footers and sub-headers
+        assertTrue(config.getSkipStartsWith().contains("CREF:"));
+        assertTrue(config.getSkipContains().contains("Bi-set"));
+        assertEquals(7, config.getSubHeaderEquals().size());
+    }
+
+    @Test
+    void testBuiltInRulesMatchTheShippedRulesFile() {
+        config.setConfigPath("");
+        config.loadConfiguration();
+        PdfLineRulesConfig shipped = new PdfLineRulesConfig();
+        shipped.setConfigPath("pdf-line-rules.yml");
+        shipped.loadConfiguration();
+
+        assertEquals(shipped.getRulesVersion(), config.getRulesVersion());
+    }
+
+    @Test
+    void testLoadConfigurationWithMissingSections(@TempDir Path tempDir) throws IOException {
+        Path configFile = tempDir.resolve("partial-line-rules.yml");
+        Files.writeString(configFile, "skip:\n  contains: [\"Bi-set\"]\n");
+
+        config.setConfigPath(configFile.toString());
+        config.loadConfiguration();
+
+        assertEquals(List.of("Bi-set"), config.getSkipContains());
+        assertTrue(config.getSkipStartsWith().isEmpty());
+        assertTrue(config.getSkipContainsAll().isEmpty());
+        assertTrue(config.getSubHeaderEquals().isEmpty());
+    }
+
+    @Test
+    void testShippedRulesFileLoads() {
+        config.setConfigPath("pdf-line-rules.yml");
+        config.loadConfiguration();
+
+        assertTrue(config.getSkipStartsWith().contains("Técnicas Avançadas"));
+        assertTrue(config.getSkipContains().contains("Agonista x Antagonista"));
+        assertEquals(7, config.getSubHeaderEquals().size());
+    }
+}
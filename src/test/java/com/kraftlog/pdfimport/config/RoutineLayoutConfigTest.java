@@ -0,0 +1,86 @@
+package com.kraftlog.pdfimport.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutineLayoutConfigTest {
+
+    private RoutineLayoutConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new RoutineLayoutConfig();
+    }
+
+    @Test
+    void testLoadConfigurationWithValidFile(@TempDir Path tempDir) throws IOException {
+        Path configFile = tempDir.resolve("test-layouts.yml");
+        Files.writeString(configFile,
+                "default-layout: compact\n" +
+                "layouts:\n" +
+                "  compact:\n" +
+                "    workouts:\n" +
+                "      - { name: A1, exercises: \"A2:A9\", sets-reps-column: B, rest: A10 }\n" +
+                "      - { name: D1, exercises: \"D2:D9\" }\n");
+
+        config.setConfigPath(configFile.toString());
+        config.loadConfiguration();
+
+        assertEquals("compact", config.getDefaultLayout());
+        assertEquals(List.of("compact"), List.copyOf(config.getLayouts().keySet()));
+        RoutineLayoutConfig.Layout layout = config.getLayout(null);
+        assertEquals(2, layout.getWorkouts().size());
+        assertEquals(new RoutineLayoutConfig.Workout("A1", "A2:A9", "B", null, "A10"), layout.getWorkouts().get(0));
+        assertNull(layout.getWorkouts().get(1).getRest());
+    }
+
+    @Test
+    void testLoadConfigurationWithNonExistentFile() {
+        config.setConfigPath("/non/existent/file.yml");
+        config.loadConfiguration();
+
+        assertEquals(RoutineLayoutConfig.STANDARD_LAYOUT, config.getDefaultLayout());
+        assertEquals(5, config.getLayout(null).getWorkouts().size());
+    }
+
+    @Test
+    void testInvalidLayoutIsSkipped(@TempDir Path tempDir) throws IOException {
+        Path configFile = tempDir.resolve("invalid-layouts.yml");
+        Files.writeString(configFile,
+                "default-layout: wide\n" +
+                "layouts:\n" +
+                "  wide:\n" +
+                "    workouts:\n" +
+                "      - { name: A1, exercises: \"A2:C9\" }\n" +
+                "  narrow:\n" +
+                "    workouts:\n" +
+                "      - { name: A1, exercises: \"A2:A9\" }\n");
+
+        config.setConfigPath(configFile.toString());
+        config.loadConfiguration();
+
+        assertFalse(config.getLayouts().containsKey("wide"));
+        assertEquals("narrow", config.getDefaultLayout());
+        assertThrows(IllegalArgumentException.class, () -> config.getLayout("wide"));
+    }
+
+    @Test
+    void testShippedLayoutsFileMatchesBuiltInStandardLayout() {
+        RoutineLayoutConfig.Layout builtIn = config.getLayout(RoutineLayoutConfig.STANDARD_LAYOUT);
+
+        config.setConfigPath("routine-layouts.yml");
+        config.loadConfiguration();
+
+        assertEquals(RoutineLayoutConfig.STANDARD_LAYOUT, config.getDefaultLayout());
+        assertEquals(builtIn, config.getLayout(RoutineLayoutConfig.STANDARD_LAYOUT));
+        assertTrue(config.getLayouts().size() > 1);
+    }
+}
@@ -1,6 +1,9 @@
 package com.kraftlog.pdfimport.controller;
 
+import com.kraftlog.pdfimport.dto.ParsedExerciseData;
+import com.kraftlog.pdfimport.dto.PdfParseOptions;
 import com.kraftlog.pdfimport.service.ExerciseImportService;
+import com.kraftlog.pdfimport.service.InvalidPdfParseOptionsException;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -14,9 +17,11 @@ import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -43,7 +48,7 @@ class ImportControllerTest {
 
         when(exerciseImportService.importExercisesFromPdf(any(File.class))).thenReturn(mockResult);
 
-        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile);
+        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile, null, null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -68,7 +73,7 @@ class ImportControllerTest {
 
         when(exerciseImportService.importExercisesFromPdf(any(File.class))).thenReturn(mockResult);
 
-        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile);
+        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile, null, null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -88,7 +93,7 @@ class ImportControllerTest {
                 new byte[0]
         );
 
-        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile);
+        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile, null, null, null, null);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -105,7 +110,7 @@ class ImportControllerTest {
                 "Text content".getBytes()
         );
 
-        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile);
+        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile, null, null, null, null);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -125,7 +130,7 @@ class ImportControllerTest {
         when(exerciseImportService.importExercisesFromPdf(any(File.class)))
                 .thenThrow(new IOException("Failed to process PDF"));
 
-        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile);
+        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile, null, null, null, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -145,7 +150,7 @@ class ImportControllerTest {
         when(exerciseImportService.importExercisesFromPdf(any(File.class)))
                 .thenThrow(new IllegalArgumentException("No exercises found"));
 
-        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile);
+        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile, null, null, null, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -170,7 +175,7 @@ class ImportControllerTest {
         when(mockFile.getOriginalFilename()).thenReturn(null);
 
         assertThrows(NullPointerException.class, () -> 
-            importController.importExercisesFromPdf(mockFile)
+            importController.importExercisesFromPdf(mockFile, null, null, null, null)
         );
     }
 
@@ -188,7 +193,7 @@ class ImportControllerTest {
 
         when(exerciseImportService.importExercisesFromPdf(any(File.class))).thenReturn(mockResult);
 
-        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile);
+        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile, null, null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
@@ -207,7 +212,7 @@ class ImportControllerTest {
 
         when(exerciseImportService.importExercisesFromPdf(any(File.class))).thenReturn(mockResult);
 
-        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile);
+        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile, null, null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
@@ -227,7 +232,7 @@ class ImportControllerTest {
 
         when(exerciseImportService.importExercisesFromPdf(any(File.class))).thenReturn(mockResult);
 
-        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile);
+        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile, null, null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -250,9 +255,90 @@ class ImportControllerTest {
 
         when(exerciseImportService.importExercisesFromPdf(any(File.class))).thenReturn(mockResult);
 
-        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile);
+        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile, null, null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(exerciseImportService, times(1)).importExercisesFromPdf(any(File.class));
     }
+
+    @Test
+    void testImportExercisesFromPdfWithPageRange() throws Exception {
+        MockMultipartFile mockFile = new MockMultipartFile(
+                "file",
+                "test.pdf",
+                "application/pdf",
+                "PDF content".getBytes()
+        );
+
+        ExerciseImportService.ImportResult mockResult = new ExerciseImportService.ImportResult();
+        mockResult.incrementSuccess();
+
+        PdfParseOptions expectedOptions = PdfParseOptions.builder().startPage(2).endPage(3).build();
+        when(exerciseImportService.importExercisesFromPdf(any(File.class), eq(expectedOptions))).thenReturn(mockResult);
+
+        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile, 2, 3, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().get("successful"));
+        verify(exerciseImportService, never()).importExercisesFromPdf(any(File.class));
+    }
+
+    @Test
+    void testImportExercisesFromPdfInvalidPageRange() throws Exception {
+        MockMultipartFile mockFile = new MockMultipartFile(
+                "file",
+                "test.pdf",
+                "application/pdf",
+                "PDF content".getBytes()
+        );
+
+        when(exerciseImportService.importExercisesFromPdf(any(File.class), any(PdfParseOptions.class)))
+                .thenThrow(new InvalidPdfParseOptionsException("Start page 9 is outside the document (1-3)"));
+
+        ResponseEntity<Map<String, Object>> response = importController.importExercisesFromPdf(mockFile, 9, null, null, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("error", response.getBody().get("status"));
+        assertEquals("Start page 9 is outside the document (1-3)", response.getBody().get("message"));
+    }
+
+    @Test
+    void testPreviewExercisesFromPdf() throws Exception {
+        MockMultipartFile mockFile = new MockMultipartFile(
+                "file",
+                "test.pdf",
+                "application/pdf",
+                "PDF content".getBytes()
+        );
+
+        List<ParsedExerciseData> exercises = List.of(
+                ParsedExerciseData.builder().name("Supino Reto").muscleGroup("Chest").build());
+        when(exerciseImportService.previewExercisesFromPdf(any(File.class), any(PdfParseOptions.class)))
+                .thenReturn(exercises);
+
+        ResponseEntity<Map<String, Object>> response = importController.previewExercisesFromPdf(mockFile, null, null, 5, Set.of("PEITORAL"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().get("count"));
+        assertEquals(exercises, response.getBody().get("exercises"));
+        verify(exerciseImportService, never()).importExercisesFromPdf(any(File.class));
+    }
+
+    @Test
+    void testPreviewExercisesFromPdfInvalidPageRange() throws Exception {
+        MockMultipartFile mockFile = new MockMultipartFile(
+                "file",
+                "test.pdf",
+                "application/pdf",
+                "PDF content".getBytes()
+        );
+
+        when(exerciseImportService.previewExercisesFromPdf(any(File.class), any(PdfParseOptions.class)))
+                .thenThrow(new InvalidPdfParseOptionsException("Start page 9 is outside the document (1-3)"));
+
+        ResponseEntity<Map<String, Object>> response = importController.previewExercisesFromPdf(mockFile, 9, null, 5, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("error", response.getBody().get("status"));
+    }
 }
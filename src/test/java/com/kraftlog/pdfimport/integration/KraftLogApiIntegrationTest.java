@@ -3,6 +3,7 @@ package com.kraftlog.pdfimport.integration;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.kraftlog.pdfimport.config.KraftLogApiProperties;
 import com.kraftlog.pdfimport.service.ExerciseImportService;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
@@ -44,6 +45,9 @@ class KraftLogApiIntegrationTest {
     @Autowired
     private ExerciseImportService exerciseImportService;
 
+    @Autowired
+    private KraftLogApiProperties apiProperties;
+
     @BeforeAll
     static void startWireMock() {
         wireMockServer = new WireMockServer(WireMockConfiguration.options().dynamicPort());
@@ -298,6 +302,79 @@ class KraftLogApiIntegrationTest {
         }
     }
 
+    @Test
+    @Order(8)
+    @DisplayName("Integration: Should create exercises through the bulk endpoint when batching is enabled")
+    void testBatchExerciseImport() throws IOException {
+        // Given: Bulk endpoint creating the first exercise and rejecting the second
+        wireMockServer.stubFor(post(urlEqualTo("/api/exercises/batch"))
+                .withHeader("Authorization", equalTo("Bearer test-token-12345"))
+                .willReturn(aResponse()
+                        .withStatus(207)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("[{\"id\":\"1\",\"name\":\"Supino Reto\"},{\"error\":\"Duplicate exercise\"}]")));
+
+        File testPdf = createTestPdfWithMultipleExercises();
+        apiProperties.getBatch().setEnabled(true);
+
+        try {
+            // When: Import exercises
+            ExerciseImportService.ImportResult result = 
+                    exerciseImportService.importExercisesFromPdf(testPdf);
+
+            // Then: One bulk request, with per-exercise results
+            assertThat(result.getSuccessCount()).isEqualTo(1);
+            assertThat(result.getFailureCount()).isEqualTo(1);
+            assertThat(result.getFailures().get(0).getExerciseName()).isEqualTo("Puxada");
+            assertThat(result.getFailures().get(0).getReason()).isEqualTo("Duplicate exercise");
+
+            wireMockServer.verify(1, postRequestedFor(urlEqualTo("/api/exercises/batch"))
+                    .withRequestBody(matchingJsonPath("$[0].name", equalTo("Supino Reto")))
+                    .withRequestBody(matchingJsonPath("$[1].name", equalTo("Puxada"))));
+            wireMockServer.verify(0, postRequestedFor(urlEqualTo("/api/exercises")));
+        } finally {
+            apiProperties.getBatch().setEnabled(false);
+            testPdf.delete();
+        }
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("Integration: Should fall back to per-exercise creation when there is no bulk endpoint")
+    void testBatchFallbackWhenBulkEndpointMissing() throws IOException {
+        // Given: No bulk endpoint, single-exercise endpoint available
+        wireMockServer.stubFor(post(urlEqualTo("/api/exercises/batch"))
+                .willReturn(aResponse().withStatus(404)));
+        wireMockServer.stubFor(post(urlEqualTo("/api/exercises"))
+                .withHeader("Authorization", equalTo("Bearer test-token-12345"))
+                .willReturn(aResponse()
+                        .withStatus(201)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\":\"1\",\"name\":\"Exercise\"}")));
+
+        File testPdf = createTestPdfWithMultipleExercises();
+        apiProperties.getBatch().setEnabled(true);
+
+        try {
+            // When: Import exercises twice
+            ExerciseImportService.ImportResult first = 
+                    exerciseImportService.importExercisesFromPdf(testPdf);
+            ExerciseImportService.ImportResult second = 
+                    exerciseImportService.importExercisesFromPdf(testPdf);
+
+            // Then: Every exercise created one at a time, and the bulk endpoint only tried once
+            assertThat(first.getSuccessCount()).isEqualTo(2);
+            assertThat(first.getFailureCount()).isEqualTo(0);
+            assertThat(second.getSuccessCount()).isEqualTo(2);
+
+            wireMockServer.verify(1, postRequestedFor(urlEqualTo("/api/exercises/batch")));
+            wireMockServer.verify(4, postRequestedFor(urlEqualTo("/api/exercises")));
+        } finally {
+            apiProperties.getBatch().setEnabled(false);
+            testPdf.delete();
+        }
+    }
+
     // Helper methods
 
     private File createTestPdfFile() throws IOException {
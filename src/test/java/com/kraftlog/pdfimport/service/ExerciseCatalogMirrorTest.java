@@ -0,0 +1,192 @@
+package com.kraftlog.pdfimport.service;
+
+import com.kraftlog.pdfimport.client.KraftLogApiClient;
+import com.kraftlog.pdfimport.config.ExerciseCatalogProperties;
+import com.kraftlog.pdfimport.dto.ParsedExerciseData;
+import com.kraftlog.pdfimport.text.ExerciseMatchIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class ExerciseCatalogMirrorTest {
+
+    private static final LocalDateTime JAN_15 = LocalDateTime.of(2024, 1, 15, 10, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private ExerciseCatalogProperties properties() {
+        ExerciseCatalogProperties properties = new ExerciseCatalogProperties();
+        properties.setEnabled(true);
+        properties.setSnapshotFile(tempDir.resolve("catalog.json").toString());
+        return properties;
+    }
+
+    private static ParsedExerciseData exercise(String id, String name, String muscleGroup, LocalDateTime updatedAt) {
+        return ParsedExerciseData.builder()
+                .id(id)
+                .name(name)
+                .muscleGroup(muscleGroup)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    @Test
+    void testIncrementalSyncFetchesOnlyChangesSinceTheNewestUpdate() throws Exception {
+        KraftLogApiClient apiClient = mock(KraftLogApiClient.class);
+        when(apiClient.listExercises(isNull())).thenReturn(List.of(
+                exercise("1", "Supino Reto", "Chest", JAN_15.minusDays(1)),
+                exercise("2", "Remada Curvada", "Back", JAN_15)));
+        when(apiClient.listExercises(JAN_15)).thenReturn(List.of(
+                exercise("2", "Remada Curvada", "Lats", JAN_15.plusHours(1)),
+                exercise("3", "Agachamento Livre", "Legs", JAN_15.plusHours(2))));
+        ExerciseCatalogMirror mirror = new ExerciseCatalogMirror(apiClient, properties());
+
+        mirror.sync();
+        assertEquals("Chest", mirror.find("SUPINO  reto").orElseThrow().getMuscleGroup());
+
+        mirror.sync();
+        assertEquals("Lats", mirror.find("Remada Curvada").orElseThrow().getMuscleGroup());
+        assertEquals("3", mirror.find("agachamento livre").orElseThrow().getId());
+        assertTrue(mirror.find("Leg Press").isEmpty());
+
+        verify(apiClient, times(1)).listExercises(isNull());
+        verify(apiClient, times(1)).listExercises(JAN_15);
+        assertEquals(3, mirror.getStats().get("exercises"));
+        assertEquals(JAN_15.plusHours(2).toString(), mirror.getStats().get("latestUpdate"));
+        assertEquals(3L, mirror.getStats().get("hits"));
+        assertEquals(1L, mirror.getStats().get("misses"));
+    }
+
+    @Test
+    void testCloseNamesMatchWithTheirScore() throws Exception {
+        KraftLogApiClient apiClient = mock(KraftLogApiClient.class);
+        when(apiClient.listExercises(isNull())).thenReturn(List.of(
+                exercise("1", "Supino Inclinado com Halteres", "Chest", JAN_15),
+                exercise("2", "Levantamento Terra Romeno", "Legs", JAN_15)));
+        ExerciseCatalogMirror mirror = new ExerciseCatalogMirror(apiClient, properties());
+        mirror.sync();
+
+        ExerciseMatchIndex.Match<ParsedExerciseData> exact = mirror.match("Supino Inclinado c/ Halteres").orElseThrow();
+        assertEquals("1", exact.value().getId());
+        assertEquals(1.0, exact.score());
+
+        ExerciseMatchIndex.Match<ParsedExerciseData> close = mirror.match("Levantamento Terra Romena").orElseThrow();
+        assertEquals("Levantamento Terra Romeno", close.name());
+        assertTrue(close.score() < 1);
+
+        assertTrue(mirror.match("Supino Declinado").isEmpty());
+        assertEquals(2L, mirror.getStats().get("hits"));
+        assertEquals(1L, mirror.getStats().get("fuzzyHits"));
+    }
+
+    @Test
+    void testFullSyncDropsDeletedExercises() throws Exception {
+        KraftLogApiClient apiClient = mock(KraftLogApiClient.class);
+        when(apiClient.listExercises(isNull()))
+                .thenReturn(List.of(exercise("1", "Supino Reto", "Chest", JAN_15),
+                        exercise("2", "Remada Curvada", "Back", JAN_15)))
+                .thenReturn(List.of(exercise("1", "Supino Reto", "Chest", JAN_15)));
+        ExerciseCatalogProperties properties = properties();
+        properties.setFullSyncInterval(Duration.ZERO);
+        ExerciseCatalogMirror mirror = new ExerciseCatalogMirror(apiClient, properties);
+
+        mirror.sync();
+        mirror.sync();
+
+        assertTrue(mirror.find("Remada Curvada").isEmpty());
+        verify(apiClient, never()).listExercises(any(LocalDateTime.class));
+    }
+
+    @Test
+    void testAddedExerciseIsFoundBeforeTheNextSync() throws Exception {
+        KraftLogApiClient apiClient = mock(KraftLogApiClient.class);
+        when(apiClient.listExercises(isNull())).thenReturn(List.of(exercise("1", "Supino Reto", "Chest", JAN_15)));
+        ExerciseCatalogMirror mirror = new ExerciseCatalogMirror(apiClient, properties());
+        mirror.sync();
+
+        mirror.add(exercise("7", "Crucifixo Inclinado", "Chest", null));
+
+        assertEquals("7", mirror.find("crucifixo inclinado").orElseThrow().getId());
+        assertEquals("1", mirror.find("Supino Reto").orElseThrow().getId());
+        assertEquals(1, mirror.getStats().get("exercises"));
+        assertEquals(1, mirror.getStats().get("pendingExercises"));
+    }
+
+    @Test
+    void testNextSyncFoldsAddedExercisesIntoTheCatalog() throws Exception {
+        KraftLogApiClient apiClient = mock(KraftLogApiClient.class);
+        when(apiClient.listExercises(isNull())).thenReturn(List.of(exercise("1", "Supino Reto", "Chest", JAN_15)));
+        when(apiClient.listExercises(JAN_15)).thenReturn(List.of());
+        ExerciseCatalogMirror mirror = new ExerciseCatalogMirror(apiClient, properties());
+        mirror.sync();
+
+        mirror.add(exercise("7", "Crucifixo Inclinado", "Chest", JAN_15.plusDays(1)));
+        assertTrue(mirror.find("Crucifixo Inclinada").isEmpty());
+        mirror.sync();
+
+        assertEquals(2, mirror.getStats().get("exercises"));
+        assertEquals(0, mirror.getStats().get("pendingExercises"));
+        // Now in the index, so close names match too
+        assertEquals("7", mirror.find("Crucifixo Inclinada").orElseThrow().getId());
+        // Only fetched exercises move the sync point
+        assertEquals(JAN_15.toString(), mirror.getStats().get("latestUpdate"));
+    }
+
+    @Test
+    void testRestartLoadsTheSnapshotAndSyncsIncrementally() throws Exception {
+        ExerciseCatalogProperties properties = properties();
+        KraftLogApiClient apiClient = mock(KraftLogApiClient.class);
+        when(apiClient.listExercises(isNull())).thenReturn(List.of(exercise("1", "Supino Reto", "Chest", JAN_15)));
+        new ExerciseCatalogMirror(apiClient, properties).sync();
+
+        KraftLogApiClient restartedClient = mock(KraftLogApiClient.class);
+        when(restartedClient.listExercises(JAN_15)).thenReturn(List.of());
+        ExerciseCatalogMirror restarted = new ExerciseCatalogMirror(restartedClient, properties);
+        restarted.loadSnapshot();
+
+        assertEquals("1", restarted.find("Supino Reto").orElseThrow().getId());
+        restarted.sync();
+        verify(restartedClient, never()).listExercises(isNull());
+        verify(restartedClient).listExercises(JAN_15);
+    }
+
+    @Test
+    void testFailedSyncKeepsTheCatalog() throws Exception {
+        KraftLogApiClient apiClient = mock(KraftLogApiClient.class);
+        when(apiClient.listExercises(isNull())).thenReturn(List.of(exercise("1", "Supino Reto", "Chest", JAN_15)));
+        when(apiClient.listExercises(JAN_15)).thenThrow(new IOException("Failed to list exercises"));
+        ExerciseCatalogMirror mirror = new ExerciseCatalogMirror(apiClient, properties());
+        mirror.sync();
+
+        assertThrows(IOException.class, mirror::sync);
+
+        assertEquals("1", mirror.find("Supino Reto").orElseThrow().getId());
+        assertEquals(1L, mirror.getStats().get("syncs"));
+    }
+
+    @Test
+    void testDisabledMirrorFindsNothing() throws Exception {
+        KraftLogApiClient apiClient = mock(KraftLogApiClient.class);
+        when(apiClient.listExercises(isNull())).thenReturn(List.of(exercise("1", "Supino Reto", "Chest", JAN_15)));
+        ExerciseCatalogProperties properties = properties();
+        properties.setEnabled(false);
+        ExerciseCatalogMirror mirror = new ExerciseCatalogMirror(apiClient, properties);
+
+        mirror.start();
+        mirror.add(exercise("7", "Crucifixo Inclinado", "Chest", null));
+
+        assertTrue(mirror.find("Crucifixo Inclinado").isEmpty());
+        verifyNoInteractions(apiClient);
+    }
+}
@@ -1,9 +1,12 @@
 package com.kraftlog.pdfimport.service;
 
+import com.kraftlog.pdfimport.client.ExerciseBatchInterruptedException;
 import com.kraftlog.pdfimport.client.KraftLogApiClient;
 import com.kraftlog.pdfimport.config.MuscleGroupMappingConfig;
 import com.kraftlog.pdfimport.dto.ExerciseCreateRequest;
+import com.kraftlog.pdfimport.dto.ExerciseCreateResult;
 import com.kraftlog.pdfimport.dto.ParsedExerciseData;
+import com.kraftlog.pdfimport.dto.PdfParseOptions;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -17,6 +20,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -130,6 +134,39 @@ class ExerciseImportServiceTest {
         assertTrue(result.getFailures().get(0).getReason().contains("API error"));
     }
 
+    @Test
+    void testInterruptedBatchImportKeepsFinishedResults() throws Exception {
+        File mockFile = mock(File.class);
+        when(mockFile.getName()).thenReturn("test.pdf");
+
+        List<ParsedExerciseData> parsedExercises = List.of(
+                ParsedExerciseData.builder().name("Bench Press").build(),
+                ParsedExerciseData.builder().name("Squat").build(),
+                ParsedExerciseData.builder().name("Deadlift").build());
+
+        when(pdfParser.parseExercisesFromPdf(mockFile)).thenReturn(parsedExercises);
+        when(apiClient.isBatchEnabled()).thenReturn(true);
+        when(apiClient.createExercises(anyList())).thenThrow(new ExerciseBatchInterruptedException(List.of(
+                ExerciseCreateResult.builder()
+                        .name("Bench Press")
+                        .created(ParsedExerciseData.builder().id("ex1").name("Bench Press").build())
+                        .build())));
+
+        try {
+            ExerciseImportService.ImportResult result = exerciseImportService.importExercisesFromPdf(mockFile);
+
+            assertEquals(3, result.getTotalCount());
+            assertEquals(1, result.getSuccessCount());
+            assertEquals(List.of("Squat", "Deadlift"), result.getFailures().stream()
+                    .map(ExerciseImportService.ImportFailure::getExerciseName)
+                    .toList());
+            assertEquals("Import interrupted", result.getFailures().get(0).getReason());
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
     @Test
     void testImportExercisesFromPdfNoExercisesFound() throws Exception {
         File mockFile = mock(File.class);
@@ -267,4 +304,36 @@ class ExerciseImportServiceTest {
             exerciseImportService.importExercisesFromPdf(mockFile)
         );
     }
+
+    @Test
+    void testImportExercisesFromPdfWithOptions() throws Exception {
+        File mockFile = mock(File.class);
+        when(mockFile.getName()).thenReturn("test.pdf");
+        PdfParseOptions options = PdfParseOptions.builder().startPage(2).limit(1).build();
+
+        when(pdfParser.parseExercisesFromPdf(mockFile, options)).thenReturn(List.of(
+                ParsedExerciseData.builder().name("Bench Press").muscleGroupPortuguese("PEITORAL").build()));
+        when(apiClient.createExercise(any(ExerciseCreateRequest.class)))
+                .thenReturn(ParsedExerciseData.builder().id("ex1").build());
+
+        ExerciseImportService.ImportResult result = exerciseImportService.importExercisesFromPdf(mockFile, options);
+
+        assertEquals(1, result.getSuccessCount());
+        verify(pdfParser, never()).parseExercisesFromPdf(mockFile);
+    }
+
+    @Test
+    void testPreviewExercisesFromPdfMapsMuscleGroupsWithoutImporting() throws Exception {
+        File mockFile = mock(File.class);
+        PdfParseOptions options = PdfParseOptions.builder().limit(5).build();
+
+        when(pdfParser.parseExercisesFromPdf(mockFile, options)).thenReturn(List.of(
+                ParsedExerciseData.builder().name("Bench Press").muscleGroupPortuguese("PEITORAL").build()));
+
+        List<ParsedExerciseData> preview = exerciseImportService.previewExercisesFromPdf(mockFile, options);
+
+        assertEquals(1, preview.size());
+        assertEquals(muscleGroupConfig.getMuscleGroupEnglishName("PEITORAL"), preview.get(0).getMuscleGroup());
+        verify(apiClient, never()).createExercise(any(ExerciseCreateRequest.class));
+    }
 }
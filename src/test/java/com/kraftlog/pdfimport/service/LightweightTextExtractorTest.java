@@ -0,0 +1,188 @@
+package com.kraftlog.pdfimport.service;
+
+import com.kraftlog.pdfimport.config.PdfParserProperties;
+import com.kraftlog.pdfimport.dto.ParsedExerciseData;
+import com.kraftlog.pdfimport.dto.PdfParseOptions;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Parity of the lightweight extractor with the PDFTextStripper based one.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "kraftlog.muscle-groups.config-path=exercise-muscle-groups.yml"
+})
+class LightweightTextExtractorTest {
+
+    @Autowired
+    private PdfLineClassifier lineClassifier;
+
+    @Test
+    void testLinesMatchStripperForMultiPageCatalog(@TempDir Path tempDir) throws IOException {
+        File pdfFile = PdfParserServiceTest.createMultiPagePdf(tempDir.resolve("catalog.pdf").toFile(), 7);
+
+        assertSameLines(pdfFile, false);
+    }
+
+    @Test
+    void testLinesMatchStripperForTableColumns(@TempDir Path tempDir) throws IOException {
+        File pdfFile = createTablePdf(tempDir.resolve("table.pdf").toFile());
+
+        List<String> lines = assertSameLines(pdfFile, false);
+        assertTrue(lines.contains("Supino Reto Barra https://www.youtube.com/watch?v=supino"));
+    }
+
+    @Test
+    void testLinesAndLinksMatchStripperWithAnnotations(@TempDir Path tempDir) throws IOException {
+        File pdfFile = PdfParserServiceTest.createLinkedPdf(tempDir.resolve("linked.pdf").toFile());
+
+        List<String> lines = assertSameLines(pdfFile, true);
+        assertTrue(lines.contains("Supino Reto -> https://www.youtube.com/watch?v=supino"));
+    }
+
+    @Test
+    void testParsedExercisesMatchStripper(@TempDir Path tempDir) throws IOException {
+        File pdfFile = PdfParserServiceTest.createMultiPagePdf(tempDir.resolve("catalog.pdf").toFile(), 9);
+
+        PdfParserService stripperParser = parser(PdfParserProperties.Engine.STRIPPER);
+        PdfParserService lightweightParser = parser(PdfParserProperties.Engine.LIGHTWEIGHT);
+
+        List<ParsedExerciseData> expected = stripperParser.parseExercisesFromPdf(pdfFile);
+        assertEquals(9 * 4, expected.size());
+        assertEquals(expected, lightweightParser.parseExercisesFromPdf(pdfFile));
+    }
+
+    @Test
+    void testPageRangeAndLimitMatchStripper(@TempDir Path tempDir) throws IOException {
+        File pdfFile = PdfParserServiceTest.createMultiPagePdf(tempDir.resolve("catalog.pdf").toFile(), 9);
+        PdfParseOptions options = PdfParseOptions.builder().startPage(5).endPage(8).limit(6).build();
+
+        List<ParsedExerciseData> expected = parser(PdfParserProperties.Engine.STRIPPER)
+                .parseExercisesFromPdf(pdfFile, options);
+        List<ParsedExerciseData> actual = parser(PdfParserProperties.Engine.LIGHTWEIGHT)
+                .parseExercisesFromPdf(pdfFile, options);
+
+        assertEquals(6, expected.size());
+        assertEquals(expected, actual);
+        assertEquals("Exercise 5-1", actual.get(0).getName());
+        assertEquals("DORSAIS", actual.get(0).getMuscleGroupPortuguese());
+    }
+
+    @Test
+    void testStopAfterCurrentPageSkipsLaterPages(@TempDir Path tempDir) throws IOException {
+        File pdfFile = PdfParserServiceTest.createMultiPagePdf(tempDir.resolve("catalog.pdf").toFile(), 4);
+
+        try (PDDocument document = Loader.loadPDF(pdfFile)) {
+            List<String> lines = new ArrayList<>();
+            LightweightTextExtractor extractor = new LightweightTextExtractor();
+            extractor.setStartPage(2);
+            extractor.stripLines(document, line -> {
+                lines.add(line);
+                extractor.stopAfterCurrentPage();
+            });
+
+            assertEquals(4, lines.size());
+            assertTrue(lines.get(0).startsWith("Exercise 2-1"));
+            assertTrue(lines.get(3).startsWith("Exercise 2-4"));
+        }
+    }
+
+    private PdfParserService parser(PdfParserProperties.Engine engine) {
+        PdfParserProperties properties = new PdfParserProperties();
+        properties.setEngine(engine);
+        return new PdfParserService(lineClassifier, properties, ParseResultCache.disabled());
+    }
+
+    /**
+     * Asserts that both extractors produce the same non-blank lines with the same links, and
+     * returns those lines.
+     */
+    private static List<String> assertSameLines(File pdfFile, boolean readLinkAnnotations) throws IOException {
+        try (PDDocument document = Loader.loadPDF(pdfFile)) {
+            List<String> expected = extractLines(new ExerciseTextStripper(readLinkAnnotations), document);
+            List<String> actual = extractLines(new LightweightTextExtractor(readLinkAnnotations), document);
+
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, actual);
+            return actual;
+        }
+    }
+
+    private static List<String> extractLines(PdfLineExtractor extractor, PDDocument document) throws IOException {
+        List<String> lines = new ArrayList<>();
+        extractor.stripLinesWithLinks(document, (line, linkUrl) -> {
+            if (!line.isBlank()) {
+                lines.add(linkUrl == null ? line.trim() : line.trim() + " -> " + linkUrl);
+            }
+        });
+        return lines;
+    }
+
+    /**
+     * Builds a page whose rows are drawn cell by cell, with each column in its own text object
+     * and some cells split across several show operators and fonts.
+     */
+    private static File createTablePdf(File file) throws IOException {
+        PDType1Font regular = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        PDType1Font bold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+
+            try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+                contentStream.beginText();
+                contentStream.setFont(bold, 14);
+                contentStream.newLineAtOffset(50, 740);
+                contentStream.showText("PEITORAL");
+                contentStream.endText();
+
+                String[][] rows = {
+                        {"Supino Reto", " Barra", "https://www.youtube.com/watch?v=supino"},
+                        {"Crucifixo", " Halteres", "https://youtu.be/crucifixo"},
+                        {"Flexão", "", ""}
+                };
+                float y = 710;
+                for (String[] row : rows) {
+                    contentStream.beginText();
+                    contentStream.setFont(regular, 11);
+                    contentStream.newLineAtOffset(50, y);
+                    contentStream.showText(row[0]);
+                    contentStream.setFont(bold, 11);
+                    contentStream.showText(row[1]);
+                    contentStream.endText();
+
+                    if (!row[2].isEmpty()) {
+                        contentStream.beginText();
+                        contentStream.setFont(regular, 9);
+                        contentStream.newLineAtOffset(300, y);
+                        contentStream.showText(row[2]);
+                        contentStream.endText();
+                    }
+                    y -= 18;
+                }
+            }
+
+            document.save(file);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,87 @@
+package com.kraftlog.pdfimport.service;
+
+import com.kraftlog.pdfimport.config.MuscleGroupKeywordsConfig;
+import com.kraftlog.pdfimport.config.MuscleGroupMappingConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MuscleGroupClassifierTest {
+
+    private MuscleGroupClassifier classifier;
+
+    @BeforeEach
+    void setUp() {
+        MuscleGroupMappingConfig muscleGroupConfig = new MuscleGroupMappingConfig();
+        muscleGroupConfig.setConfigPath("exercise-muscle-groups.yml");
+        muscleGroupConfig.loadConfiguration();
+
+        MuscleGroupKeywordsConfig keywordsConfig = new MuscleGroupKeywordsConfig();
+        keywordsConfig.setConfigPath("exercise-keywords.yml");
+        keywordsConfig.loadConfiguration();
+
+        classifier = new MuscleGroupClassifier(muscleGroupConfig, keywordsConfig);
+    }
+
+    @Test
+    void testKeywordsIgnoreCaseAccentsAndPunctuation() {
+        assertEquals("CHEST", classifier.classify("Supino Reto c/ Barra"));
+        assertEquals("SHOULDERS", classifier.classify("ELEVAÇÃO   LATERAL"));
+        assertEquals("SHOULDERS", classifier.classify("Elevacoes laterais na polia"));
+        assertEquals("LEGS", classifier.classify("1. Leg-Press 45°"));
+        assertEquals("BACK", classifier.classify("Remadas Curvadas"));
+    }
+
+    @Test
+    void testLongestKeywordWins() {
+        assertEquals("BICEPS", classifier.classify("Rosca Direta"));
+        assertEquals("TRICEPS", classifier.classify("Rosca Francesa"));
+        assertEquals("TRICEPS", classifier.classify("Supino Fechado"));
+        assertEquals("SHOULDERS", classifier.classify("Crucifixo Inverso"));
+        assertEquals("BACK", classifier.classify("Levantamento Terra"));
+        assertEquals("LEGS", classifier.classify("Levantamento Terra Romeno"));
+        assertEquals("FOREARMS", classifier.classify("Flexão de Punho"));
+    }
+
+    @Test
+    void testMuscleGroupNamesAreKeywordsToo() {
+        assertEquals("TRICEPS", classifier.classify("Tríceps Corda"));
+        assertEquals("TRICEPS", classifier.classify("Rosca Tríceps"));
+        assertEquals("CHEST", classifier.classify("Peitoral Máquina"));
+    }
+
+    @Test
+    void testKeywordsOnlyMatchAtTheStartOfAWord() {
+        assertEquals(MuscleGroupClassifier.OTHER, classifier.classify("Transupino"));
+        assertEquals(MuscleGroupClassifier.OTHER, classifier.classify("Burpee"));
+        assertEquals(MuscleGroupClassifier.OTHER, classifier.classify(""));
+        assertEquals(MuscleGroupClassifier.OTHER, classifier.classify(null));
+    }
+
+    @Test
+    void testTiesGoToTheKeywordConfiguredFirst() {
+        Map<String, List<String>> keywords = new LinkedHashMap<>();
+        keywords.put("CHEST", List.of("supino"));
+        keywords.put("TRICEPS", List.of("Supino", "mergulho"));
+        MuscleGroupKeywordsConfig keywordsConfig = new MuscleGroupKeywordsConfig();
+        keywordsConfig.setKeywords(keywords);
+
+        MuscleGroupClassifier custom = new MuscleGroupClassifier(new MuscleGroupMappingConfig(), keywordsConfig);
+
+        assertEquals("CHEST", custom.classify("Supino Inclinado"));
+        assertEquals("TRICEPS", custom.classify("Mergulho no Banco"));
+        assertEquals(MuscleGroupClassifier.OTHER, custom.classify("Agachamento"));
+    }
+
+    @Test
+    void testNoConfigurationClassifiesEverythingAsOther() {
+        MuscleGroupClassifier empty = new MuscleGroupClassifier(new MuscleGroupMappingConfig(), new MuscleGroupKeywordsConfig());
+
+        assertEquals(MuscleGroupClassifier.OTHER, empty.classify("Supino Reto"));
+    }
+}
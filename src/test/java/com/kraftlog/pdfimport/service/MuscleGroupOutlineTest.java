@@ -0,0 +1,91 @@
+package com.kraftlog.pdfimport.service;
+
+import com.kraftlog.pdfimport.service.MuscleGroupOutline.PageRange;
+import com.kraftlog.pdfimport.service.MuscleGroupOutline.Section;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+    "kraftlog.muscle-groups.config-path=exercise-muscle-groups.yml"
+})
+class MuscleGroupOutlineTest {
+
+    @Autowired
+    private PdfLineClassifier lineClassifier;
+
+    @Test
+    void testReadsMuscleGroupBookmarks(@TempDir Path tempDir) throws IOException {
+        MuscleGroupOutline outline = readOutline(tempDir, 12);
+
+        assertEquals(List.of(
+                new Section("PEITORAL", 1),
+                new Section("DORSAIS", 4),
+                new Section("OMBROS", 7),
+                new Section("TRÍCEPS", 10)), outline.getSections());
+    }
+
+    @Test
+    void testDocumentWithoutOutline(@TempDir Path tempDir) throws IOException {
+        File pdfFile = PdfParserServiceTest.createMultiPagePdf(tempDir.resolve("catalog.pdf").toFile(), 3);
+
+        try (PDDocument document = Loader.loadPDF(pdfFile)) {
+            MuscleGroupOutline outline = MuscleGroupOutline.read(document, lineClassifier);
+
+            assertTrue(outline.isEmpty());
+            assertNull(outline.muscleGroupBefore(3));
+            assertEquals(List.of(new PageRange(1, 2), new PageRange(3, 3)), outline.splitAtSections(1, 3, 2));
+        }
+    }
+
+    @Test
+    void testMuscleGroupBefore(@TempDir Path tempDir) throws IOException {
+        MuscleGroupOutline outline = readOutline(tempDir, 12);
+
+        assertNull(outline.muscleGroupBefore(1));
+        assertEquals("PEITORAL", outline.muscleGroupBefore(4));
+        assertEquals("DORSAIS", outline.muscleGroupBefore(5));
+    }
+
+    @Test
+    void testPageRangesIncludeNextSectionStartPage(@TempDir Path tempDir) throws IOException {
+        MuscleGroupOutline outline = readOutline(tempDir, 12);
+
+        assertEquals(List.of(new PageRange(4, 7)), outline.pageRanges(Set.of("DORSAIS"), 1, 12));
+        assertEquals(List.of(new PageRange(1, 7)), outline.pageRanges(Set.of("PEITORAL", "DORSAIS"), 1, 12));
+        assertEquals(List.of(new PageRange(1, 4), new PageRange(7, 10)),
+                outline.pageRanges(Set.of("PEITORAL", "OMBROS"), 1, 12));
+        assertEquals(List.of(new PageRange(10, 11)), outline.pageRanges(Set.of("TRÍCEPS"), 1, 11));
+        assertTrue(outline.hasSectionsFor(Set.of("OMBROS")));
+        assertFalse(outline.hasSectionsFor(Set.of("BÍCEPS")));
+    }
+
+    @Test
+    void testSplitAtSections(@TempDir Path tempDir) throws IOException {
+        MuscleGroupOutline outline = readOutline(tempDir, 12);
+
+        assertEquals(List.of(new PageRange(1, 3), new PageRange(4, 6), new PageRange(7, 9), new PageRange(10, 12)),
+                outline.splitAtSections(1, 12, 2));
+        assertEquals(List.of(new PageRange(1, 6), new PageRange(7, 12)), outline.splitAtSections(1, 12, 5));
+    }
+
+    private MuscleGroupOutline readOutline(Path tempDir, int pageCount) throws IOException {
+        File pdfFile = PdfParserServiceTest.createOutlinedPdf(tempDir.resolve("outlined.pdf").toFile(), pageCount);
+        try (PDDocument document = Loader.loadPDF(pdfFile)) {
+            return MuscleGroupOutline.read(document, lineClassifier);
+        }
+    }
+}
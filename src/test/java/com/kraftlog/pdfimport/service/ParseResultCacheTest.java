@@ -0,0 +1,192 @@
+package com.kraftlog.pdfimport.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.kraftlog.pdfimport.config.MuscleGroupMappingConfig;
+import com.kraftlog.pdfimport.config.ParseCacheProperties;
+import com.kraftlog.pdfimport.config.PdfLineRulesConfig;
+import com.kraftlog.pdfimport.dto.ParsedExerciseData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParseResultCacheTest {
+
+    private static final TypeReference<List<ParsedExerciseData>> EXERCISE_LIST = new TypeReference<>() {};
+
+    private static ParseResultCache newCache(ParseCacheProperties properties) {
+        return new ParseResultCache(properties, new MuscleGroupMappingConfig(), new PdfLineRulesConfig());
+    }
+
+    private static List<ParsedExerciseData> exercises(String name) {
+        return List.of(ParsedExerciseData.builder()
+                .name(name)
+                .muscleGroupPortuguese("PEITORAL")
+                .videoUrl("https://youtu.be/abc")
+                .build());
+    }
+
+    @Test
+    void testPutAndGetReturnsEqualCopy() {
+        ParseResultCache cache = newCache(new ParseCacheProperties());
+        List<ParsedExerciseData> value = exercises("Supino Reto");
+
+        cache.put("key", value);
+        List<ParsedExerciseData> first = cache.get("key", EXERCISE_LIST).orElseThrow();
+        List<ParsedExerciseData> second = cache.get("key", EXERCISE_LIST).orElseThrow();
+
+        assertEquals(value, first);
+        assertNotSame(first.get(0), second.get(0));
+        assertEquals(2L, cache.getStats().get("hits"));
+    }
+
+    @Test
+    void testMissIsCounted() {
+        ParseResultCache cache = newCache(new ParseCacheProperties());
+
+        assertTrue(cache.get("unknown", EXERCISE_LIST).isEmpty());
+        assertEquals(1L, cache.getStats().get("misses"));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        ParseCacheProperties properties = new ParseCacheProperties();
+        properties.setMaxEntries(2);
+        ParseResultCache cache = newCache(properties);
+
+        cache.put("a", exercises("A"));
+        cache.put("b", exercises("B"));
+        cache.get("a", EXERCISE_LIST);
+        cache.put("c", exercises("C"));
+
+        assertTrue(cache.get("a", EXERCISE_LIST).isPresent());
+        assertTrue(cache.get("b", EXERCISE_LIST).isEmpty());
+        assertTrue(cache.get("c", EXERCISE_LIST).isPresent());
+        assertEquals(1L, cache.getStats().get("evictions"));
+    }
+
+    @Test
+    void testEntriesAreBoundedByBytes() {
+        ParseCacheProperties properties = new ParseCacheProperties();
+        properties.setMaxBytes(10);
+        ParseResultCache cache = newCache(properties);
+
+        cache.put("a", exercises("A"));
+
+        assertTrue(cache.get("a", EXERCISE_LIST).isEmpty());
+        Map<String, Object> stats = cache.getStats();
+        assertEquals(0, stats.get("entries"));
+        assertEquals(0L, stats.get("bytes"));
+    }
+
+    @Test
+    void testDiskTierSurvivesNewInstance(@TempDir Path tempDir) {
+        ParseCacheProperties properties = new ParseCacheProperties();
+        properties.getDisk().setEnabled(true);
+        properties.getDisk().setDirectory(tempDir.toString());
+
+        newCache(properties).put("key", exercises("Remada Curvada"));
+
+        ParseResultCache restarted = newCache(properties);
+        Optional<List<ParsedExerciseData>> cached = restarted.get("key", EXERCISE_LIST);
+
+        assertTrue(cached.isPresent());
+        assertEquals("Remada Curvada", cached.get().get(0).getName());
+        assertEquals(1L, restarted.getStats().get("diskHits"));
+    }
+
+    @Test
+    void testDiskTierIsBounded(@TempDir Path tempDir) throws IOException {
+        ParseCacheProperties properties = new ParseCacheProperties();
+        properties.getDisk().setEnabled(true);
+        properties.getDisk().setDirectory(tempDir.toString());
+        properties.getDisk().setMaxEntries(2);
+        ParseResultCache cache = newCache(properties);
+
+        cache.put("a", exercises("A"));
+        cache.put("b", exercises("B"));
+        cache.put("c", exercises("C"));
+
+        try (var files = Files.list(tempDir)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    void testUnreadableDiskEntryIsDiscarded(@TempDir Path tempDir) throws IOException {
+        ParseCacheProperties properties = new ParseCacheProperties();
+        properties.getDisk().setEnabled(true);
+        properties.getDisk().setDirectory(tempDir.toString());
+        Files.writeString(tempDir.resolve("key.json"), "not json");
+
+        assertTrue(newCache(properties).get("key", EXERCISE_LIST).isEmpty());
+        assertFalse(Files.exists(tempDir.resolve("key.json")));
+    }
+
+    @Test
+    void testDisabledCacheStoresNothing() {
+        ParseResultCache cache = ParseResultCache.disabled();
+
+        cache.put("key", exercises("A"));
+
+        assertFalse(cache.isEnabled());
+        assertTrue(cache.get("key", EXERCISE_LIST).isEmpty());
+    }
+
+    @Test
+    void testKeyDependsOnConfiguration() {
+        MuscleGroupMappingConfig mapping = new MuscleGroupMappingConfig();
+        ParseResultCache cache = new ParseResultCache(new ParseCacheProperties(), mapping, new PdfLineRulesConfig());
+        String before = cache.key("pdf", "digest", null);
+
+        mapping.getMuscleGroupMapping().put("PEITORAL", "Chest");
+
+        assertNotEquals(before, cache.key("pdf", "digest", null));
+        assertNotEquals(before, cache.key("pdf", "digest", "pages-1-2"));
+    }
+
+    @Test
+    void testFileDigestMatchesContentDigest(@TempDir Path tempDir) throws IOException {
+        byte[] content = "same bytes".getBytes(StandardCharsets.UTF_8);
+        Path file = Files.write(tempDir.resolve("upload.bin"), content);
+
+        assertEquals(ParseResultCache.sha256(content), ParseResultCache.sha256(file.toFile()));
+        assertEquals(64, ParseResultCache.sha256(content).length());
+    }
+
+    @Test
+    void testCopyAndHashMatchesContentDigest(@TempDir Path tempDir) throws IOException {
+        byte[] content = "same bytes".getBytes(StandardCharsets.UTF_8);
+        Path file = tempDir.resolve("spooled.bin");
+
+        String digest = ParseResultCache.copyAndHash(new ByteArrayInputStream(content), file);
+
+        assertEquals(ParseResultCache.sha256(content), digest);
+        assertArrayEquals(content, Files.readAllBytes(file));
+    }
+
+    @Test
+    void testKeyDependsOnLineRules() {
+        PdfLineRulesConfig rules = new PdfLineRulesConfig();
+        ParseResultCache cache = new ParseResultCache(new ParseCacheProperties(), new MuscleGroupMappingConfig(), rules);
+        String before = cache.key("pdf", "digest", null);
+
+        rules.setSkipContains(List.of("Bi-set"));
+        String withContains = cache.key("pdf", "digest", null);
+        rules.setSkipContains(List.of());
+        rules.setSkipStartsWith(List.of("Bi-set"));
+
+        assertNotEquals(before, withContains);
+        assertNotEquals(withContains, cache.key("pdf", "digest", null));
+        assertEquals(64, rules.getRulesVersion().length());
+    }
+}
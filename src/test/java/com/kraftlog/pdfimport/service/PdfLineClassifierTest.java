@@ -0,0 +1,73 @@
+package com.kraftlog.pdfimport.service;
+
+import com.kraftlog.pdfimport.config.MuscleGroupMappingConfig;
+import com.kraftlog.pdfimport.config.PdfLineRulesConfig;
+import com.kraftlog.pdfimport.service.PdfLineClassifier.LineType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfLineClassifierTest {
+
+    private PdfLineClassifier classifier;
+
+    @BeforeEach
+    void setUp() {
+        MuscleGroupMappingConfig muscleGroupConfig = new MuscleGroupMappingConfig();
+        muscleGroupConfig.setConfigPath("exercise-muscle-groups.yml");
+        muscleGroupConfig.loadConfiguration();
+
+        PdfLineRulesConfig lineRulesConfig = new PdfLineRulesConfig();
+        lineRulesConfig.setConfigPath("pdf-line-rules.yml");
+        lineRulesConfig.loadConfiguration();
+
+        classifier = new PdfLineClassifier(muscleGroupConfig, lineRulesConfig);
+    }
+
+    @Test
+    void testHeadersAreMatchedCaseInsensitively() {
+        assertEquals(LineType.HEADER, classifier.classify("PEITORAL"));
+        assertEquals(LineType.HEADER, classifier.classify("Dorsais"));
+        assertEquals("DORSAIS", classifier.muscleGroupHeader("Dorsais"));
+        assertNull(classifier.muscleGroupHeader("Supino Reto"));
+    }
+
+    @Test
+    void testStartsWithRulesOnlyMatchAtLineStart() {
+        assertEquals(LineType.SKIP, classifier.classify("CREF: 012345-G/SP"));
+        assertEquals(LineType.SKIP, classifier.classify("www.example.com"));
+        assertEquals(LineType.EXERCISE, classifier.classify("Supino CREF: 1"));
+    }
+
+    @Test
+    void testContainsRulesMatchAnywhere() {
+        assertEquals(LineType.SKIP, classifier.classify("Rosca Bi-set com Tríceps"));
+        assertEquals(LineType.SKIP, classifier.classify("Série de Alongamentos"));
+    }
+
+    @Test
+    void testContainsAllRulesNeedEveryPhrase() {
+        assertEquals(LineType.SKIP, classifier.classify("Exercício Execução em Vídeo"));
+        assertEquals(LineType.EXERCISE, classifier.classify("Exercício Supino"));
+    }
+
+    @Test
+    void testSkipRulesAreCaseSensitive() {
+        assertEquals(LineType.EXERCISE, classifier.classify("bi-set"));
+    }
+
+    @Test
+    void testSubHeaders() {
+        assertEquals(LineType.SUBHEADER, classifier.classify("Deltóides"));
+        assertTrue(classifier.isSubHeader("Posterior de Coxa"));
+        assertTrue(classifier.isSubHeader("Outras técnicas avançadas"));
+        assertFalse(classifier.isSubHeader("Cadeira Extensora"));
+    }
+
+    @Test
+    void testExerciseLines() {
+        assertEquals(LineType.EXERCISE,
+                classifier.classify("Supino Reto Barra https://www.youtube.com/watch?v=abc123"));
+    }
+}
@@ -1,16 +1,40 @@
 package com.kraftlog.pdfimport.service;
 
 import com.kraftlog.pdfimport.config.MuscleGroupMappingConfig;
+import com.kraftlog.pdfimport.config.ParseCacheProperties;
+import com.kraftlog.pdfimport.config.PdfLineRulesConfig;
+import com.kraftlog.pdfimport.config.PdfParserProperties;
 import com.kraftlog.pdfimport.dto.ParsedExerciseData;
+import com.kraftlog.pdfimport.dto.PdfParseOptions;
 import com.kraftlog.pdfimport.test.TestConfigHelper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.interactive.action.PDActionURI;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationLink;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.destination.PDPageFitDestination;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
+import org.apache.pdfbox.text.PDFTextStripper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -26,6 +50,12 @@ class PdfParserServiceTest {
     @Autowired
     private MuscleGroupMappingConfig muscleGroupConfig;
 
+    @Autowired
+    private PdfLineClassifier lineClassifier;
+
+    @Autowired
+    private PdfLineRulesConfig lineRulesConfig;
+
     @Test
     void testParseExercisesFromPdfWithNonExistentFile() {
         File nonExistentFile = new File("/non/existent/file.pdf");
@@ -46,7 +76,7 @@ class PdfParserServiceTest {
     void testConstructorWithNullConfig() {
         // PdfParserService uses Lombok's @RequiredArgsConstructor which doesn't add null checks
         // This test verifies that the service can be instantiated (though it will fail at runtime if config is used)
-        assertDoesNotThrow(() -> new PdfParserService(null));
+        assertDoesNotThrow(() -> new PdfParserService(null, null, null));
     }
 
     @Test
@@ -62,4 +92,401 @@ class PdfParserServiceTest {
         // Verify that Spring created and injected the service
         assertNotNull(pdfParserService);
     }
+
+    @Test
+    void testParallelParsingMatchesSequential(@TempDir Path tempDir) throws IOException {
+        File pdfFile = createMultiPagePdf(tempDir.resolve("catalog.pdf").toFile(), 9);
+        
+        PdfParserProperties parallelProperties = new PdfParserProperties();
+        parallelProperties.getParallel().setEnabled(true);
+        parallelProperties.getParallel().setParallelism(3);
+        parallelProperties.getParallel().setPagesPerRange(2);
+        parallelProperties.getParallel().setMinPages(1);
+        
+        PdfParserService sequentialParser =
+                new PdfParserService(lineClassifier, new PdfParserProperties(), ParseResultCache.disabled());
+        PdfParserService parallelParser =
+                new PdfParserService(lineClassifier, parallelProperties, ParseResultCache.disabled());
+        
+        try {
+            List<ParsedExerciseData> sequential = sequentialParser.parseExercisesFromPdf(pdfFile);
+            List<ParsedExerciseData> parallel = parallelParser.parseExercisesFromPdf(pdfFile);
+            
+            assertEquals(9 * 4, sequential.size());
+            assertEquals(sequential, parallel);
+            
+            // Page 2 has no header of its own and continues the PEITORAL section
+            assertEquals("Exercise 2-1", parallel.get(4).getName());
+            assertEquals("PEITORAL", parallel.get(4).getMuscleGroupPortuguese());
+            // Page 4 starts with exercises that still belong to the previous section
+            assertEquals("Exercise 4-1", parallel.get(12).getName());
+            assertEquals("PEITORAL", parallel.get(12).getMuscleGroupPortuguese());
+            assertEquals("DORSAIS", parallel.get(14).getMuscleGroupPortuguese());
+        } finally {
+            parallelParser.shutdown();
+        }
+    }
+
+    @Test
+    void testStreamingParsingMatchesListParsing(@TempDir Path tempDir) throws IOException {
+        File pdfFile = createMultiPagePdf(tempDir.resolve("catalog.pdf").toFile(), 5);
+        
+        List<ParsedExerciseData> streamed = new ArrayList<>();
+        pdfParserService.parseExercisesFromPdf(pdfFile, streamed::add);
+        
+        assertEquals(pdfParserService.parseExercisesFromPdf(pdfFile), streamed);
+        assertEquals(5 * 4, streamed.size());
+    }
+
+    @Test
+    void testStrippedLinesMatchPdfTextStripper(@TempDir Path tempDir) throws IOException {
+        File pdfFile = createMultiPagePdf(tempDir.resolve("catalog.pdf").toFile(), 3);
+        
+        try (PDDocument document = Loader.loadPDF(pdfFile)) {
+            List<String> lines = new ArrayList<>();
+            new ExerciseTextStripper().stripLines(document, lines::add);
+            
+            String text = new PDFTextStripper().getText(document);
+            assertEquals(Arrays.asList(text.split("\n")), lines);
+        }
+    }
+
+    @Test
+    void testMemoryMappedLoadingWithTempFileScratch(@TempDir Path tempDir) throws IOException {
+        File pdfFile = createMultiPagePdf(tempDir.resolve("catalog.pdf").toFile(), 4);
+        
+        PdfParserProperties properties = new PdfParserProperties();
+        properties.getLoading().setInput(PdfParserProperties.InputMode.MEMORY_MAPPED);
+        properties.getLoading().setScratch(PdfParserProperties.ScratchMode.TEMP_FILE);
+        properties.getLoading().setTempDir(tempDir.toString());
+        
+        PdfParserService mappedParser = new PdfParserService(lineClassifier, properties, ParseResultCache.disabled());
+        
+        assertEquals(pdfParserService.parseExercisesFromPdf(pdfFile), mappedParser.parseExercisesFromPdf(pdfFile));
+    }
+
+    @Test
+    void testMemoryMappedLoadingWithNonExistentFile() {
+        PdfParserProperties properties = new PdfParserProperties();
+        properties.getLoading().setInput(PdfParserProperties.InputMode.MEMORY_MAPPED);
+        
+        PdfParserService mappedParser = new PdfParserService(lineClassifier, properties, ParseResultCache.disabled());
+        
+        assertThrows(IOException.class, () -> 
+            mappedParser.parseExercisesFromPdf(new File("/non/existent/file.pdf"))
+        );
+    }
+
+    @Test
+    void testPageRangeMatchesFullParse(@TempDir Path tempDir) throws IOException {
+        File pdfFile = createMultiPagePdf(tempDir.resolve("catalog.pdf").toFile(), 9);
+        
+        List<ParsedExerciseData> full = pdfParserService.parseExercisesFromPdf(pdfFile);
+        List<ParsedExerciseData> range = pdfParserService.parseExercisesFromPdf(pdfFile,
+                PdfParseOptions.builder().startPage(5).endPage(7).build());
+        
+        // Pages 5-7 start inside the DORSAIS section that begins on page 4
+        assertEquals(full.subList(4 * 4, 7 * 4), range);
+        assertEquals("DORSAIS", range.get(0).getMuscleGroupPortuguese());
+    }
+
+    @Test
+    void testParallelPageRangeMatchesFullParse(@TempDir Path tempDir) throws IOException {
+        File pdfFile = createMultiPagePdf(tempDir.resolve("catalog.pdf").toFile(), 9);
+        
+        PdfParserProperties parallelProperties = new PdfParserProperties();
+        parallelProperties.getParallel().setEnabled(true);
+        parallelProperties.getParallel().setParallelism(2);
+        parallelProperties.getParallel().setPagesPerRange(2);
+        parallelProperties.getParallel().setMinPages(1);
+        PdfParserService parallelParser =
+                new PdfParserService(lineClassifier, parallelProperties, ParseResultCache.disabled());
+        
+        try {
+            List<ParsedExerciseData> full = pdfParserService.parseExercisesFromPdf(pdfFile);
+            List<ParsedExerciseData> range = parallelParser.parseExercisesFromPdf(pdfFile,
+                    PdfParseOptions.builder().startPage(3).endPage(20).build());
+            
+            assertEquals(full.subList(2 * 4, full.size()), range);
+        } finally {
+            parallelParser.shutdown();
+        }
+    }
+
+    @Test
+    void testLimitStopsAfterFirstExercises(@TempDir Path tempDir) throws IOException {
+        File pdfFile = createMultiPagePdf(tempDir.resolve("catalog.pdf").toFile(), 9);
+        
+        List<ParsedExerciseData> full = pdfParserService.parseExercisesFromPdf(pdfFile);
+        List<ParsedExerciseData> preview = pdfParserService.parseExercisesFromPdf(pdfFile,
+                PdfParseOptions.builder().limit(6).build());
+        
+        assertEquals(full.subList(0, 6), preview);
+    }
+
+    @Test
+    void testInvalidPageRangeIsRejected(@TempDir Path tempDir) throws IOException {
+        File pdfFile = createMultiPagePdf(tempDir.resolve("catalog.pdf").toFile(), 2);
+        
+        assertThrows(InvalidPdfParseOptionsException.class, () -> pdfParserService.parseExercisesFromPdf(pdfFile,
+                PdfParseOptions.builder().startPage(3).build()));
+        assertThrows(InvalidPdfParseOptionsException.class, () -> pdfParserService.parseExercisesFromPdf(pdfFile,
+                PdfParseOptions.builder().startPage(2).endPage(1).build()));
+        assertThrows(InvalidPdfParseOptionsException.class, () -> pdfParserService.parseExercisesFromPdf(pdfFile,
+                PdfParseOptions.builder().limit(0).build()));
+    }
+
+    @Test
+    void testSelectedMuscleGroupsFromOutline(@TempDir Path tempDir) throws IOException {
+        File pdfFile = createOutlinedPdf(tempDir.resolve("outlined.pdf").toFile(), 12);
+        
+        List<ParsedExerciseData> full = pdfParserService.parseExercisesFromPdf(pdfFile);
+        List<ParsedExerciseData> selected = pdfParserService.parseExercisesFromPdf(pdfFile,
+                PdfParseOptions.builder().muscleGroups(Set.of("dorsais", "TRÍCEPS")).build());
+        
+        assertEquals(full.stream()
+                .filter(exercise -> Set.of("DORSAIS", "TRÍCEPS").contains(exercise.getMuscleGroupPortuguese()))
+                .toList(), selected);
+        assertFalse(selected.isEmpty());
+    }
+
+    @Test
+    void testSelectedMuscleGroupsWithoutOutline(@TempDir Path tempDir) throws IOException {
+        File pdfFile = createOutlinedPdf(tempDir.resolve("outlined.pdf").toFile(), 12);
+        
+        PdfParserProperties properties = new PdfParserProperties();
+        properties.getOutline().setEnabled(false);
+        PdfParserService textOnlyParser = new PdfParserService(lineClassifier, properties, ParseResultCache.disabled());
+        
+        PdfParseOptions options = PdfParseOptions.builder().muscleGroups(Set.of("OMBROS")).build();
+        
+        assertEquals(pdfParserService.parseExercisesFromPdf(pdfFile, options),
+                textOnlyParser.parseExercisesFromPdf(pdfFile, options));
+    }
+
+    @Test
+    void testOutlineProvidesMuscleGroupForPageRange(@TempDir Path tempDir) throws IOException {
+        File pdfFile = createOutlinedPdf(tempDir.resolve("outlined.pdf").toFile(), 9);
+        
+        List<ParsedExerciseData> full = pdfParserService.parseExercisesFromPdf(pdfFile);
+        List<ParsedExerciseData> range = pdfParserService.parseExercisesFromPdf(pdfFile,
+                PdfParseOptions.builder().startPage(8).build());
+        
+        assertEquals(full.subList(7 * 4, full.size()), range);
+        assertEquals("OMBROS", range.get(0).getMuscleGroupPortuguese());
+    }
+
+    @Test
+    void testParallelParsingSplitsAtOutlineSections(@TempDir Path tempDir) throws IOException {
+        File pdfFile = createOutlinedPdf(tempDir.resolve("outlined.pdf").toFile(), 12);
+        
+        PdfParserProperties parallelProperties = new PdfParserProperties();
+        parallelProperties.getParallel().setEnabled(true);
+        parallelProperties.getParallel().setParallelism(3);
+        parallelProperties.getParallel().setPagesPerRange(2);
+        parallelProperties.getParallel().setMinPages(1);
+        PdfParserService parallelParser =
+                new PdfParserService(lineClassifier, parallelProperties, ParseResultCache.disabled());
+        
+        try {
+            PdfParseOptions options = PdfParseOptions.builder().muscleGroups(Set.of("DORSAIS", "OMBROS")).build();
+            
+            assertEquals(pdfParserService.parseExercisesFromPdf(pdfFile), parallelParser.parseExercisesFromPdf(pdfFile));
+            assertEquals(pdfParserService.parseExercisesFromPdf(pdfFile, options),
+                    parallelParser.parseExercisesFromPdf(pdfFile, options));
+        } finally {
+            parallelParser.shutdown();
+        }
+    }
+
+    @Test
+    void testUnknownMuscleGroupIsRejected(@TempDir Path tempDir) throws IOException {
+        File pdfFile = createMultiPagePdf(tempDir.resolve("catalog.pdf").toFile(), 2);
+        
+        assertThrows(InvalidPdfParseOptionsException.class, () -> pdfParserService.parseExercisesFromPdf(pdfFile,
+                PdfParseOptions.builder().muscleGroups(Set.of("NOT A GROUP")).build()));
+    }
+
+    @Test
+    void testRepeatedParseIsServedFromCache(@TempDir Path tempDir) throws IOException {
+        File pdfFile = createMultiPagePdf(tempDir.resolve("catalog.pdf").toFile(), 2);
+        File copy = Files.copy(pdfFile.toPath(), tempDir.resolve("copy.pdf")).toFile();
+        
+        ParseResultCache cache = new ParseResultCache(new ParseCacheProperties(), muscleGroupConfig, lineRulesConfig);
+        PdfParserService cachingParser = new PdfParserService(lineClassifier, new PdfParserProperties(), cache);
+        
+        List<ParsedExerciseData> first = cachingParser.parseExercisesFromPdf(pdfFile);
+        List<ParsedExerciseData> second = cachingParser.parseExercisesFromPdf(copy);
+        
+        assertEquals(first, second);
+        assertNotSame(first.get(0), second.get(0));
+        assertEquals(1L, cache.getStats().get("hits"));
+        assertEquals(1L, cache.getStats().get("misses"));
+    }
+
+    @Test
+    void testVideoUrlsFromLinkAnnotations(@TempDir Path tempDir) throws IOException {
+        File pdfFile = createLinkedPdf(tempDir.resolve("linked.pdf").toFile());
+        
+        PdfParserProperties properties = new PdfParserProperties();
+        properties.setVideoUrlSource(PdfParserProperties.VideoUrlSource.ANNOTATIONS);
+        PdfParserService annotationParser =
+                new PdfParserService(lineClassifier, properties, ParseResultCache.disabled());
+        
+        List<ParsedExerciseData> exercises = annotationParser.parseExercisesFromPdf(pdfFile);
+        
+        assertEquals(4, exercises.size());
+        // Link text is dropped from the name and the URL comes from the annotation
+        assertEquals("Supino Reto", exercises.get(0).getName());
+        assertEquals("https://www.youtube.com/watch?v=supino", exercises.get(0).getVideoUrl());
+        // A link over an empty cell still belongs to its row
+        assertEquals("Crucifixo", exercises.get(1).getName());
+        assertEquals("https://youtu.be/crucifixo", exercises.get(1).getVideoUrl());
+        assertEquals("Flexão", exercises.get(2).getName());
+        assertNull(exercises.get(2).getVideoUrl());
+        // The page without annotations falls back to URLs in the text
+        assertEquals("Remada Curvada", exercises.get(3).getName());
+        assertEquals("https://www.youtube.com/watch?v=remada", exercises.get(3).getVideoUrl());
+        assertEquals("DORSAIS", exercises.get(3).getMuscleGroupPortuguese());
+    }
+
+    @Test
+    void testTextModeIgnoresLinkAnnotations(@TempDir Path tempDir) throws IOException {
+        File pdfFile = createLinkedPdf(tempDir.resolve("linked.pdf").toFile());
+        
+        PdfParserService textParser =
+                new PdfParserService(lineClassifier, new PdfParserProperties(), ParseResultCache.disabled());
+        List<ParsedExerciseData> exercises = textParser.parseExercisesFromPdf(pdfFile);
+        
+        assertEquals("Supino Reto Assistir", exercises.get(0).getName());
+        assertNull(exercises.get(0).getVideoUrl());
+    }
+
+    @Test
+    void testAnnotationModeMatchesTextModeWithoutLinks(@TempDir Path tempDir) throws IOException {
+        File pdfFile = createMultiPagePdf(tempDir.resolve("catalog.pdf").toFile(), 3);
+        
+        PdfParserProperties properties = new PdfParserProperties();
+        properties.setVideoUrlSource(PdfParserProperties.VideoUrlSource.ANNOTATIONS);
+        PdfParserService annotationParser =
+                new PdfParserService(lineClassifier, properties, ParseResultCache.disabled());
+        
+        assertEquals(pdfParserService.parseExercisesFromPdf(pdfFile), annotationParser.parseExercisesFromPdf(pdfFile));
+    }
+
+    /**
+     * Builds a two-page catalog: the first page links its rows through "Assistir" link text
+     * or an empty link cell, the second prints the URL as text and has no annotations.
+     */
+    static File createLinkedPdf(File file) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDPage linkedPage = new PDPage();
+            document.addPage(linkedPage);
+            try (PDPageContentStream contentStream = new PDPageContentStream(document, linkedPage)) {
+                showText(contentStream, 50, 720, "PEITORAL");
+                showText(contentStream, 50, 700, "Supino Reto");
+                showText(contentStream, 300, 700, "Assistir");
+                showText(contentStream, 50, 680, "Crucifixo");
+                showText(contentStream, 50, 660, "Flexão");
+            }
+            addLink(linkedPage, 295, 696, 360, 714, "https://www.youtube.com/watch?v=supino");
+            addLink(linkedPage, 295, 676, 360, 694, "https://youtu.be/crucifixo");
+            
+            PDPage textPage = new PDPage();
+            document.addPage(textPage);
+            try (PDPageContentStream contentStream = new PDPageContentStream(document, textPage)) {
+                showText(contentStream, 50, 720, "DORSAIS");
+                showText(contentStream, 50, 700, "Remada Curvada https://www.youtube.com/watch?v=remada");
+            }
+            
+            document.save(file);
+        }
+        return file;
+    }
+
+    private static void showText(PDPageContentStream contentStream, float x, float y, String text) throws IOException {
+        contentStream.beginText();
+        contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+        contentStream.newLineAtOffset(x, y);
+        contentStream.showText(text);
+        contentStream.endText();
+    }
+
+    private static void addLink(PDPage page, float x1, float y1, float x2, float y2, String uri) throws IOException {
+        PDActionURI action = new PDActionURI();
+        action.setURI(uri);
+        PDAnnotationLink link = new PDAnnotationLink();
+        link.setRectangle(new PDRectangle(x1, y1, x2 - x1, y2 - y1));
+        link.setAction(action);
+        page.getAnnotations().add(link);
+    }
+
+    /**
+     * Builds the catalog of {@link #createMultiPagePdf} with a bookmark for each muscle group
+     * header, on the page where the header appears.
+     */
+    static File createOutlinedPdf(File file, int pageCount) throws IOException {
+        createMultiPagePdf(file, pageCount);
+        String[] headers = {"PEITORAL", "DORSAIS", "OMBROS", "TRÍCEPS"};
+        
+        try (PDDocument document = Loader.loadPDF(file)) {
+            PDDocumentOutline outline = new PDDocumentOutline();
+            PDOutlineItem contents = new PDOutlineItem();
+            contents.setTitle("Sumário");
+            outline.addLast(contents);
+            
+            for (int page = 1; page <= pageCount; page++) {
+                if (page == 1 || page % 3 == 1) {
+                    PDPageFitDestination destination = new PDPageFitDestination();
+                    destination.setPage(document.getPage(page - 1));
+                    PDOutlineItem bookmark = new PDOutlineItem();
+                    bookmark.setTitle((page / 3 + 1) + ". " + headers[(page / 3) % headers.length]);
+                    bookmark.setDestination(destination);
+                    contents.addLast(bookmark);
+                }
+            }
+            
+            document.getDocumentCatalog().setDocumentOutline(outline);
+            document.save(file);
+        }
+        
+        return file;
+    }
+
+    /**
+     * Builds a catalog where a new muscle group header appears every third page, in the
+     * middle of the page, so that page ranges begin inside a section.
+     */
+    static File createMultiPagePdf(File file, int pageCount) throws IOException {
+        String[] headers = {"PEITORAL", "DORSAIS", "OMBROS", "TRÍCEPS"};
+        
+        try (PDDocument document = new PDDocument()) {
+            for (int page = 1; page <= pageCount; page++) {
+                PDPage pdPage = new PDPage();
+                document.addPage(pdPage);
+                
+                try (PDPageContentStream contentStream = new PDPageContentStream(document, pdPage)) {
+                    contentStream.beginText();
+                    contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                    contentStream.newLineAtOffset(50, 700);
+                    
+                    for (int row = 1; row <= 4; row++) {
+                        if ((page == 1 && row == 1) || (page % 3 == 1 && page > 1 && row == 3)) {
+                            contentStream.showText(headers[(page / 3) % headers.length]);
+                            contentStream.newLineAtOffset(0, -20);
+                        }
+                        contentStream.showText("Exercise " + page + "-" + row
+                                + " https://www.youtube.com/watch?v=p" + page + "r" + row);
+                        contentStream.newLineAtOffset(0, -20);
+                    }
+                    
+                    contentStream.endText();
+                }
+            }
+            
+            document.save(file);
+        }
+        
+        return file;
+    }
 }
@@ -1,6 +1,7 @@
 package com.kraftlog.pdfimport.service;
 
 import com.kraftlog.pdfimport.client.KraftLogApiClient;
+import com.kraftlog.pdfimport.config.ExerciseCatalogProperties;
 import com.kraftlog.pdfimport.config.MuscleGroupMappingConfig;
 import com.kraftlog.pdfimport.dto.*;
 import org.junit.jupiter.api.Test;
@@ -36,6 +37,9 @@ class RoutineImportServiceTest {
     @Autowired
     private RoutineImportService routineImportService;
 
+    @Autowired
+    private ExerciseCatalogProperties exerciseCatalogProperties;
+
     @Test
     void testGenerateRoutineJson_Success() throws Exception {
         // Setup
@@ -127,6 +131,10 @@ class RoutineImportServiceTest {
         assertEquals(1, result.getSuccessfulExercises());
         assertEquals(0, result.getFailedExercises());
         assertTrue(result.getErrors().isEmpty());
+        assertEquals(1, result.getExerciseMatches().size());
+        assertEquals("Supino Reto", result.getExerciseMatches().get(0).getMatchedName());
+        assertEquals("ex1", result.getExerciseMatches().get(0).getExerciseId());
+        assertEquals(1.0, result.getExerciseMatches().get(0).getScore());
         
         verify(kraftLogApiClient).createRoutine(any());
         verify(kraftLogApiClient).createWorkout(any());
@@ -213,11 +221,60 @@ class RoutineImportServiceTest {
         
         assertNotNull(result);
         assertEquals(1, result.getSuccessfulExercises());
+        assertTrue(result.getExerciseMatches().isEmpty());
         
         verify(kraftLogApiClient).createExercise(any());
+        verify(kraftLogApiClient).createExercise(argThat(request -> "CHEST".equals(request.getMuscleGroup())));
         verify(kraftLogApiClient).addExerciseToWorkout(any());
     }
 
+    @Test
+    void testImportRoutineFromXlsx_DissimilarSearchResultIsReusedWithItsScore() throws Exception {
+        RoutineImportResult result = importWithSearchResult("Supino Inclinado");
+        
+        assertEquals(1, result.getSuccessfulExercises());
+        assertEquals("ex2", result.getExerciseMatches().get(0).getExerciseId());
+        assertTrue(result.getExerciseMatches().get(0).getScore() < 0.85);
+        verify(kraftLogApiClient, never()).createExercise(any());
+    }
+
+    @Test
+    void testImportRoutineFromXlsx_SearchResultBelowThresholdCreatesNew() throws Exception {
+        exerciseCatalogProperties.setSearchMinMatchScore(0.85);
+        try {
+            when(kraftLogApiClient.createExercise(any())).thenReturn(ParsedExerciseData.builder()
+                    .id("new-ex1")
+                    .name("Supino Reto")
+                    .build());
+            
+            RoutineImportResult result = importWithSearchResult("Supino Inclinado");
+            
+            assertEquals(1, result.getSuccessfulExercises());
+            assertTrue(result.getExerciseMatches().isEmpty());
+            verify(kraftLogApiClient).createExercise(argThat(request -> "Supino Reto".equals(request.getName())));
+        } finally {
+            exerciseCatalogProperties.setSearchMinMatchScore(0);
+        }
+    }
+
+    private RoutineImportResult importWithSearchResult(String foundName) throws Exception {
+        InputStream inputStream = new ByteArrayInputStream(new byte[0]);
+        String fileName = "test.xlsx";
+        
+        when(xlsxParserService.parseRoutineFromXlsx(inputStream, fileName))
+                .thenReturn(createTestRoutine());
+        when(kraftLogApiClient.createRoutine(any())).thenReturn(Map.of("id", "routine1"));
+        when(kraftLogApiClient.createWorkout(any())).thenReturn(Map.of("id", "workout1"));
+        when(kraftLogApiClient.searchExercises(anyString()))
+                .thenReturn(Collections.singletonList(ParsedExerciseData.builder()
+                        .id("ex2")
+                        .name(foundName)
+                        .muscleGroup("Chest")
+                        .build()));
+        
+        return routineImportService.importRoutineFromXlsx(inputStream, fileName, "user123");
+    }
+
     @Test
     void testImportRoutineFromXlsx_AddExerciseToWorkoutFails() throws Exception {
         InputStream inputStream = new ByteArrayInputStream(new byte[0]);
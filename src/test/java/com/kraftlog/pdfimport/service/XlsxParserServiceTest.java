@@ -1,8 +1,15 @@
 package com.kraftlog.pdfimport.service;
 
+import com.kraftlog.pdfimport.config.MuscleGroupMappingConfig;
+import com.kraftlog.pdfimport.config.ParseCacheProperties;
+import com.kraftlog.pdfimport.config.PdfLineRulesConfig;
+import com.kraftlog.pdfimport.config.RoutineLayoutConfig;
+import com.kraftlog.pdfimport.config.XlsxParserProperties;
 import com.kraftlog.pdfimport.dto.ParsedRoutineData;
 import com.kraftlog.pdfimport.dto.ParsedWorkoutData;
 import com.kraftlog.pdfimport.dto.ParsedWorkoutExerciseData;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +18,7 @@ import org.junit.jupiter.api.Test;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,7 +28,7 @@ class XlsxParserServiceTest {
 
     @BeforeEach
     void setUp() {
-        xlsxParserService = new XlsxParserService();
+        xlsxParserService = new XlsxParserService(ParseResultCache.disabled(), new XlsxParserProperties(), new RoutineLayoutConfig());
     }
 
     @Test
@@ -73,6 +81,258 @@ class XlsxParserServiceTest {
         assertEquals("Drop set", exercise1.getAdvancedTechnique());
     }
 
+    @Test
+    void testParseRoutineFromXlsx_SameContentServedFromCache() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            var sheet = workbook.createSheet("Routine");
+            sheet.createRow(1).createCell(1).setCellValue("Workout A");
+            sheet.createRow(3).createCell(1).setCellValue("Supino Reto");
+            workbook.write(outputStream);
+        }
+        byte[] excelData = outputStream.toByteArray();
+        
+        ParseResultCache cache = new ParseResultCache(
+                new ParseCacheProperties(), new MuscleGroupMappingConfig(), new PdfLineRulesConfig());
+        XlsxParserService cachingParser = new XlsxParserService(cache, new XlsxParserProperties(), new RoutineLayoutConfig());
+        
+        ParsedRoutineData first = cachingParser.parseRoutineFromXlsx(new ByteArrayInputStream(excelData), "week1.xlsx");
+        ParsedRoutineData second = cachingParser.parseRoutineFromXlsx(new ByteArrayInputStream(excelData), "week2.xlsx");
+        
+        assertEquals(1L, cache.getStats().get("hits"));
+        assertEquals("week1", first.getRoutineName());
+        assertEquals("week2", second.getRoutineName());
+        assertEquals(first.getWorkouts(), second.getWorkouts());
+        assertEquals("Supino Reto", second.getWorkouts().get(0).getExercises().get(0).getExerciseName());
+    }
+
+    @Test
+    void testStreamingReaderMatchesDomReader() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            var sheet = workbook.createSheet("Routine");
+            int[][] blocks = {{1, 1, 3}, {5, 1, 3}, {9, 1, 3}, {1, 17, 19}, {5, 17, 19}};
+            for (int i = 0; i < blocks.length; i++) {
+                int column = blocks[i][0];
+                row(sheet, blocks[i][1]).createCell(column).setCellValue("Treino " + (char) ('A' + i));
+                for (int exercise = 0; exercise < 3; exercise++) {
+                    var row = row(sheet, blocks[i][2] + exercise);
+                    row.createCell(column).setCellValue("Exercise " + i + "-" + exercise);
+                    row.createCell(column + 1).setCellValue((exercise + 3) + "x" + (10 + exercise));
+                    if (exercise == 1) {
+                        row.createCell(column + 2).setCellValue("Rest-pause");
+                    }
+                }
+            }
+            row(sheet, 15).createCell(1).setCellValue("1 a 2 minutos");
+            // Numeric and formula cells, and cells outside every workout block
+            row(sheet, 5).createCell(1).setCellValue(42.7);
+            row(sheet, 6).createCell(1).setCellFormula("B6*2");
+            row(sheet, 6).createCell(2).setCellValue("3x8");
+            row(sheet, 2).createCell(20).setCellValue("Notes");
+            // Boolean and boolean formula cells
+            row(sheet, 5).createCell(3).setCellValue(true);
+            row(sheet, 3).createCell(3).setCellFormula("1>2");
+            for (int extra = 30; extra < 300; extra++) {
+                row(sheet, extra).createCell(1).setCellValue("Not an exercise " + extra);
+            }
+            // Store formula results, as Excel does when saving
+            workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+            workbook.write(outputStream);
+        }
+        byte[] excelData = outputStream.toByteArray();
+        
+        XlsxParserProperties domProperties = new XlsxParserProperties();
+        domProperties.setReader(XlsxParserProperties.ReaderMode.DOM);
+        XlsxParserService domParser = new XlsxParserService(ParseResultCache.disabled(), domProperties, new RoutineLayoutConfig());
+        
+        ParsedRoutineData dom = domParser.parseRoutineFromXlsx(new ByteArrayInputStream(excelData), "plan.xlsx");
+        ParsedRoutineData streamed = xlsxParserService.parseRoutineFromXlsx(new ByteArrayInputStream(excelData), "plan.xlsx");
+        
+        assertEquals(dom, streamed);
+        ParsedWorkoutData workout1 = streamed.getWorkouts().get(0);
+        assertEquals(4, workout1.getExercises().size());
+        assertEquals("42", workout1.getExercises().get(2).getExerciseName());
+        assertEquals("85", workout1.getExercises().get(3).getExerciseName());
+        assertEquals("Rest-pause", workout1.getExercises().get(1).getAdvancedTechnique());
+        assertEquals("false", workout1.getExercises().get(0).getAdvancedTechnique());
+        assertEquals("true", workout1.getExercises().get(2).getAdvancedTechnique());
+        assertEquals("Treino E", streamed.getWorkouts().get(4).getWorkoutName());
+        assertEquals(3, streamed.getWorkouts().get(4).getExercises().size());
+    }
+
+    @Test
+    void testFormulaCellsYieldTheirResult() throws IOException {
+        for (boolean storeResults : new boolean[] {true, false}) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            try (Workbook workbook = new XSSFWorkbook()) {
+                var sheet = workbook.createSheet("Routine");
+                row(sheet, 1).createCell(1).setCellFormula("\"Treino \"&\"A\"");
+                row(sheet, 3).createCell(1).setCellValue("Supino Reto");
+                row(sheet, 3).createCell(2).setCellFormula("E4&\"x\"&F4");
+                row(sheet, 3).createCell(4).setCellValue(4);
+                row(sheet, 3).createCell(5).setCellValue(10);
+                row(sheet, 15).createCell(1).setCellFormula("E4-3&\" a \"&E4-2&\" minutos\"");
+                if (storeResults) {
+                    workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+                }
+                workbook.write(outputStream);
+            }
+            byte[] excelData = outputStream.toByteArray();
+            
+            for (XlsxParserProperties.ReaderMode mode : XlsxParserProperties.ReaderMode.values()) {
+                XlsxParserProperties properties = new XlsxParserProperties();
+                properties.setReader(mode);
+                XlsxParserService parser = new XlsxParserService(
+                        ParseResultCache.disabled(), properties, new RoutineLayoutConfig());
+                String description = mode + (storeResults ? " with stored results" : " without stored results");
+                
+                ParsedWorkoutData workout = parser.parseRoutineFromXlsx(
+                        new ByteArrayInputStream(excelData), "plan.xlsx").getWorkouts().get(0);
+                
+                assertEquals("Treino A", workout.getWorkoutName(), description);
+                assertEquals(4, workout.getExercises().get(0).getSets(), description);
+                assertEquals(10, workout.getExercises().get(0).getRepetitions(), description);
+                assertEquals(1, workout.getMinRestMinutes(), description);
+                assertEquals(2, workout.getMaxRestMinutes(), description);
+            }
+        }
+    }
+
+    private static Row row(Sheet sheet, int index) {
+        var row = sheet.getRow(index);
+        return row != null ? row : sheet.createRow(index);
+    }
+
+    @Test
+    void testParseRoutineWithConfiguredLayout() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            var sheet = workbook.createSheet("Plan");
+            row(sheet, 0).createCell(0).setCellValue("Push");
+            row(sheet, 0).createCell(4).setCellValue("Pull");
+            row(sheet, 2).createCell(0).setCellValue("Supino Reto");
+            row(sheet, 2).createCell(1).setCellValue("Drop set");
+            row(sheet, 2).createCell(2).setCellValue("4x8");
+            row(sheet, 3).createCell(0).setCellValue("Desenvolvimento");
+            row(sheet, 3).createCell(2).setCellValue("3x10");
+            row(sheet, 2).createCell(4).setCellValue("Remada Curvada");
+            row(sheet, 2).createCell(5).setCellValue("3x12");
+            row(sheet, 9).createCell(0).setCellValue("2 a 3 minutos");
+            workbook.write(outputStream);
+        }
+        byte[] excelData = outputStream.toByteArray();
+        
+        RoutineLayoutConfig layoutConfig = new RoutineLayoutConfig();
+        layoutConfig.getLayouts().put("push-pull", new RoutineLayoutConfig.Layout(List.of(
+                new RoutineLayoutConfig.Workout("A1", "A3:A8", "C", "B", "A10"),
+                new RoutineLayoutConfig.Workout("E1", "E3:E8", null, null, null))));
+        
+        for (XlsxParserProperties.ReaderMode mode : XlsxParserProperties.ReaderMode.values()) {
+            XlsxParserProperties properties = new XlsxParserProperties();
+            properties.setReader(mode);
+            XlsxParserService parser = new XlsxParserService(ParseResultCache.disabled(), properties, layoutConfig);
+            
+            ParsedRoutineData result = parser.parseRoutineFromXlsx(
+                    new ByteArrayInputStream(excelData), "plan.xlsx", "push-pull");
+            
+            assertEquals(2, result.getWorkouts().size(), mode.name());
+            ParsedWorkoutData push = result.getWorkouts().get(0);
+            assertEquals("Push", push.getWorkoutName());
+            assertEquals(2, push.getExercises().size());
+            assertEquals(4, push.getExercises().get(0).getSets());
+            assertEquals("Drop set", push.getExercises().get(0).getAdvancedTechnique());
+            assertEquals(3, push.getMaxRestMinutes());
+            
+            ParsedWorkoutData pull = result.getWorkouts().get(1);
+            assertEquals("Pull", pull.getWorkoutName());
+            assertEquals(12, pull.getExercises().get(0).getRepetitions());
+            assertNull(pull.getMinRestMinutes());
+        }
+    }
+
+    @Test
+    void testParseRoutineWithUnknownLayout() {
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(new byte[0]);
+        
+        assertThrows(IllegalArgumentException.class, () ->
+                xlsxParserService.parseRoutineFromXlsx(inputStream, "test.xlsx", "missing"));
+    }
+
+    @Test
+    void testParseRoutinesFromEverySheetInParallel() throws IOException {
+        byte[] excelData = createWeeklyWorkbook(5);
+        
+        for (XlsxParserProperties.ReaderMode mode : XlsxParserProperties.ReaderMode.values()) {
+            XlsxParserProperties properties = new XlsxParserProperties();
+            properties.setReader(mode);
+            properties.setParallelism(3);
+            XlsxParserService parser = new XlsxParserService(
+                    ParseResultCache.disabled(), properties, new RoutineLayoutConfig());
+            
+            List<ParsedRoutineData> routines = parser.parseRoutinesFromXlsx(
+                    new ByteArrayInputStream(excelData), "program.xlsx", null, null);
+            parser.shutdown();
+            
+            assertEquals(5, routines.size(), mode.name());
+            for (int week = 1; week <= 5; week++) {
+                ParsedRoutineData routine = routines.get(week - 1);
+                assertEquals("program - Week " + week, routine.getRoutineName());
+                assertEquals("Week " + week, routine.getSheetName());
+                
+                ParsedWorkoutData workout = routine.getWorkouts().get(0);
+                assertEquals("Workout A" + week, workout.getWorkoutName());
+                assertEquals(week, workout.getExercises().size());
+                assertEquals(week + 1, workout.getExercises().get(0).getSets());
+            }
+        }
+    }
+
+    @Test
+    void testParseRoutinesFromSelectedSheets() throws IOException {
+        byte[] excelData = createWeeklyWorkbook(4);
+        
+        List<ParsedRoutineData> routines = xlsxParserService.parseRoutinesFromXlsx(
+                new ByteArrayInputStream(excelData), "program.xlsx", null, List.of("Week 4", "Week 2"));
+        
+        // Workbook order, not request order
+        assertEquals(2, routines.size());
+        assertEquals("Week 2", routines.get(0).getSheetName());
+        assertEquals("Week 4", routines.get(1).getSheetName());
+        assertEquals(4, routines.get(1).getWorkouts().get(0).getExercises().size());
+    }
+
+    @Test
+    void testParseRoutinesFromUnknownSheet() throws IOException {
+        byte[] excelData = createWeeklyWorkbook(2);
+        
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () ->
+                xlsxParserService.parseRoutinesFromXlsx(
+                        new ByteArrayInputStream(excelData), "program.xlsx", null, List.of("Week 9")));
+        assertTrue(error.getMessage().contains("Week 9"));
+    }
+
+    /**
+     * One sheet per week, at most five; week N has N exercises in its first workout, done for
+     * N + 1 sets.
+     */
+    private static byte[] createWeeklyWorkbook(int weeks) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            for (int week = 1; week <= weeks; week++) {
+                var sheet = workbook.createSheet("Week " + week);
+                sheet.createRow(1).createCell(1).setCellValue("Workout A" + week);
+                for (int i = 0; i < week; i++) {
+                    var exerciseRow = sheet.createRow(3 + i);
+                    exerciseRow.createCell(1).setCellValue("Exercise " + week + "-" + i);
+                    exerciseRow.createCell(2).setCellValue((week + 1) + "x10");
+                }
+            }
+            workbook.write(outputStream);
+        }
+        return outputStream.toByteArray();
+    }
+
     @Test
     void testParseRoutineFromXlsx_InvalidFile() {
         ByteArrayInputStream inputStream = new ByteArrayInputStream("not an excel file".getBytes());
@@ -0,0 +1,101 @@
+package com.kraftlog.pdfimport.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExerciseMatchIndexTest {
+
+    private static final double MIN_SCORE = 0.85;
+
+    private final ExerciseMatchIndex<String> index = ExerciseMatchIndex.of(List.of(
+            "Supino Reto com Barra",
+            "Supino Inclinado com Halteres",
+            "Elevação Lateral",
+            "Rosca Direta",
+            "Rosca Direta Alternada",
+            "Levantamento Terra",
+            "Levantamento Terra Romeno",
+            "Agachamento Livre"), Function.identity());
+
+    @Test
+    void testFuzzyKeyFoldsAccentsPluralsAndAbbreviations() {
+        assertEquals("supino inclinado halter", ExerciseMatchIndex.fuzzyKey("Supino Inclinado c/ Halteres"));
+        assertEquals("supino inclinado halter", ExerciseMatchIndex.fuzzyKey("SUPINO INCLINADO HALTER"));
+        assertEquals("elevacao lateral", ExerciseMatchIndex.fuzzyKey("Elevações Laterais"));
+        assertEquals("rosca direta alternado", ExerciseMatchIndex.fuzzyKey("Rosca Direta Alt."));
+        assertEquals("", ExerciseMatchIndex.fuzzyKey(" c/ "));
+    }
+
+    @Test
+    void testEquivalentNamesMatchWithFullScore() {
+        assertMatch("Supino Inclinado com Halteres", 1.0, "supino inclinado c/ halteres");
+        assertMatch("Elevação Lateral", 1.0, "ELEVACOES LATERAIS");
+        assertMatch("Supino Reto com Barra", 1.0, "Supino Reto Barra");
+    }
+
+    @Test
+    void testCloseNamesMatchTheMostSimilarOne() {
+        Optional<ExerciseMatchIndex.Match<String>> match = index.bestMatch("Levantamento Terra Romena", MIN_SCORE);
+
+        assertEquals("Levantamento Terra Romeno", match.orElseThrow().value());
+        assertTrue(match.get().score() >= MIN_SCORE && match.get().score() < 1);
+    }
+
+    @Test
+    void testDifferentExercisesDoNotMatch() {
+        assertTrue(index.bestMatch("Supino Declinado", MIN_SCORE).isEmpty());
+        assertTrue(index.bestMatch("Agachamento Sumo", MIN_SCORE).isEmpty());
+        assertTrue(index.bestMatch("Leg Press 45", MIN_SCORE).isEmpty());
+        assertTrue(index.bestMatch("", MIN_SCORE).isEmpty());
+        assertTrue(index.bestMatch(null, MIN_SCORE).isEmpty());
+    }
+
+    @Test
+    void testExactKeyWinsOverLongerNames() {
+        assertMatch("Rosca Direta", 1.0, "rosca direta");
+        assertMatch("Levantamento Terra", 1.0, "Levantamento-Terra");
+    }
+
+    @Test
+    void testFirstValueOfAKeyIsKept() {
+        ExerciseMatchIndex<String> duplicates = ExerciseMatchIndex.of(
+                List.of("Rosca Direta", "ROSCA DIRETA", "Rosca Martelo"), Function.identity());
+
+        assertEquals(2, duplicates.size());
+        assertEquals("Rosca Direta", duplicates.bestMatch("rosca direta", MIN_SCORE).orElseThrow().value());
+    }
+
+    @Test
+    void testSimilarityMatchesIndexScores() {
+        assertEquals(1.0, ExerciseMatchIndex.similarity("Rosca Direta", "ROSCA DIRETA"));
+        assertEquals(index.bestMatch("Levantamento Terra Romena", 0).orElseThrow().score(),
+                ExerciseMatchIndex.similarity("Levantamento Terra Romena", "Levantamento Terra Romeno"));
+        assertEquals(0.0, ExerciseMatchIndex.similarity("Rosca Direta", "c/"));
+    }
+
+    @Test
+    void testLargeIndexStillFindsTheRightName() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            names.add("Exercicio " + i + " Variacao " + (i % 37));
+        }
+        names.add("Crucifixo Inverso na Polia");
+        ExerciseMatchIndex<String> large = ExerciseMatchIndex.of(names, Function.identity());
+
+        assertEquals("Crucifixo Inverso na Polia",
+                large.bestMatch("crucifixo inverso polias", MIN_SCORE).orElseThrow().value());
+    }
+
+    private void assertMatch(String expected, double expectedScore, String name) {
+        ExerciseMatchIndex.Match<String> match = index.bestMatch(name, MIN_SCORE).orElseThrow();
+        assertEquals(expected, match.value());
+        assertEquals(expected, match.name());
+        assertEquals(expectedScore, match.score());
+    }
+}
@@ -0,0 +1,82 @@
+package com.kraftlog.pdfimport.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExerciseNameNormalizerTest {
+
+    private final ExerciseNameNormalizer normalizer = new ExerciseNameNormalizer();
+
+    @Test
+    void testCleanCollapsesWhitespaceAndStripsNumbering() {
+        assertEquals("Supino Reto Barra", normalizer.clean("  1.  Supino \t Reto   Barra  "));
+        assertEquals("Remada Curvada", normalizer.clean("12- Remada Curvada"));
+        assertEquals("", normalizer.clean("3.1"));
+    }
+
+    @Test
+    void testCleanReplacesPipesAndBackslashes() {
+        assertEquals("Rosca   Direta", normalizer.clean("| Rosca | Direta |"));
+        assertEquals("Supino c/ Halteres", normalizer.clean("Supino c\\ Halteres"));
+    }
+
+    @Test
+    void testCleanRegion() {
+        String line = "2. Agachamento Livre https://youtu.be/abc";
+        assertEquals("Agachamento Livre", normalizer.clean(line, 0, line.indexOf("https")));
+    }
+
+    @Test
+    void testCleanMatchesRegexImplementation() {
+        char[] alphabet = {' ', ' ', '\t', '\n', '\r', '\u000B', '\f', '\u0001', '|', '\\',
+                '1', '9', '.', '-', 'a', 'Z', 'É', 'ç', '/'};
+        Random random = new Random(42);
+
+        for (int run = 0; run < 20_000; run++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(16);
+            for (int i = 0; i < length; i++) {
+                input.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+
+            String text = input.toString();
+            assertEquals(regexClean(text), normalizer.clean(text), () -> "Input: " + escape(text));
+        }
+    }
+
+    @Test
+    void testMatchKeyFoldsAccentsCaseAndPunctuation() {
+        assertEquals("supino inclinado c halteres", normalizer.matchKey("Supino Inclinado c/ Halteres"));
+        assertEquals("supino inclinado c halteres", normalizer.matchKey("SUPINO  INCLINADO C/HALTERES"));
+        assertEquals("elevacao pelvica", normalizer.matchKey("1. Elevação Pélvica"));
+        assertEquals("triceps frances", ExerciseNameNormalizer.matchKeyOf("Tríceps Francês."));
+    }
+
+    @Test
+    void testFold() {
+        assertEquals('a', ExerciseNameNormalizer.fold('Ã'));
+        assertEquals('c', ExerciseNameNormalizer.fold('Ç'));
+        assertEquals('o', ExerciseNameNormalizer.fold('ô'));
+        assertEquals('x', ExerciseNameNormalizer.fold('X'));
+        assertEquals('7', ExerciseNameNormalizer.fold('7'));
+    }
+
+    private static String regexClean(String name) {
+        name = name.replaceAll("\\s+", " ").trim();
+        name = name.replaceAll("^[\\d.\\-]+\\s*", "");
+        name = name.replaceAll("[|\\t]+", " ");
+        name = name.replace("\\", "/");
+        return name.trim();
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            escaped.append(c < ' ' ? String.format("\\u%04x", (int) c) : String.valueOf(c));
+        }
+        return escaped.toString();
+    }
+}